@@ -0,0 +1,99 @@
+package ai.langframework.langdatacore;
+
+import ai.langframework.langdatacore.exceptions.LoaderException;
+import ai.langframework.langdatacore.io.DocumentCache;
+import ai.langframework.langdatacore.io.HttpCache;
+import ai.langframework.langdatacore.io.HttpFetcher;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A client reusing the documents another client parsed from a link while the content of the link is
+ * unchanged. The link is revalidated through the {@link HttpCache} of the shared {@link
+ * HttpFetcher}, so an unchanged link is neither downloaded nor parsed again. Files are always read
+ * by the other client.
+ *
+ * <p>The documents are cached per client class and link: clients of the same class configured
+ * differently should use different document caches.
+ */
+public class CachingConnectorClient implements ConnectorClient {
+
+  private final ConnectorClient delegate;
+  private final DocumentCache documentCache;
+
+  /**
+   * Constructor wrapping a client.
+   *
+   * @param delegate The client parsing the documents.
+   * @param documentCache The cache of the parsed documents.
+   */
+  public CachingConnectorClient(ConnectorClient delegate, DocumentCache documentCache) {
+    this.delegate = delegate;
+    this.documentCache = documentCache;
+  }
+
+  /**
+   * Reads the documents of a link, from the document cache if the content of the link did not
+   * change since it was last parsed. Without an HTTP cache on the shared fetcher, or for links that
+   * are not http or https, the link is always read by the other client.
+   *
+   * @param link the link to read data from
+   * @return a list of documents
+   * @throws LoaderException if there is an issue loading the data
+   */
+  @Override
+  public List<Document> readData(String link) throws LoaderException {
+    HttpFetcher fetcher = HttpFetcher.getDefault();
+    HttpCache httpCache = fetcher.getCache();
+    if (httpCache == null || !HttpFetcher.isHttp(link)) {
+      return delegate.readData(link);
+    }
+
+    String contentHash;
+    try {
+      contentHash = httpCache.validate(fetcher, link);
+    } catch (IOException e) {
+      throw new LoaderException("Cannot fetch " + link, e);
+    }
+
+    String source = delegate.getClass().getName() + " " + link;
+    List<Document> documents = documentCache.get(source, contentHash);
+    if (documents != null) {
+      return documents;
+    }
+
+    // The body was just validated, so the other client reads it from the HTTP cache
+    documents = delegate.readData(link);
+    if (documents != null) {
+      try {
+        documentCache.put(source, contentHash, documents);
+      } catch (IOException e) {
+        e.printStackTrace();
+      }
+    }
+    return documents;
+  }
+
+  /**
+   * Reads the documents of a file with the other client.
+   *
+   * @param file the file to read data from
+   * @return a list of documents
+   * @throws LoaderException if there is an issue loading the data
+   */
+  @Override
+  public List<Document> readData(File file) throws LoaderException {
+    return delegate.readData(file);
+  }
+
+  /**
+   * Gets the client parsing the documents.
+   *
+   * @return The other client.
+   */
+  @Override
+  public Object getClient() {
+    return delegate;
+  }
+}
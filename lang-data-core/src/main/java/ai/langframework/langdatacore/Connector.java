@@ -3,9 +3,56 @@ package ai.langframework.langdatacore;
 import ai.langframework.langdatacore.exceptions.LoaderException;
 import java.io.File;
 import java.util.List;
+import java.util.stream.Stream;
 
+/**
+ * A connector that loads documents from a source. Implementations return lists of documents; the
+ * streaming {@code streamData} methods default to streaming those lists. Implementations that parse
+ * documents as they go implement {@link StreamingConnector} instead.
+ */
 public interface Connector {
-  List<Document> loadData(File file) throws LoaderException, LoaderException;
 
+  /**
+   * Loads all documents from a file.
+   *
+   * @param file the file to load data from
+   * @return a list of documents
+   * @throws LoaderException if there is an issue loading the data
+   */
+  List<Document> loadData(File file) throws LoaderException;
+
+  /**
+   * Loads all documents from a link.
+   *
+   * @param link the link to load data from
+   * @return a list of documents
+   * @throws LoaderException if there is an issue loading the data
+   */
   List<Document> loadData(String link) throws LoaderException;
+
+  /**
+   * Streams documents from a file. The default implementation streams the list of {@link
+   * #loadData(File)}. The returned stream must be closed.
+   *
+   * @param file the file to load data from
+   * @return a stream of documents
+   * @throws LoaderException if there is an issue loading the data
+   */
+  default Stream<Document> streamData(File file) throws LoaderException {
+    List<Document> documents = loadData(file);
+    return documents != null ? documents.stream() : Stream.empty();
+  }
+
+  /**
+   * Streams documents from a link. The default implementation streams the list of {@link
+   * #loadData(String)}. The returned stream must be closed.
+   *
+   * @param link the link to load data from
+   * @return a stream of documents
+   * @throws LoaderException if there is an issue loading the data
+   */
+  default Stream<Document> streamData(String link) throws LoaderException {
+    List<Document> documents = loadData(link);
+    return documents != null ? documents.stream() : Stream.empty();
+  }
 }
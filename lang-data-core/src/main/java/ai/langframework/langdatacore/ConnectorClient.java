@@ -1,13 +1,101 @@
 package ai.langframework.langdatacore;
 
 import ai.langframework.langdatacore.exceptions.LoaderException;
+import ai.langframework.langdatacore.io.HttpFetcher;
 import java.io.File;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * A client that reads documents from a source. Implementations return lists of documents; the
+ * streaming {@code streamData} methods default to streaming those lists. Implementations that parse
+ * documents as they go implement {@link StreamingConnectorClient} instead.
+ */
 public interface ConnectorClient {
   Object getClient();
 
+  /**
+   * Reads all documents from a file.
+   *
+   * @param file the file to read data from
+   * @return a list of documents
+   * @throws LoaderException if there is an issue loading the data
+   */
   List<Document> readData(File file) throws LoaderException;
 
+  /**
+   * Reads all documents from a link.
+   *
+   * @param link the link to read data from
+   * @return a list of documents
+   * @throws LoaderException if there is an issue loading the data
+   */
   List<Document> readData(String link) throws LoaderException;
+
+  /**
+   * Streams documents from a file. The default implementation streams the list of {@link
+   * #readData(File)}. The returned stream holds the underlying file open and must be closed,
+   * preferably with try-with-resources.
+   *
+   * @param file the file to read data from
+   * @return a stream of documents
+   * @throws LoaderException if there is an issue loading the data
+   */
+  default Stream<Document> streamData(File file) throws LoaderException {
+    List<Document> documents = readData(file);
+    return documents != null ? documents.stream() : Stream.empty();
+  }
+
+  /**
+   * Streams documents from a link. The default implementation streams the list of {@link
+   * #readData(String)}. The returned stream holds the underlying connection open and must be
+   * closed, preferably with try-with-resources.
+   *
+   * @param link the link to read data from
+   * @return a stream of documents
+   * @throws LoaderException if there is an issue loading the data
+   */
+  default Stream<Document> streamData(String link) throws LoaderException {
+    List<Document> documents = readData(link);
+    return documents != null ? documents.stream() : Stream.empty();
+  }
+
+  /**
+   * Reads the documents of several links concurrently, on the executor of the shared {@link
+   * HttpFetcher}. Each link is read with {@link #readData(String)}, so its body is streamed into
+   * the parser as it arrives. A link only fails the future if {@code readData} throws for it: most
+   * file clients log a link they cannot read and return no documents for it, or an empty one. A
+   * link for which {@code readData} returns null adds no documents.
+   *
+   * @param links the links to read data from
+   * @return a future of the documents of all links, in the order of the links, completed
+   *     exceptionally with the first exception thrown by {@code readData}
+   */
+  default CompletableFuture<List<Document>> readDataAsync(List<String> links) {
+    List<CompletableFuture<List<Document>>> futures =
+        links.stream()
+            .map(
+                link ->
+                    CompletableFuture.supplyAsync(
+                        () -> {
+                          try {
+                            List<Document> documents = readData(link);
+                            return documents != null ? documents : List.<Document>of();
+                          } catch (LoaderException e) {
+                            throw new CompletionException(e);
+                          }
+                        },
+                        HttpFetcher.getDefault().getExecutor()))
+            .collect(Collectors.toList());
+
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+        .thenApply(
+            done ->
+                futures.stream()
+                    .flatMap(future -> future.join().stream())
+                    .collect(Collectors.toList()));
+  }
 }
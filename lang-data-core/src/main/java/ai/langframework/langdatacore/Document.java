@@ -1,18 +1,16 @@
 package ai.langframework.langdatacore;
 
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
 
 public class Document {
   // Class Attributes
-  private String text;
-  private Map<String, String> metadata;
+  private CharSequence text;
+  private DocumentMetadata metadata;
 
   /** Default constructor initializing with empty text and metadata. */
   public Document() {
     text = "";
-    metadata = new HashMap<>();
+    metadata = DocumentMetadata.EMPTY;
   }
 
   /**
@@ -22,18 +20,31 @@ public class Document {
    */
   public Document(String text) {
     this.text = text != null ? text : "";
-    metadata = new HashMap<>();
+    metadata = DocumentMetadata.EMPTY;
   }
 
   /**
    * Constructor with text and metadata initialization.
    *
    * @param text The textual content of the document.
-   * @param metadata The metadata associated with the document.
+   * @param metadata The metadata associated with the document. A {@link DocumentMetadata} is
+   *     shared, any other map is copied.
    */
   public Document(String text, Map<String, String> metadata) {
+    this((CharSequence) text, metadata);
+  }
+
+  /**
+   * Constructor with a text that is only copied into a String when {@link #getText()} is called,
+   * such as a chunk view of a larger text.
+   *
+   * @param text The textual content of the document.
+   * @param metadata The metadata associated with the document. A {@link DocumentMetadata} is
+   *     shared, any other map is copied.
+   */
+  public Document(CharSequence text, Map<String, String> metadata) {
     this.text = text != null ? text : "";
-    this.metadata = metadata != null ? new HashMap<>(metadata) : new HashMap<>();
+    this.metadata = DocumentMetadata.copyOf(metadata);
   }
 
   /**
@@ -42,6 +53,19 @@ public class Document {
    * @return The text content.
    */
   public String getText() {
+    if (!(text instanceof String)) {
+      // Materialize once, later calls return the same String
+      text = text.toString();
+    }
+    return (String) text;
+  }
+
+  /**
+   * Gets the text of the document without copying it.
+   *
+   * @return The text content.
+   */
+  public CharSequence getContent() {
     return text;
   }
 
@@ -51,20 +75,18 @@ public class Document {
    * @return An unmodifiable map of the metadata.
    */
   public Map<String, String> getMetadata() {
-    // Return an unmodifiable view of the metadata map to preserve encapsulation
-    return Collections.unmodifiableMap(metadata);
+    return metadata;
   }
 
   /**
-   * Adds or updates a metadata entry.
+   * Adds or updates a metadata entry. The metadata is immutable and may be shared with other
+   * documents, so the document gets new metadata with the entry.
    *
    * @param key The key for the metadata entry.
    * @param value The value for the metadata entry.
    */
   public void addMetadata(String key, String value) {
-    if (key != null && value != null) {
-      metadata.put(key, value);
-    }
+    metadata = metadata.with(key, value);
   }
 
   /**
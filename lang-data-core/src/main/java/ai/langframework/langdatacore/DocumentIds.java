@@ -0,0 +1,97 @@
+package ai.langframework.langdatacore;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+
+/**
+ * Derives stable identifiers for documents, so that ingesting the same source twice writes to the
+ * same vector store entries instead of creating duplicates.
+ */
+public class DocumentIds {
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private DocumentIds() {}
+
+  // Metadata locating a document within its source, in the order they are combined
+  private static final String[] POSITION_KEYS = {"Row", "page", "slide", "section"};
+
+  /**
+   * Returns the identifier of a document. It is derived from the "Source" metadata and the position
+   * of the document within its source when the document has a source, and from its text otherwise.
+   * The position is made of the "Row", "page", "slide" and "section" metadata set by the connectors
+   * that read a source into several documents, followed by the "lookup_index" of a chunk.
+   *
+   * @param document The document to identify.
+   * @return A 64 character hexadecimal identifier.
+   */
+  public static String of(Document document) {
+    Map<String, String> metadata = document.getMetadata();
+    String source = metadata.get("Source");
+    if (source == null) {
+      return sha256Hex(document.getText());
+    }
+    StringBuilder position = new StringBuilder();
+    for (String key : POSITION_KEYS) {
+      String value = metadata.get(key);
+      if (value != null) {
+        position.append(key).append('=').append(value).append('/');
+      }
+    }
+    String lookupIndex = metadata.get("lookup_index");
+    if (position.length() == 0) {
+      // Documents holding a whole source or a chunk of it keep the ids they always had
+      return of(source, lookupIndex);
+    }
+    return of(source, position.append(lookupIndex != null ? lookupIndex : "").toString());
+  }
+
+  /**
+   * Returns the identifier of a chunk of a source.
+   *
+   * @param source The source the chunk was read from.
+   * @param chunkIndex The index of the chunk within the source, or null for a whole source.
+   * @return A 64 character hexadecimal identifier.
+   */
+  public static String of(String source, String chunkIndex) {
+    // The separator keeps ("a1", "2") and ("a", "12") apart
+    return sha256Hex(source + '\u0000' + (chunkIndex != null ? chunkIndex : ""));
+  }
+
+  /**
+   * Returns an identifier as a positive 64-bit key, for stores whose primary keys are integers.
+   *
+   * @param id An identifier returned by this class.
+   * @return The first 63 bits of the identifier.
+   */
+  public static long toLong(String id) {
+    return Long.parseUnsignedLong(id.substring(0, 16), 16) >>> 1;
+  }
+
+  /**
+   * Returns the SHA-256 digest of a string as lowercase hexadecimal.
+   *
+   * @param value The string to hash.
+   * @return The hexadecimal digest.
+   */
+  public static String sha256Hex(String value) {
+    byte[] digest = sha256().digest(value.getBytes(StandardCharsets.UTF_8));
+    char[] hex = new char[digest.length * 2];
+    for (int i = 0; i < digest.length; i++) {
+      hex[2 * i] = HEX[(digest[i] >> 4) & 0xF];
+      hex[2 * i + 1] = HEX[digest[i] & 0xF];
+    }
+    return new String(hex);
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+}
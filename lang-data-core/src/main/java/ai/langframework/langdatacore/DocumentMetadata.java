@@ -0,0 +1,245 @@
+package ai.langframework.langdatacore;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact, immutable metadata of a {@link Document}. The keys set by the connectors and splitters
+ * ("FileName", "Source", "FileSize", "Row" and "lookup_index") are stored in fixed fields, and any
+ * other key in a small array of interned keys. Changing a value creates a new instance sharing
+ * everything else, so a document and its chunks reference the same metadata instead of copying it.
+ */
+public final class DocumentMetadata extends AbstractMap<String, String> {
+
+  /** The metadata without any entry. */
+  public static final DocumentMetadata EMPTY =
+      new DocumentMetadata(null, null, null, null, null, new String[0], new String[0]);
+
+  private static final String FILE_NAME = "FileName";
+  private static final String SOURCE = "Source";
+  private static final String FILE_SIZE = "FileSize";
+  private static final String ROW = "Row";
+  private static final String LOOKUP_INDEX = "lookup_index";
+
+  // One instance of each other key, shared by the metadata of all documents
+  private static final Map<String, String> KEYS = new ConcurrentHashMap<>();
+
+  private final String fileName;
+  private final String source;
+  private final String fileSize;
+  private final String row;
+  private final String lookupIndex;
+  private final String[] keys;
+  private final String[] values;
+
+  private DocumentMetadata(
+      String fileName,
+      String source,
+      String fileSize,
+      String row,
+      String lookupIndex,
+      String[] keys,
+      String[] values) {
+    this.fileName = fileName;
+    this.source = source;
+    this.fileSize = fileSize;
+    this.row = row;
+    this.lookupIndex = lookupIndex;
+    this.keys = keys;
+    this.values = values;
+  }
+
+  /**
+   * Returns metadata holding the entries of a map. Entries with a null key or value are left out.
+   *
+   * @param map The entries.
+   * @return The map itself if it is already a DocumentMetadata, a copy of it otherwise.
+   */
+  public static DocumentMetadata copyOf(Map<String, String> map) {
+    if (map instanceof DocumentMetadata) {
+      return (DocumentMetadata) map;
+    }
+    DocumentMetadata metadata = EMPTY;
+    if (map != null) {
+      for (Map.Entry<String, String> entry : map.entrySet()) {
+        metadata = metadata.with(entry.getKey(), entry.getValue());
+      }
+    }
+    return metadata;
+  }
+
+  /**
+   * Returns metadata with an entry added or replaced. This instance is not modified.
+   *
+   * @param key The key of the entry.
+   * @param value The value of the entry.
+   * @return The new metadata, or this one if the key or the value is null.
+   */
+  public DocumentMetadata with(String key, String value) {
+    if (key == null || value == null) {
+      return this;
+    }
+    switch (key) {
+      case FILE_NAME:
+        return new DocumentMetadata(value, source, fileSize, row, lookupIndex, keys, values);
+      case SOURCE:
+        return new DocumentMetadata(fileName, value, fileSize, row, lookupIndex, keys, values);
+      case FILE_SIZE:
+        return new DocumentMetadata(fileName, source, value, row, lookupIndex, keys, values);
+      case ROW:
+        return new DocumentMetadata(fileName, source, fileSize, value, lookupIndex, keys, values);
+      case LOOKUP_INDEX:
+        return new DocumentMetadata(fileName, source, fileSize, row, value, keys, values);
+      default:
+        break;
+    }
+
+    int index = indexOf(key);
+    String[] newKeys = keys;
+    String[] newValues;
+    if (index >= 0) {
+      newValues = values.clone();
+    } else {
+      index = keys.length;
+      newKeys = Arrays.copyOf(keys, index + 1);
+      newKeys[index] = intern(key);
+      newValues = Arrays.copyOf(values, index + 1);
+    }
+    newValues[index] = value;
+    return new DocumentMetadata(fileName, source, fileSize, row, lookupIndex, newKeys, newValues);
+  }
+
+  @Override
+  public String get(Object key) {
+    if (!(key instanceof String)) {
+      return null;
+    }
+    switch ((String) key) {
+      case FILE_NAME:
+        return fileName;
+      case SOURCE:
+        return source;
+      case FILE_SIZE:
+        return fileSize;
+      case ROW:
+        return row;
+      case LOOKUP_INDEX:
+        return lookupIndex;
+      default:
+        int index = indexOf((String) key);
+        return index >= 0 ? values[index] : null;
+    }
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return get(key) != null;
+  }
+
+  @Override
+  public int size() {
+    int size = keys.length;
+    for (int slot = 0; slot < 5; slot++) {
+      if (fixedValue(slot) != null) {
+        size++;
+      }
+    }
+    return size;
+  }
+
+  @Override
+  public Set<Entry<String, String>> entrySet() {
+    return new AbstractSet<>() {
+      @Override
+      public Iterator<Entry<String, String>> iterator() {
+        return new EntryIterator();
+      }
+
+      @Override
+      public int size() {
+        return DocumentMetadata.this.size();
+      }
+    };
+  }
+
+  private int indexOf(String key) {
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i].equals(key)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private String fixedKey(int slot) {
+    switch (slot) {
+      case 0:
+        return FILE_NAME;
+      case 1:
+        return SOURCE;
+      case 2:
+        return FILE_SIZE;
+      case 3:
+        return ROW;
+      default:
+        return LOOKUP_INDEX;
+    }
+  }
+
+  private String fixedValue(int slot) {
+    switch (slot) {
+      case 0:
+        return fileName;
+      case 1:
+        return source;
+      case 2:
+        return fileSize;
+      case 3:
+        return row;
+      default:
+        return lookupIndex;
+    }
+  }
+
+  private static String intern(String key) {
+    String interned = KEYS.putIfAbsent(key, key);
+    return interned != null ? interned : key;
+  }
+
+  /** Iterates over the fixed entries that are set, then over the other entries */
+  private class EntryIterator implements Iterator<Entry<String, String>> {
+    // Positions 0 to 4 are the fixed fields, the following ones index the other keys
+    private int position = skipUnset(0);
+
+    private int skipUnset(int position) {
+      while (position < 5 && fixedValue(position) == null) {
+        position++;
+      }
+      return position;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return position < 5 + keys.length;
+    }
+
+    @Override
+    public Entry<String, String> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Entry<String, String> entry =
+          position < 5
+              ? new SimpleImmutableEntry<>(fixedKey(position), fixedValue(position))
+              : new SimpleImmutableEntry<>(keys[position - 5], values[position - 5]);
+      position = skipUnset(position + 1);
+      return entry;
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package ai.langframework.langdatacore;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Conversions between primitive embedding vectors and the forms expected by model and vector store
+ * clients. Vectors are kept as float[] everywhere else, so each embedding is a single array.
+ */
+public class FloatVectors {
+
+  private FloatVectors() {}
+
+  /**
+   * Copies numbers returned by a client into a primitive vector.
+   *
+   * @param values The values of the vector.
+   * @return The vector.
+   */
+  public static float[] toArray(List<? extends Number> values) {
+    float[] vector = new float[values.size()];
+    int i = 0;
+    for (Number value : values) {
+      vector[i++] = value.floatValue();
+    }
+    return vector;
+  }
+
+  /**
+   * Returns a read-only list view of a vector, for clients taking a list of floats. Values are
+   * boxed one at a time as the client reads them, instead of all at once.
+   *
+   * @param vector The vector.
+   * @return A list backed by the vector.
+   */
+  public static List<Float> asList(float[] vector) {
+    return new FloatArrayList(vector);
+  }
+
+  /**
+   * Copies a vector into a boxed array, for clients taking a Float[].
+   *
+   * @param vector The vector.
+   * @return The boxed values.
+   */
+  public static Float[] toBoxed(float[] vector) {
+    Float[] values = new Float[vector.length];
+    for (int i = 0; i < vector.length; i++) {
+      values[i] = vector[i];
+    }
+    return values;
+  }
+
+  /** Read-only list view of a float array. */
+  private static class FloatArrayList extends AbstractList<Float> implements RandomAccess {
+    private final float[] values;
+
+    FloatArrayList(float[] values) {
+      this.values = values;
+    }
+
+    @Override
+    public Float get(int index) {
+      return values[index];
+    }
+
+    @Override
+    public int size() {
+      return values.length;
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package ai.langframework.langdatacore;
+
+import java.io.File;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A connector that streams documents from a source as they are parsed. Implementations provide the
+ * {@code streamData} methods; the {@code loadData} methods default to collecting those streams.
+ */
+public interface StreamingConnector extends Connector {
+
+  /**
+   * Loads all documents from a file. The default implementation collects {@link #streamData(File)}.
+   *
+   * @param file the file to load data from
+   * @return a list of documents
+   */
+  @Override
+  default List<Document> loadData(File file) {
+    try (Stream<Document> documents = streamData(file)) {
+      return documents.collect(Collectors.toList());
+    }
+  }
+
+  /**
+   * Loads all documents from a link. The default implementation collects {@link
+   * #streamData(String)}.
+   *
+   * @param link the link to load data from
+   * @return a list of documents
+   */
+  @Override
+  default List<Document> loadData(String link) {
+    try (Stream<Document> documents = streamData(link)) {
+      return documents.collect(Collectors.toList());
+    }
+  }
+
+  /**
+   * Streams documents from a file as they are parsed. The returned stream must be closed.
+   *
+   * @param file the file to load data from
+   * @return a stream of documents
+   */
+  @Override
+  Stream<Document> streamData(File file);
+
+  /**
+   * Streams documents from a link as they are parsed. The returned stream must be closed.
+   *
+   * @param link the link to load data from
+   * @return a stream of documents
+   */
+  @Override
+  Stream<Document> streamData(String link);
+}
@@ -0,0 +1,60 @@
+package ai.langframework.langdatacore;
+
+import java.io.File;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A client that streams documents from a source as they are parsed. Implementations provide the
+ * {@code streamData} methods; the {@code readData} methods default to collecting those streams.
+ */
+public interface StreamingConnectorClient extends ConnectorClient {
+
+  /**
+   * Reads all documents from a file. The default implementation collects {@link #streamData(File)}.
+   *
+   * @param file the file to read data from
+   * @return a list of documents
+   */
+  @Override
+  default List<Document> readData(File file) {
+    try (Stream<Document> documents = streamData(file)) {
+      return documents.collect(Collectors.toList());
+    }
+  }
+
+  /**
+   * Reads all documents from a link. The default implementation collects {@link
+   * #streamData(String)}.
+   *
+   * @param link the link to read data from
+   * @return a list of documents
+   */
+  @Override
+  default List<Document> readData(String link) {
+    try (Stream<Document> documents = streamData(link)) {
+      return documents.collect(Collectors.toList());
+    }
+  }
+
+  /**
+   * Streams documents from a file as they are parsed. The returned stream holds the underlying file
+   * open and must be closed, preferably with try-with-resources.
+   *
+   * @param file the file to read data from
+   * @return a stream of documents
+   */
+  @Override
+  Stream<Document> streamData(File file);
+
+  /**
+   * Streams documents from a link as they are parsed. The returned stream holds the underlying
+   * connection open and must be closed, preferably with try-with-resources.
+   *
+   * @param link the link to read data from
+   * @return a stream of documents
+   */
+  @Override
+  Stream<Document> streamData(String link);
+}
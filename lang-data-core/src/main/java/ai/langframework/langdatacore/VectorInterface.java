@@ -12,4 +12,22 @@ public interface VectorInterface {
   void addDocuments(List<Document> documents);
 
   List<Document> searchSimilarity(String query);
+
+  /**
+   * Embeds documents and writes them under the given ids, replacing the entries already stored
+   * under those ids.
+   *
+   * @param documents The documents to write.
+   * @param ids The id of each document, as returned by {@link DocumentIds}.
+   * @throws Exception if the documents cannot be embedded or written.
+   */
+  void upsertDocuments(List<Document> documents, List<String> ids) throws Exception;
+
+  /**
+   * Deletes the entries stored under the given ids. Ids that are not stored are ignored.
+   *
+   * @param ids The ids to delete, as passed to {@link #upsertDocuments(List, List)}.
+   * @throws Exception if the entries cannot be deleted.
+   */
+  void deleteDocuments(List<String> ids) throws Exception;
 }
@@ -0,0 +1,109 @@
+package ai.langframework.langdatacore.embeddings;
+
+import ai.langframework.langdatacore.exceptions.EmbeddingException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Provider that looks texts up in an {@link EmbeddingCache} before embedding them with another
+ * provider. Only the texts missing from the cache are sent to the other provider, in a single
+ * batch, and their vectors are added to the cache.
+ */
+public class CachingEmbeddingProvider implements EmbeddingProvider {
+
+  private final EmbeddingProvider delegate;
+  private final EmbeddingCache cache;
+
+  /**
+   * Creates a caching provider.
+   *
+   * @param delegate The provider embedding the texts missing from the cache.
+   * @param cache The cache to read and fill.
+   * @throws IllegalArgumentException if the provider does not name its model.
+   */
+  public CachingEmbeddingProvider(EmbeddingProvider delegate, EmbeddingCache cache) {
+    if (delegate.getModel() == null) {
+      throw new IllegalArgumentException("Caching embeddings requires an explicit model");
+    }
+    this.delegate = delegate;
+    this.cache = cache;
+  }
+
+  /**
+   * Embeds a batch of texts, sending only the texts missing from the cache to the other provider.
+   * Texts repeated in the batch are embedded once.
+   *
+   * @param texts The texts to embed.
+   * @return One vector per text, in the order of the texts passed.
+   */
+  @Override
+  public List<float[]> embed(List<String> texts) {
+    String model = getModel();
+    float[][] vectors = new float[texts.size()][];
+    Map<String, List<Integer>> missing = new LinkedHashMap<>();
+
+    for (int i = 0; i < texts.size(); i++) {
+      vectors[i] = cache.get(model, texts.get(i));
+      if (vectors[i] == null) {
+        missing.computeIfAbsent(texts.get(i), text -> new ArrayList<>(1)).add(i);
+      }
+    }
+
+    if (!missing.isEmpty()) {
+      List<String> missingTexts = new ArrayList<>(missing.keySet());
+      List<float[]> embedded = delegate.embed(missingTexts);
+      if (embedded.size() != missingTexts.size()) {
+        throw new EmbeddingException(
+            "Expected " + missingTexts.size() + " embeddings but received " + embedded.size());
+      }
+
+      for (int j = 0; j < missingTexts.size(); j++) {
+        cache.put(model, missingTexts.get(j), embedded.get(j));
+        for (int i : missing.get(missingTexts.get(j))) {
+          vectors[i] = embedded.get(j);
+        }
+      }
+    }
+
+    return Arrays.asList(vectors);
+  }
+
+  /**
+   * Embeds a single text, using the other provider only when the text is missing from the cache.
+   *
+   * @param text The text to embed.
+   * @return The vector of the text.
+   */
+  @Override
+  public float[] embed(String text) {
+    String model = getModel();
+    float[] vector = cache.get(model, text);
+    if (vector == null) {
+      vector = delegate.embed(text);
+      cache.put(model, text, vector);
+    }
+    return vector;
+  }
+
+  /**
+   * Gets the name of the model of the other provider, which is part of the cache key.
+   *
+   * @return The model name.
+   */
+  @Override
+  public String getModel() {
+    return delegate.getModel();
+  }
+
+  /**
+   * Gets the provider embedding the texts missing from the cache.
+   *
+   * @return The other provider.
+   */
+  public EmbeddingProvider getDelegate() {
+    return delegate;
+  }
+}
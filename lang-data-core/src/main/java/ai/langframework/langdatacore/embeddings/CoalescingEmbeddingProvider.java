@@ -0,0 +1,218 @@
+package ai.langframework.langdatacore.embeddings;
+
+import ai.langframework.langdatacore.exceptions.EmbeddingException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base class for providers backed by a batch embedding API. Batches passed to {@link #embed(List)}
+ * are split into requests of at most maxBatchSize texts. Single texts embedded concurrently from
+ * different threads are coalesced: the first one waits up to maxWait for others to arrive, and they
+ * are sent together as one request of at most maxBatchSize texts.
+ */
+public abstract class CoalescingEmbeddingProvider implements EmbeddingProvider, AutoCloseable {
+
+  private final int maxBatchSize;
+  private final long maxWaitNanos;
+  private final int maxConcurrentBatches;
+  private final BlockingQueue<PendingText> pending = new LinkedBlockingQueue<>();
+  private ExecutorService batchExecutor;
+  private Thread dispatcher;
+  private volatile boolean closed;
+
+  /**
+   * Creates a provider with the given coalescing limits.
+   *
+   * @param maxBatchSize The maximum number of texts sent in one request.
+   * @param maxWait The maximum time a single text waits for others to share its request.
+   * @param maxConcurrentBatches The maximum number of coalesced requests in flight.
+   */
+  protected CoalescingEmbeddingProvider(
+      int maxBatchSize, Duration maxWait, int maxConcurrentBatches) {
+    if (maxBatchSize <= 0 || maxConcurrentBatches <= 0 || maxWait.isNegative()) {
+      throw new IllegalArgumentException("Invalid coalescing limits");
+    }
+    this.maxBatchSize = maxBatchSize;
+    this.maxWaitNanos = maxWait.toNanos();
+    this.maxConcurrentBatches = maxConcurrentBatches;
+  }
+
+  /**
+   * Sends a single request embedding the texts.
+   *
+   * @param texts At most maxBatchSize texts.
+   * @return One vector per text, in the order of the texts passed.
+   */
+  protected abstract List<float[]> embedBatch(List<String> texts);
+
+  /**
+   * Embeds a batch of texts, in requests of at most maxBatchSize texts. A batch of a single text is
+   * coalesced with concurrent calls.
+   *
+   * @param texts The texts to embed.
+   * @return One vector per text, in the order of the texts passed.
+   */
+  @Override
+  public List<float[]> embed(List<String> texts) {
+    if (texts.size() == 1) {
+      return List.of(embed(texts.get(0)));
+    }
+
+    List<float[]> vectors = new ArrayList<>(texts.size());
+    for (int start = 0; start < texts.size(); start += maxBatchSize) {
+      List<String> batch = texts.subList(start, Math.min(start + maxBatchSize, texts.size()));
+      vectors.addAll(checkedBatch(batch));
+    }
+    return vectors;
+  }
+
+  /**
+   * Embeds a single text, sharing the request with texts embedded concurrently.
+   *
+   * @param text The text to embed.
+   * @return The vector of the text.
+   */
+  @Override
+  public float[] embed(String text) {
+    PendingText pendingText = new PendingText(text);
+    enqueue(pendingText);
+
+    try {
+      return pendingText.vector.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new EmbeddingException("Failed to embed text", e.getCause());
+    }
+  }
+
+  /** Stops coalescing. Texts already waiting are still embedded. */
+  @Override
+  public synchronized void close() {
+    closed = true;
+    if (dispatcher != null) {
+      dispatcher.interrupt();
+    }
+  }
+
+  private synchronized void enqueue(PendingText pendingText) {
+    if (closed) {
+      throw new IllegalStateException("Embedding provider is closed");
+    }
+    if (dispatcher == null) {
+      batchExecutor =
+          Executors.newFixedThreadPool(
+              maxConcurrentBatches,
+              runnable -> {
+                Thread thread = new Thread(runnable, "embedding-batch");
+                thread.setDaemon(true);
+                return thread;
+              });
+      dispatcher = new Thread(this::dispatch, "embedding-coalescer");
+      dispatcher.setDaemon(true);
+      dispatcher.start();
+    }
+    pending.add(pendingText);
+  }
+
+  /** Groups waiting texts into batches until the provider is closed. */
+  private void dispatch() {
+    try {
+      dispatchUntilClosed();
+    } finally {
+      batchExecutor.shutdown();
+    }
+  }
+
+  private void dispatchUntilClosed() {
+    while (!closed || !pending.isEmpty()) {
+      PendingText first;
+      try {
+        first = closed ? pending.poll() : pending.take();
+      } catch (InterruptedException e) {
+        // Interrupted by close, drain what is left without waiting
+        continue;
+      }
+      if (first == null) {
+        return;
+      }
+
+      List<PendingText> batch = new ArrayList<>();
+      batch.add(first);
+      long deadline = System.nanoTime() + maxWaitNanos;
+      while (batch.size() < maxBatchSize) {
+        PendingText next = pollBefore(deadline);
+        if (next == null) {
+          break;
+        }
+        batch.add(next);
+      }
+
+      batchExecutor.execute(() -> complete(batch));
+    }
+  }
+
+  /**
+   * Takes the next waiting text, waiting until the deadline unless the provider is closed.
+   *
+   * @param deadline The System.nanoTime() after which to stop waiting.
+   * @return The next text, or null if none arrived in time.
+   */
+  private PendingText pollBefore(long deadline) {
+    long remaining = deadline - System.nanoTime();
+    if (closed || remaining <= 0) {
+      return pending.poll();
+    }
+    try {
+      return pending.poll(remaining, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      return pending.poll();
+    }
+  }
+
+  private void complete(List<PendingText> batch) {
+    List<String> texts = new ArrayList<>(batch.size());
+    for (PendingText pendingText : batch) {
+      texts.add(pendingText.text);
+    }
+
+    try {
+      List<float[]> vectors = checkedBatch(texts);
+      for (int i = 0; i < batch.size(); i++) {
+        batch.get(i).vector.complete(vectors.get(i));
+      }
+    } catch (RuntimeException e) {
+      for (PendingText pendingText : batch) {
+        pendingText.vector.completeExceptionally(e);
+      }
+    }
+  }
+
+  private List<float[]> checkedBatch(List<String> texts) {
+    List<float[]> vectors = embedBatch(texts);
+    if (vectors.size() != texts.size()) {
+      throw new EmbeddingException(
+          "Expected " + texts.size() + " embeddings but received " + vectors.size());
+    }
+    return vectors;
+  }
+
+  /** A text waiting to be embedded in a coalesced request. */
+  private static class PendingText {
+    private final String text;
+    private final CompletableFuture<float[]> vector = new CompletableFuture<>();
+
+    PendingText(String text) {
+      this.text = text;
+    }
+  }
+}
@@ -0,0 +1,265 @@
+package ai.langframework.langdatacore.embeddings;
+
+import ai.langframework.langdatacore.Logger;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Persistent store of embedding vectors keyed by the model and the SHA-256 digest of the text.
+ * Vectors are appended to a single file that is memory-mapped for reads, and the most recently used
+ * vectors are also kept on the heap. The file can be shared by several models and survives
+ * restarts, so unchanged texts are never embedded twice.
+ *
+ * <p>Each record is the 32 byte key, the vector length and the vector values. A record cut short by
+ * a crash is discarded when the file is opened.
+ */
+public class EmbeddingCache implements AutoCloseable {
+
+  private static final int KEY_BYTES = 32;
+  private static final int HEADER_BYTES = KEY_BYTES + Integer.BYTES;
+
+  private final FileChannel channel;
+  private final Map<ByteBuffer, Long> offsets = new HashMap<>();
+  private final Map<ByteBuffer, float[]> recent;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private MappedByteBuffer mapped;
+  private long size;
+
+  /**
+   * Opens the cache file, creating it if needed, and keeps up to 10000 vectors on the heap.
+   *
+   * @param file The cache file.
+   * @throws IOException if the file cannot be opened or read.
+   */
+  public EmbeddingCache(Path file) throws IOException {
+    this(file, 10_000);
+  }
+
+  /**
+   * Opens the cache file, creating it if needed.
+   *
+   * @param file The cache file.
+   * @param memoryEntries The number of most recently used vectors kept on the heap.
+   * @throws IOException if the file cannot be opened or read.
+   */
+  public EmbeddingCache(Path file, int memoryEntries) throws IOException {
+    if (memoryEntries < 0) {
+      throw new IllegalArgumentException("Memory entries must not be negative");
+    }
+    this.recent =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<ByteBuffer, float[]> eldest) {
+            return size() > memoryEntries;
+          }
+        };
+    this.channel =
+        FileChannel.open(
+            file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      loadIndex();
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Gets the cached vector of a text.
+   *
+   * @param model The model the vector was produced by.
+   * @param text The embedded text.
+   * @return The vector, or null if the text was not embedded with this model yet. The array is
+   *     shared and must not be modified.
+   */
+  public synchronized float[] get(String model, String text) {
+    ByteBuffer key = key(model, text);
+
+    float[] vector = recent.get(key);
+    if (vector == null) {
+      Long offset = offsets.get(key);
+      if (offset != null) {
+        try {
+          vector = read(offset);
+          recent.put(key, vector);
+        } catch (IOException e) {
+          Logger.error("Failed to read cached embedding: " + e.getMessage());
+        }
+      }
+    }
+
+    if (vector != null) {
+      hits.increment();
+    } else {
+      misses.increment();
+    }
+    return vector;
+  }
+
+  /**
+   * Stores the vector of a text. A vector that cannot be written to the file is still kept on the
+   * heap.
+   *
+   * @param model The model the vector was produced by.
+   * @param text The embedded text.
+   * @param vector The vector.
+   */
+  public synchronized void put(String model, String text, float[] vector) {
+    ByteBuffer key = key(model, text);
+    recent.put(key, vector);
+    if (offsets.containsKey(key)) {
+      return;
+    }
+
+    ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + vector.length * Float.BYTES);
+    record.put(key.duplicate()).putInt(vector.length);
+    record.asFloatBuffer().put(vector);
+    record.rewind();
+
+    try {
+      long offset = size;
+      while (record.hasRemaining()) {
+        offset += channel.write(record, offset);
+      }
+      offsets.put(key, size);
+      size = offset;
+    } catch (IOException e) {
+      Logger.error("Failed to write cached embedding: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Gets the number of vectors stored in the file.
+   *
+   * @return The number of stored vectors.
+   */
+  public synchronized int size() {
+    return offsets.size();
+  }
+
+  /**
+   * Gets the number of lookups that found a vector.
+   *
+   * @return The number of hits.
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * Gets the number of lookups that found no vector.
+   *
+   * @return The number of misses.
+   */
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /** Flushes the file to disk and closes it. */
+  @Override
+  public synchronized void close() throws IOException {
+    try {
+      channel.force(false);
+    } finally {
+      mapped = null;
+      channel.close();
+    }
+  }
+
+  /** Indexes the records of the file, truncating a record left incomplete by a crash. */
+  private void loadIndex() throws IOException {
+    long fileSize = channel.size();
+    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+    long offset = 0;
+
+    while (offset + HEADER_BYTES <= fileSize) {
+      header.clear();
+      readFully(header, offset);
+      header.flip();
+
+      byte[] key = new byte[KEY_BYTES];
+      header.get(key);
+      int length = header.getInt();
+      long next = offset + HEADER_BYTES + (long) length * Float.BYTES;
+      if (length < 0 || next > fileSize) {
+        break;
+      }
+
+      offsets.put(ByteBuffer.wrap(key), offset);
+      offset = next;
+    }
+
+    if (offset < fileSize) {
+      Logger.warn("Discarding incomplete embedding cache record at offset " + offset);
+      channel.truncate(offset);
+    }
+    size = offset;
+  }
+
+  /**
+   * Reads the vector of the record at the given offset, from the mapped file when the record lies
+   * in the first 2 GB and from the channel otherwise.
+   */
+  private float[] read(long offset) throws IOException {
+    long end = offset + HEADER_BYTES;
+    if (end <= Integer.MAX_VALUE && (mapped == null || end > mapped.limit())) {
+      mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, Integer.MAX_VALUE));
+    }
+
+    if (end <= Integer.MAX_VALUE) {
+      int length = mapped.getInt((int) offset + KEY_BYTES);
+      long valuesEnd = end + (long) length * Float.BYTES;
+      if (valuesEnd <= mapped.limit()) {
+        float[] vector = new float[length];
+        mapped.slice((int) end, length * Float.BYTES).asFloatBuffer().get(vector);
+        return vector;
+      }
+    }
+
+    ByteBuffer lengthBuffer = ByteBuffer.allocate(Integer.BYTES);
+    readFully(lengthBuffer, offset + KEY_BYTES);
+    lengthBuffer.flip();
+    ByteBuffer values = ByteBuffer.allocate(lengthBuffer.getInt() * Float.BYTES);
+    readFully(values, end);
+    values.flip();
+    float[] vector = new float[values.remaining() / Float.BYTES];
+    values.asFloatBuffer().get(vector);
+    return vector;
+  }
+
+  private void readFully(ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position);
+      if (read < 0) {
+        throw new IOException("Unexpected end of embedding cache file");
+      }
+      position += read;
+    }
+  }
+
+  private static ByteBuffer key(String model, String text) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256
+      throw new IllegalStateException(e);
+    }
+    // The separator keeps ("a1", "2") and ("a", "12") apart
+    digest.update(model.getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+    return ByteBuffer.wrap(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+  }
+}
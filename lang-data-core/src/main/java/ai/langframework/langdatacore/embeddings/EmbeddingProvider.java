@@ -0,0 +1,40 @@
+package ai.langframework.langdatacore.embeddings;
+
+import java.util.List;
+
+/**
+ * Turns texts into embedding vectors. Vector connectors accept any provider, so the embedding model
+ * can be changed, shared or decorated without touching the connector.
+ */
+public interface EmbeddingProvider {
+
+  /**
+   * Embeds a batch of texts.
+   *
+   * @param texts The texts to embed.
+   * @return One vector per text, in the order of the texts passed.
+   * @throws ai.langframework.langdatacore.exceptions.EmbeddingException if the texts cannot be
+   *     embedded.
+   */
+  List<float[]> embed(List<String> texts);
+
+  /**
+   * Embeds a single text.
+   *
+   * @param text The text to embed.
+   * @return The vector of the text.
+   * @throws ai.langframework.langdatacore.exceptions.EmbeddingException if the text cannot be
+   *     embedded.
+   */
+  default float[] embed(String text) {
+    return embed(List.of(text)).get(0);
+  }
+
+  /**
+   * Gets the name of the model producing the vectors, which keys them in an {@link EmbeddingCache}.
+   *
+   * @return The model name, or null if the service picks its default model, whose vectors then
+   *     cannot be cached.
+   */
+  String getModel();
+}
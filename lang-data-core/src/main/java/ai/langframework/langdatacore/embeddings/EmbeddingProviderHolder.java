@@ -0,0 +1,114 @@
+package ai.langframework.langdatacore.embeddings;
+
+import ai.langframework.langdatacore.Logger;
+
+/**
+ * Holds the embedding provider of a vector connector and puts the {@link EmbeddingCache}, when one
+ * is set, in front of it. The provider and the cache can be replaced independently and in any
+ * order. A provider the connector created itself is closed once replaced, which stops the threads
+ * of a {@link CoalescingEmbeddingProvider}. A provider can only be put behind a cache if it names
+ * its model, since the model is part of the cache key.
+ */
+public class EmbeddingProviderHolder {
+
+  private EmbeddingProvider provider;
+  private boolean owned;
+  private EmbeddingCache cache;
+  private volatile EmbeddingProvider effective;
+
+  /**
+   * Gets the provider to embed texts with: the provider looking texts up in the cache first when a
+   * cache is set, the provider itself otherwise.
+   *
+   * @return The provider to use, or null if no provider is set.
+   */
+  public EmbeddingProvider get() {
+    return effective;
+  }
+
+  /**
+   * Gets the provider embedding the texts, without the cache.
+   *
+   * @return The provider, or null if none is set.
+   */
+  public synchronized EmbeddingProvider getProvider() {
+    return provider;
+  }
+
+  /**
+   * Sets the provider embedding the texts, which stays open when it is replaced.
+   *
+   * @param provider The provider, or null to embed nothing.
+   * @throws IllegalStateException if a cache is set and the provider does not name its model.
+   */
+  public synchronized void setProvider(EmbeddingProvider provider) {
+    replace(provider, false);
+  }
+
+  /**
+   * Sets a provider created by the connector, which is closed when it is replaced.
+   *
+   * @param provider The provider, or null to embed nothing.
+   * @throws IllegalStateException if a cache is set and the provider does not name its model.
+   */
+  public synchronized void setOwnedProvider(EmbeddingProvider provider) {
+    replace(provider, true);
+  }
+
+  /**
+   * Gets the cache looked up before embedding texts.
+   *
+   * @return The cache, or null if texts are always embedded.
+   */
+  public synchronized EmbeddingCache getCache() {
+    return cache;
+  }
+
+  /**
+   * Sets the cache looked up before embedding texts.
+   *
+   * @param cache The cache, or null to stop caching.
+   * @throws IllegalStateException if the provider does not name its model.
+   */
+  public synchronized void setCache(EmbeddingCache cache) {
+    checkCacheable(provider, cache);
+    this.cache = cache;
+    update();
+  }
+
+  /**
+   * Replaces the provider, then closes the previous one if it was created by the connector. Texts
+   * it is already embedding are still embedded.
+   */
+  private void replace(EmbeddingProvider provider, boolean owned) {
+    checkCacheable(provider, cache);
+    EmbeddingProvider previous = this.provider;
+    boolean previousOwned = this.owned;
+    this.provider = provider;
+    this.owned = owned;
+    update();
+
+    if (previousOwned && previous != provider && previous instanceof AutoCloseable) {
+      try {
+        ((AutoCloseable) previous).close();
+      } catch (Exception e) {
+        Logger.error("Failed to close embedding provider: " + e.getMessage());
+      }
+    }
+  }
+
+  private static void checkCacheable(EmbeddingProvider provider, EmbeddingCache cache) {
+    if (provider != null && cache != null && provider.getModel() == null) {
+      throw new IllegalStateException(
+          "Caching embeddings requires an explicit model, the default model of the API may"
+              + " change");
+    }
+  }
+
+  private void update() {
+    effective =
+        provider == null || cache == null
+            ? provider
+            : new CachingEmbeddingProvider(provider, cache);
+  }
+}
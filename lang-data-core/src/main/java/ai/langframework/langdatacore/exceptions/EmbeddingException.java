@@ -0,0 +1,11 @@
+package ai.langframework.langdatacore.exceptions;
+
+public class EmbeddingException extends RuntimeException {
+  public EmbeddingException(String message) {
+    super(message);
+  }
+
+  public EmbeddingException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,166 @@
+package ai.langframework.langdatacore.ingestion;
+
+import ai.langframework.langdatacore.Document;
+import ai.langframework.langdatacore.DocumentIds;
+import ai.langframework.langdatacore.Logger;
+import ai.langframework.langdatacore.VectorInterface;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps a vector store in step with its sources, writing only what changed since the last run. The
+ * chunks of each source are compared with those recorded in an {@link IngestionManifest}: new and
+ * changed chunks are embedded and upserted, unchanged ones are skipped, and chunks that vanished
+ * from their source are deleted from the store.
+ *
+ * <p>The id of a chunk is derived from its source and the hash of its text, so a chunk keeps its id
+ * when other chunks are inserted before it, and a changed chunk gets a new id while its old one is
+ * deleted. The manifest is only updated once the store accepted every write, so a failed run is
+ * simply repeated.
+ *
+ * <pre>{@code
+ * IncrementalSync sync = new IncrementalSync(store, new IngestionManifest(new File("manifest")));
+ * try (IngestionEngine engine = new IngestionEngine()) {
+ *   SyncResult result = sync.sync(engine.ingest(sources));
+ * }
+ * }</pre>
+ */
+public class IncrementalSync {
+
+  private final VectorInterface store;
+  private final IngestionManifest manifest;
+
+  /**
+   * Constructor for a synchronization of a store recorded in a manifest.
+   *
+   * @param store The vector store to write to.
+   * @param manifest The record of what the store holds, shared by every run on that store.
+   */
+  public IncrementalSync(VectorInterface store, IngestionManifest manifest) {
+    this.store = store;
+    this.manifest = manifest;
+  }
+
+  /**
+   * Synchronizes the sources of the documents. The documents must hold every chunk of their
+   * sources, as their "Source" metadata gives them: chunks of those sources that are not among the
+   * documents are deleted. Sources without documents are left untouched.
+   *
+   * @param documents The chunks of the sources to synchronize.
+   * @return The counts of the changes written.
+   * @throws Exception if the store fails; the manifest is then left as it was.
+   */
+  public SyncResult sync(List<Document> documents) throws Exception {
+    Map<String, List<Document>> bySource = new LinkedHashMap<>();
+    for (Document document : documents) {
+      String source = document.getMetadata().get("Source");
+      bySource
+          .computeIfAbsent(source != null ? source : "", key -> new ArrayList<>())
+          .add(document);
+    }
+
+    List<Document> upserts = new ArrayList<>();
+    List<String> upsertIds = new ArrayList<>();
+    List<String> deleteIds = new ArrayList<>();
+    Map<String, Map<String, String>> updated = new HashMap<>();
+    int unchanged = 0;
+
+    for (Map.Entry<String, List<Document>> entry : bySource.entrySet()) {
+      String source = entry.getKey();
+      Map<String, String> previous = manifest.getChunks(source);
+      Map<String, String> chunks = new LinkedHashMap<>();
+      Map<String, Integer> occurrences = new HashMap<>();
+
+      for (Document document : entry.getValue()) {
+        String hash = DocumentIds.sha256Hex(document.getText());
+        // Repeated chunks of a source, such as a footer on every page, each get their own id
+        int occurrence = occurrences.merge(hash, 1, Integer::sum) - 1;
+        String id = DocumentIds.of(source, occurrence == 0 ? hash : hash + "#" + occurrence);
+        chunks.put(id, hash);
+        if (previous.containsKey(id)) {
+          unchanged++;
+        } else {
+          upserts.add(document);
+          upsertIds.add(id);
+        }
+      }
+      for (String id : previous.keySet()) {
+        if (!chunks.containsKey(id)) {
+          deleteIds.add(id);
+        }
+      }
+      updated.put(source, chunks);
+    }
+
+    write(upserts, upsertIds, deleteIds);
+    for (Map.Entry<String, Map<String, String>> entry : updated.entrySet()) {
+      manifest.putChunks(entry.getKey(), entry.getValue());
+    }
+    manifest.save();
+
+    SyncResult result =
+        new SyncResult(bySource.size(), upserts.size(), unchanged, deleteIds.size());
+    Logger.info("Synchronization finished: " + result);
+    return result;
+  }
+
+  /**
+   * Deletes every chunk of the recorded sources that are not among the given ones, for instance the
+   * files removed from a directory since the last run.
+   *
+   * @param sources The sources that still exist.
+   * @return The counts of the changes written.
+   * @throws Exception if the store fails; the manifest is then left as it was.
+   */
+  public SyncResult retainSources(Collection<String> sources) throws Exception {
+    Set<String> retained = new HashSet<>(sources);
+    List<String> removed = new ArrayList<>();
+    for (String source : manifest.getSources()) {
+      if (!retained.contains(source)) {
+        removed.add(source);
+      }
+    }
+    return removeSources(removed);
+  }
+
+  /**
+   * Deletes every chunk of the given sources.
+   *
+   * @param sources The sources to remove from the store.
+   * @return The counts of the changes written.
+   * @throws Exception if the store fails; the manifest is then left as it was.
+   */
+  public SyncResult removeSources(Collection<String> sources) throws Exception {
+    List<String> deleteIds = new ArrayList<>();
+    for (String source : sources) {
+      deleteIds.addAll(manifest.getChunks(source).keySet());
+    }
+
+    write(List.of(), List.of(), deleteIds);
+    for (String source : sources) {
+      manifest.removeSource(source);
+    }
+    manifest.save();
+
+    SyncResult result = new SyncResult(sources.size(), 0, 0, deleteIds.size());
+    Logger.info("Synchronization finished: " + result);
+    return result;
+  }
+
+  private void write(List<Document> upserts, List<String> upsertIds, List<String> deleteIds)
+      throws Exception {
+    // New chunks are written before old ones are deleted, so a source is never missing from search
+    if (!upserts.isEmpty()) {
+      store.upsertDocuments(upserts, upsertIds);
+    }
+    if (!deleteIds.isEmpty()) {
+      store.deleteDocuments(deleteIds);
+    }
+  }
+}
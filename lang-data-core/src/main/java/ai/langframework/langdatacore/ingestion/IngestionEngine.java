@@ -0,0 +1,300 @@
+package ai.langframework.langdatacore.ingestion;
+
+import ai.langframework.langdatacore.Connector;
+import ai.langframework.langdatacore.Document;
+import ai.langframework.langdatacore.Logger;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Reads many sources in parallel, dispatching each one to the {@link Connector} registered for its
+ * file extension.
+ *
+ * <p>Local files are parsed on a fixed pool sized to the number of processors, since parsing PDF,
+ * DOCX and similar formats is CPU bound. Links are read on a separate, larger pool so that slow
+ * network reads do not hold up parsing. The number of sources in flight is bounded: submitting
+ * blocks once the limit is reached, so walking a large directory never queues more work than the
+ * workers can take.
+ *
+ * <pre>{@code
+ * try (IngestionEngine engine = new IngestionEngine()) {
+ *   engine.registerConnector(new PdfConnector(), "pdf");
+ *   engine.registerConnector(new DocxConnector(), "docx", "dotx");
+ *   IngestionMetrics metrics = engine.ingest(Path.of("corpus"), document -> index(document));
+ * }
+ * }</pre>
+ *
+ * <p>To watch the progress of an ingestion while it runs, pass it an {@link IngestionMetrics}
+ * created beforehand and read it from another thread.
+ */
+public class IngestionEngine implements AutoCloseable {
+
+  private static final int DEFAULT_IO_THREADS = 64;
+
+  private final Map<String, Connector> connectors = new ConcurrentHashMap<>();
+  private final ExecutorService fileExecutor;
+  private final ExecutorService linkExecutor;
+  private final int maxInFlight;
+
+  /** Creates an engine with one file worker per processor and the default link worker count. */
+  public IngestionEngine() {
+    this(Runtime.getRuntime().availableProcessors(), DEFAULT_IO_THREADS);
+  }
+
+  /**
+   * Creates an engine with the given pool sizes. At most twice the total number of workers are in
+   * flight at a time.
+   *
+   * @param fileThreads The number of threads parsing local files.
+   * @param linkThreads The number of threads reading links.
+   */
+  public IngestionEngine(int fileThreads, int linkThreads) {
+    this(fileThreads, linkThreads, 2 * (fileThreads + linkThreads));
+  }
+
+  /**
+   * Creates an engine with the given pool sizes and in-flight bound.
+   *
+   * @param fileThreads The number of threads parsing local files.
+   * @param linkThreads The number of threads reading links.
+   * @param maxInFlight The maximum number of sources submitted but not yet finished.
+   */
+  public IngestionEngine(int fileThreads, int linkThreads, int maxInFlight) {
+    if (fileThreads <= 0 || linkThreads <= 0 || maxInFlight <= 0) {
+      throw new IllegalArgumentException("Thread counts and maxInFlight must be positive");
+    }
+    this.fileExecutor = Executors.newFixedThreadPool(fileThreads, threadFactory("ingest-file"));
+    this.linkExecutor = Executors.newFixedThreadPool(linkThreads, threadFactory("ingest-link"));
+    this.maxInFlight = maxInFlight;
+  }
+
+  /**
+   * Registers the connector used for sources with the given file extensions.
+   *
+   * @param connector The connector reading the sources.
+   * @param extensions The extensions, without the leading dot, handled by the connector.
+   * @return This engine.
+   */
+  public IngestionEngine registerConnector(Connector connector, String... extensions) {
+    for (String extension : extensions) {
+      connectors.put(extension.toLowerCase(Locale.ROOT), connector);
+    }
+    return this;
+  }
+
+  /**
+   * Ingests every regular file below a directory.
+   *
+   * @param directory The directory to walk.
+   * @param sink Receives the documents; called concurrently from the worker threads.
+   * @return The metrics of this ingestion.
+   * @throws IOException if the directory cannot be walked.
+   */
+  public IngestionMetrics ingest(Path directory, Consumer<Document> sink) throws IOException {
+    return ingest(directory, sink, new IngestionMetrics());
+  }
+
+  /**
+   * Ingests every regular file below a directory, recording its progress in the given metrics.
+   *
+   * @param directory The directory to walk.
+   * @param sink Receives the documents; called concurrently from the worker threads.
+   * @param metrics The metrics of this ingestion, which can be read while it runs.
+   * @return The given metrics.
+   * @throws IOException if the directory cannot be walked.
+   */
+  public IngestionMetrics ingest(Path directory, Consumer<Document> sink, IngestionMetrics metrics)
+      throws IOException {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      return ingest(paths.filter(Files::isRegularFile).map(Path::toString), sink, metrics);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    } finally {
+      // Also when the walk fails before any source is read
+      metrics.finish();
+    }
+  }
+
+  /**
+   * Ingests the given sources. A source starting with {@code http://} or {@code https://} is read
+   * as a link, anything else as a local file path.
+   *
+   * @param sources The files and links to ingest.
+   * @param sink Receives the documents; called concurrently from the worker threads.
+   * @return The metrics of this ingestion.
+   */
+  public IngestionMetrics ingest(List<String> sources, Consumer<Document> sink) {
+    return ingest(sources, sink, new IngestionMetrics());
+  }
+
+  /**
+   * Ingests the given sources, recording their progress in the given metrics.
+   *
+   * @param sources The files and links to ingest.
+   * @param sink Receives the documents; called concurrently from the worker threads.
+   * @param metrics The metrics of this ingestion, which can be read while it runs.
+   * @return The given metrics.
+   */
+  public IngestionMetrics ingest(
+      List<String> sources, Consumer<Document> sink, IngestionMetrics metrics) {
+    return ingest(sources.stream(), sink, metrics);
+  }
+
+  /**
+   * Ingests the given sources and collects all documents into a list. Documents of different
+   * sources may be interleaved in any order.
+   *
+   * @param sources The files and links to ingest.
+   * @return The documents read from all sources.
+   */
+  public List<Document> ingest(List<String> sources) {
+    List<Document> documents = Collections.synchronizedList(new ArrayList<>());
+    ingest(sources, documents::add);
+    return new ArrayList<>(documents);
+  }
+
+  /**
+   * Submits every source and waits until all of them have been read, then stops the clock of the
+   * metrics.
+   *
+   * @param sources The files and links to ingest.
+   * @param sink Receives the documents.
+   * @param metrics The metrics of this ingestion.
+   * @return The metrics.
+   */
+  private IngestionMetrics ingest(
+      Stream<String> sources, Consumer<Document> sink, IngestionMetrics metrics) {
+    Semaphore permits = new Semaphore(maxInFlight);
+
+    try {
+      Iterator<String> iterator = sources.iterator();
+      while (iterator.hasNext()) {
+        String source = iterator.next();
+        boolean link = isLink(source);
+        Connector connector = connectors.get(extensionOf(source, link));
+        if (connector == null) {
+          metrics.sourceSkipped();
+          continue;
+        }
+        // Blocks while maxInFlight sources are being read
+        permits.acquire();
+        metrics.sourceSubmitted();
+        submit(connector, source, link, sink, metrics, permits);
+      }
+      // Every finished task returns its permit, so holding all of them means all tasks are done
+      permits.acquire(maxInFlight);
+      permits.release(maxInFlight);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      metrics.finish();
+    }
+
+    Logger.info("Ingestion finished: " + metrics);
+    return metrics;
+  }
+
+  private void submit(
+      Connector connector,
+      String source,
+      boolean link,
+      Consumer<Document> sink,
+      IngestionMetrics metrics,
+      Semaphore permits) {
+    ExecutorService executor = link ? linkExecutor : fileExecutor;
+    executor.execute(
+        () -> {
+          try {
+            read(connector, source, link, sink, metrics);
+            metrics.sourceCompleted();
+          } catch (Exception e) {
+            metrics.sourceFailed();
+            Logger.error("Failed to ingest " + source + ": " + e);
+          } finally {
+            permits.release();
+          }
+        });
+  }
+
+  private static void read(
+      Connector connector,
+      String source,
+      boolean link,
+      Consumer<Document> sink,
+      IngestionMetrics metrics)
+      throws Exception {
+    try (Stream<Document> documents =
+        link ? connector.streamData(source) : connector.streamData(new File(source))) {
+      documents.forEach(
+          document -> {
+            metrics.documentEmitted(document.getContent().length());
+            sink.accept(document);
+          });
+    }
+  }
+
+  private static boolean isLink(String source) {
+    String lower = source.toLowerCase(Locale.ROOT);
+    return lower.startsWith("http://") || lower.startsWith("https://");
+  }
+
+  private static String extensionOf(String source, boolean link) {
+    String name = source;
+    if (link) {
+      // Ignore the query string and fragment of a link
+      int end = name.length();
+      int query = name.indexOf('?');
+      int fragment = name.indexOf('#');
+      if (query >= 0) {
+        end = query;
+      }
+      if (fragment >= 0 && fragment < end) {
+        end = fragment;
+      }
+      name = name.substring(0, end);
+    }
+    int slash = Math.max(name.lastIndexOf('/'), name.lastIndexOf(File.separatorChar));
+    int dot = name.lastIndexOf('.');
+    return dot > slash ? name.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+  }
+
+  private static ThreadFactory threadFactory(String prefix) {
+    AtomicInteger counter = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  /** Stops the worker pools, waiting briefly for running tasks to finish. */
+  @Override
+  public void close() {
+    fileExecutor.shutdown();
+    linkExecutor.shutdown();
+    try {
+      fileExecutor.awaitTermination(30, TimeUnit.SECONDS);
+      linkExecutor.awaitTermination(30, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,157 @@
+package ai.langframework.langdatacore.ingestion;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local record of what was written to a vector store: for each source, the id of every chunk and
+ * the hash of its text. It lets an {@link IncrementalSync} tell new, unchanged and vanished chunks
+ * apart without querying the store.
+ *
+ * <p>The manifest is kept in memory and written to its file by {@link #save()}, which replaces the
+ * file atomically.
+ */
+public class IngestionManifest {
+
+  // Written first in the file, to reject files of another format
+  private static final int FORMAT = 0x4C444D31;
+
+  private final File file;
+  private final Map<String, Map<String, String>> sources = new HashMap<>();
+
+  /**
+   * Constructor for a manifest stored in a file, which is read if it exists.
+   *
+   * @param file The file of the manifest.
+   * @throws IOException if the file exists but cannot be read.
+   */
+  public IngestionManifest(File file) throws IOException {
+    this.file = file;
+    if (file.isFile()) {
+      load();
+    }
+  }
+
+  /**
+   * Gets the chunks recorded for a source.
+   *
+   * @param source The source.
+   * @return The hash of the text of each chunk by chunk id, empty if the source is not recorded.
+   */
+  public synchronized Map<String, String> getChunks(String source) {
+    Map<String, String> chunks = sources.get(source);
+    return chunks != null ? Collections.unmodifiableMap(chunks) : Collections.emptyMap();
+  }
+
+  /**
+   * Records the chunks of a source, replacing those recorded before.
+   *
+   * @param source The source.
+   * @param chunks The hash of the text of each chunk by chunk id.
+   */
+  public synchronized void putChunks(String source, Map<String, String> chunks) {
+    if (chunks.isEmpty()) {
+      sources.remove(source);
+    } else {
+      sources.put(source, new LinkedHashMap<>(chunks));
+    }
+  }
+
+  /**
+   * Forgets a source and its chunks.
+   *
+   * @param source The source.
+   */
+  public synchronized void removeSource(String source) {
+    sources.remove(source);
+  }
+
+  /**
+   * Gets the recorded sources.
+   *
+   * @return A copy of the recorded sources.
+   */
+  public synchronized List<String> getSources() {
+    return new ArrayList<>(sources.keySet());
+  }
+
+  /**
+   * Writes the manifest to its file.
+   *
+   * @throws IOException if the file cannot be written.
+   */
+  public synchronized void save() throws IOException {
+    File directory = file.getAbsoluteFile().getParentFile();
+    Files.createDirectories(directory.toPath());
+    File temporary = File.createTempFile(file.getName(), ".tmp", directory);
+    try {
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+        out.writeInt(FORMAT);
+        out.writeInt(sources.size());
+        for (Map.Entry<String, Map<String, String>> source : sources.entrySet()) {
+          writeString(out, source.getKey());
+          out.writeInt(source.getValue().size());
+          for (Map.Entry<String, String> chunk : source.getValue().entrySet()) {
+            writeString(out, chunk.getKey());
+            writeString(out, chunk.getValue());
+          }
+        }
+      }
+      Files.move(
+          temporary.toPath(),
+          file.toPath(),
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporary.toPath());
+    }
+  }
+
+  private void load() throws IOException {
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      if (in.readInt() != FORMAT) {
+        throw new IOException("Not an ingestion manifest: " + file);
+      }
+      int sourceCount = in.readInt();
+      for (int i = 0; i < sourceCount; i++) {
+        String source = readString(in);
+        int chunkCount = in.readInt();
+        Map<String, String> chunks = new LinkedHashMap<>();
+        for (int j = 0; j < chunkCount; j++) {
+          chunks.put(readString(in), readString(in));
+        }
+        sources.put(source, chunks);
+      }
+    }
+  }
+
+  // DataOutputStream.writeUTF is limited to 64 KB, which a link may exceed
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,176 @@
+package ai.langframework.langdatacore.ingestion;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput counters of an {@link IngestionEngine}. Counters are updated concurrently by the
+ * worker threads and can be read at any time while an ingestion is running. The clock starts when
+ * the metrics are created and stops when the ingestion finishes, so the rates of a finished
+ * ingestion do not decay.
+ */
+public class IngestionMetrics {
+
+  private final LongAdder sourcesSubmitted = new LongAdder();
+  private final LongAdder sourcesCompleted = new LongAdder();
+  private final LongAdder sourcesFailed = new LongAdder();
+  private final LongAdder sourcesSkipped = new LongAdder();
+  private final LongAdder documents = new LongAdder();
+  private final LongAdder characters = new LongAdder();
+  private final long startNanos = System.nanoTime();
+  private volatile long endNanos = -1;
+
+  void sourceSubmitted() {
+    sourcesSubmitted.increment();
+  }
+
+  void sourceCompleted() {
+    sourcesCompleted.increment();
+  }
+
+  void sourceFailed() {
+    sourcesFailed.increment();
+  }
+
+  void sourceSkipped() {
+    sourcesSkipped.increment();
+  }
+
+  void documentEmitted(int length) {
+    documents.increment();
+    characters.add(length);
+  }
+
+  /** Stops the clock, the first time only. */
+  synchronized void finish() {
+    if (endNanos < 0) {
+      endNanos = System.nanoTime();
+    }
+  }
+
+  /**
+   * Tells whether the ingestion recorded by these metrics is over.
+   *
+   * @return true once every source has been read.
+   */
+  public boolean isFinished() {
+    return endNanos >= 0;
+  }
+
+  /**
+   * Gets the number of sources handed to a connector.
+   *
+   * @return The number of submitted sources.
+   */
+  public long getSourcesSubmitted() {
+    return sourcesSubmitted.sum();
+  }
+
+  /**
+   * Gets the number of sources that were read without error.
+   *
+   * @return The number of completed sources.
+   */
+  public long getSourcesCompleted() {
+    return sourcesCompleted.sum();
+  }
+
+  /**
+   * Gets the number of sources whose connector threw an exception.
+   *
+   * @return The number of failed sources.
+   */
+  public long getSourcesFailed() {
+    return sourcesFailed.sum();
+  }
+
+  /**
+   * Gets the number of sources skipped because no connector is registered for their extension.
+   *
+   * @return The number of skipped sources.
+   */
+  public long getSourcesSkipped() {
+    return sourcesSkipped.sum();
+  }
+
+  /**
+   * Gets the number of sources submitted but not yet completed or failed.
+   *
+   * @return The number of sources in flight.
+   */
+  public long getSourcesInFlight() {
+    return getSourcesSubmitted() - getSourcesCompleted() - getSourcesFailed();
+  }
+
+  /**
+   * Gets the number of documents passed to the sink.
+   *
+   * @return The number of documents.
+   */
+  public long getDocuments() {
+    return documents.sum();
+  }
+
+  /**
+   * Gets the total text length of the documents passed to the sink.
+   *
+   * @return The number of characters.
+   */
+  public long getCharacters() {
+    return characters.sum();
+  }
+
+  /**
+   * Gets the time elapsed since the metrics were created, up to the end of the ingestion once it is
+   * finished.
+   *
+   * @return The elapsed time in milliseconds.
+   */
+  public long getElapsedMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(elapsedNanos());
+  }
+
+  /**
+   * Gets the average number of completed sources per second.
+   *
+   * @return The source throughput.
+   */
+  public double getSourcesPerSecond() {
+    return perSecond(getSourcesCompleted());
+  }
+
+  /**
+   * Gets the average number of documents emitted per second.
+   *
+   * @return The document throughput.
+   */
+  public double getDocumentsPerSecond() {
+    return perSecond(getDocuments());
+  }
+
+  private double perSecond(long count) {
+    long elapsed = elapsedNanos();
+    return elapsed > 0 ? count * 1e9 / elapsed : 0;
+  }
+
+  private long elapsedNanos() {
+    long end = endNanos;
+    return (end >= 0 ? end : System.nanoTime()) - startNanos;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "sources=%d completed=%d failed=%d skipped=%d documents=%d characters=%d"
+            + " elapsed=%dms sources/s=%.1f documents/s=%.1f",
+        getSourcesSubmitted(),
+        getSourcesCompleted(),
+        getSourcesFailed(),
+        getSourcesSkipped(),
+        getDocuments(),
+        getCharacters(),
+        getElapsedMillis(),
+        getSourcesPerSecond(),
+        getDocumentsPerSecond());
+  }
+}
@@ -0,0 +1,59 @@
+package ai.langframework.langdatacore.ingestion;
+
+/** Counts of the changes written to a vector store by an {@link IncrementalSync}. */
+public class SyncResult {
+
+  private final int sources;
+  private final int upserted;
+  private final int unchanged;
+  private final int deleted;
+
+  SyncResult(int sources, int upserted, int unchanged, int deleted) {
+    this.sources = sources;
+    this.upserted = upserted;
+    this.unchanged = unchanged;
+    this.deleted = deleted;
+  }
+
+  /**
+   * Gets the number of sources synchronized.
+   *
+   * @return The number of sources.
+   */
+  public int getSources() {
+    return sources;
+  }
+
+  /**
+   * Gets the number of new or changed chunks embedded and written to the store.
+   *
+   * @return The number of upserted chunks.
+   */
+  public int getUpserted() {
+    return upserted;
+  }
+
+  /**
+   * Gets the number of chunks already in the store with the same text, which were skipped.
+   *
+   * @return The number of unchanged chunks.
+   */
+  public int getUnchanged() {
+    return unchanged;
+  }
+
+  /**
+   * Gets the number of chunks that vanished from their source and were deleted from the store.
+   *
+   * @return The number of deleted chunks.
+   */
+  public int getDeleted() {
+    return deleted;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "sources=%d upserted=%d unchanged=%d deleted=%d", sources, upserted, unchanged, deleted);
+  }
+}
@@ -0,0 +1,145 @@
+package ai.langframework.langdatacore.io;
+
+import ai.langframework.langdatacore.Document;
+import ai.langframework.langdatacore.DocumentMetadata;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * On-disk cache of the documents parsed from a source, keyed by the hash of the content they were
+ * parsed from. Only the documents of the latest content of each source are kept: storing the
+ * documents of new content replaces those of the previous one.
+ */
+public class DocumentCache {
+
+  // Written first in every file, to reject files of another format
+  private static final int FORMAT = 0x4C444331;
+
+  private final File directory;
+
+  /**
+   * Constructor for a cache stored in a directory, which is created if needed.
+   *
+   * @param directory The directory of the cache.
+   * @throws IOException if the directory cannot be created.
+   */
+  public DocumentCache(File directory) throws IOException {
+    this.directory = directory;
+    Files.createDirectories(directory.toPath());
+  }
+
+  /**
+   * Gets the documents parsed from the content of a source.
+   *
+   * @param source The source, such as a link, along with anything else changing the documents.
+   * @param contentHash The hash of the content.
+   * @return The documents, or null if the documents of that content are not cached.
+   */
+  public List<Document> get(String source, String contentHash) {
+    File file = file(source);
+    if (!file.isFile()) {
+      return null;
+    }
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      if (in.readInt() != FORMAT
+          || !source.equals(readString(in))
+          || !contentHash.equals(readString(in))) {
+        return null;
+      }
+      int count = in.readInt();
+      List<Document> documents = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        String text = readString(in);
+        int entries = in.readInt();
+        DocumentMetadata metadata = DocumentMetadata.EMPTY;
+        for (int j = 0; j < entries; j++) {
+          metadata = metadata.with(readString(in), readString(in));
+        }
+        documents.add(new Document(text, metadata));
+      }
+      return documents;
+    } catch (IOException e) {
+      // A damaged entry is parsed again and replaced
+      e.printStackTrace();
+      return null;
+    }
+  }
+
+  /**
+   * Stores the documents parsed from the content of a source, replacing those of its previous
+   * content.
+   *
+   * @param source The source, such as a link, along with anything else changing the documents.
+   * @param contentHash The hash of the content.
+   * @param documents The documents.
+   * @throws IOException if the cache cannot be written.
+   */
+  public void put(String source, String contentHash, List<Document> documents) throws IOException {
+    File file = file(source);
+    File temporary = File.createTempFile(file.getName(), ".tmp", directory);
+    try {
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+        out.writeInt(FORMAT);
+        writeString(out, source);
+        writeString(out, contentHash);
+        out.writeInt(documents.size());
+        for (Document document : documents) {
+          writeString(out, document.getContent());
+          Map<String, String> metadata = document.getMetadata();
+          out.writeInt(metadata.size());
+          for (Map.Entry<String, String> entry : metadata.entrySet()) {
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue());
+          }
+        }
+      }
+      Files.move(
+          temporary.toPath(),
+          file.toPath(),
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporary.toPath());
+    }
+  }
+
+  private File file(String source) {
+    try {
+      byte[] hash =
+          MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+      return new File(directory, HexFormat.of().formatHex(hash) + ".documents");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  // DataOutputStream.writeUTF is limited to 64 KB, texts are written as UTF-8 with an int length
+  private static void writeString(DataOutputStream out, CharSequence value) throws IOException {
+    byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,240 @@
+package ai.langframework.langdatacore.io;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Properties;
+
+/**
+ * On-disk cache of the bodies fetched by an {@link HttpFetcher}. A cached body is revalidated with
+ * a conditional GET, using the ETag and Last-Modified validators the server sent with it, and is
+ * only downloaded again if the server answers with a new body. Every body is stored with the
+ * SHA-256 hash of its content, so that what was derived from it can be reused while it is
+ * unchanged.
+ *
+ * <p>Each link is stored in two files named after the hash of the link: its properties, and the
+ * decompressed body, whose name also holds the hash of its content. A new body is written under its
+ * own name before the properties are atomically replaced to point at it, so a reader always pairs
+ * the properties with the body they describe.
+ */
+public class HttpCache {
+
+  private static final String LINK = "link";
+  private static final String ETAG = "etag";
+  private static final String LAST_MODIFIED = "lastModified";
+  private static final String CONTENT_TYPE = "contentType";
+  private static final String CONTENT_HASH = "contentHash";
+  private static final String VALIDATED_AT = "validatedAt";
+
+  private final File directory;
+  private volatile Duration revalidateAfter = Duration.ofMinutes(1);
+
+  /**
+   * Constructor for a cache stored in a directory, which is created if needed.
+   *
+   * @param directory The directory of the cache.
+   * @throws IOException if the directory cannot be created.
+   */
+  public HttpCache(File directory) throws IOException {
+    this.directory = directory;
+    Files.createDirectories(directory.toPath());
+  }
+
+  /**
+   * Sets how long a body is used without asking the server whether it changed. A short delay lets
+   * the same link be read several times in a row, for instance to hash then parse it, with a single
+   * request.
+   *
+   * @param revalidateAfter The delay, one minute by default.
+   */
+  public void setRevalidateAfter(Duration revalidateAfter) {
+    this.revalidateAfter = revalidateAfter;
+  }
+
+  /**
+   * Opens the cached body of a link, revalidating or downloading it first if needed.
+   *
+   * @param fetcher The fetcher sending the requests.
+   * @param link The link to open.
+   * @return The body, read from the cache.
+   * @throws IOException if the link cannot be fetched or the cache cannot be written.
+   */
+  public InputStream open(HttpFetcher fetcher, String link) throws IOException {
+    try {
+      return new FileInputStream(bodyFile(fetch(fetcher, link)));
+    } catch (FileNotFoundException e) {
+      // The body was replaced after its properties were read: the new properties point at its
+      // replacement
+      return new FileInputStream(bodyFile(fetch(fetcher, link)));
+    }
+  }
+
+  /**
+   * Gets the Content-Type sent with the cached body of a link.
+   *
+   * @param link The link.
+   * @return The Content-Type, or null if the link is not cached or had none.
+   * @throws IOException if the cache cannot be read.
+   */
+  public String getContentType(String link) throws IOException {
+    Properties entry = readEntry(link);
+    return entry != null ? entry.getProperty(CONTENT_TYPE) : null;
+  }
+
+  /**
+   * Makes sure the cached body of a link is current, revalidating it if it was not validated
+   * recently, and downloading it if it changed or is not cached.
+   *
+   * @param fetcher The fetcher sending the requests.
+   * @param link The link to fetch.
+   * @return The SHA-256 hash of the current body, in hexadecimal.
+   * @throws IOException if the link cannot be fetched or the cache cannot be written.
+   */
+  public String validate(HttpFetcher fetcher, String link) throws IOException {
+    return fetch(fetcher, link).getProperty(CONTENT_HASH);
+  }
+
+  private Properties fetch(HttpFetcher fetcher, String link) throws IOException {
+    Properties entry = readEntry(link);
+    if (entry != null && !bodyFile(entry).isFile()) {
+      entry = null;
+    }
+    long now = System.currentTimeMillis();
+    if (entry != null
+        && now - Long.parseLong(entry.getProperty(VALIDATED_AT, "0"))
+            < revalidateAfter.toMillis()) {
+      return entry;
+    }
+
+    HttpRequest.Builder request = fetcher.newRequest(link);
+    if (entry != null) {
+      if (entry.getProperty(ETAG) != null) {
+        request.header("If-None-Match", entry.getProperty(ETAG));
+      }
+      if (entry.getProperty(LAST_MODIFIED) != null) {
+        request.header("If-Modified-Since", entry.getProperty(LAST_MODIFIED));
+      }
+    }
+    HttpResponse<InputStream> response = fetcher.send(request.build(), entry != null);
+
+    if (response.statusCode() == 304) {
+      response.body().close();
+      entry.setProperty(VALIDATED_AT, String.valueOf(now));
+      writeEntry(link, entry);
+      return entry;
+    }
+
+    Properties newEntry = new Properties();
+    newEntry.setProperty(LINK, link);
+    response.headers().firstValue("ETag").ifPresent(value -> newEntry.setProperty(ETAG, value));
+    response
+        .headers()
+        .firstValue("Last-Modified")
+        .ifPresent(value -> newEntry.setProperty(LAST_MODIFIED, value));
+    response
+        .headers()
+        .firstValue("Content-Type")
+        .ifPresent(value -> newEntry.setProperty(CONTENT_TYPE, value));
+    newEntry.setProperty(VALIDATED_AT, String.valueOf(now));
+    newEntry.setProperty(CONTENT_HASH, download(HttpFetcher.body(response), key(link)));
+    writeEntry(link, newEntry);
+    if (entry != null
+        && !entry.getProperty(CONTENT_HASH).equals(newEntry.getProperty(CONTENT_HASH))) {
+      Files.deleteIfExists(bodyFile(entry).toPath());
+    }
+    return newEntry;
+  }
+
+  /**
+   * Writes a body to the cache while hashing it, under a name holding the key and the hash.
+   *
+   * @param body The body, closed once read.
+   * @param key The key of the link.
+   * @return The SHA-256 hash of the body, in hexadecimal.
+   * @throws IOException if the body cannot be read or written.
+   */
+  private String download(InputStream body, String key) throws IOException {
+    MessageDigest digest = sha256();
+    File temporary = File.createTempFile(key, ".tmp", directory);
+    try {
+      try (InputStream in = new DigestInputStream(body, digest);
+          OutputStream out = new FileOutputStream(temporary)) {
+        in.transferTo(out);
+      }
+      String contentHash = HexFormat.of().formatHex(digest.digest());
+      // A body with the same name has the same content, so replacing it is harmless
+      Files.move(
+          temporary.toPath(),
+          bodyFile(key, contentHash).toPath(),
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+      return contentHash;
+    } finally {
+      Files.deleteIfExists(temporary.toPath());
+    }
+  }
+
+  private Properties readEntry(String link) throws IOException {
+    File file = new File(directory, key(link) + ".properties");
+    if (!file.isFile()) {
+      return null;
+    }
+    Properties entry = new Properties();
+    try (InputStream in = new FileInputStream(file)) {
+      entry.load(in);
+    }
+    // Two links never share a key, unless the hash collides
+    return link.equals(entry.getProperty(LINK)) ? entry : null;
+  }
+
+  private void writeEntry(String link, Properties entry) throws IOException {
+    String key = key(link);
+    File temporary = File.createTempFile(key, ".tmp", directory);
+    try {
+      try (OutputStream out = new FileOutputStream(temporary)) {
+        entry.store(out, null);
+      }
+      Files.move(
+          temporary.toPath(),
+          new File(directory, key + ".properties").toPath(),
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporary.toPath());
+    }
+  }
+
+  private File bodyFile(Properties entry) {
+    return bodyFile(key(entry.getProperty(LINK)), entry.getProperty(CONTENT_HASH));
+  }
+
+  private File bodyFile(String key, String contentHash) {
+    return new File(directory, key + "-" + contentHash + ".body");
+  }
+
+  private static String key(String link) {
+    return HexFormat.of().formatHex(sha256().digest(link.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+}
@@ -0,0 +1,297 @@
+package ai.langframework.langdatacore.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Fetches links over a single pooled {@link HttpClient}, so that connections are reused across
+ * requests and readers. Requests prefer HTTP/2, accept gzip, follow redirects and time out.
+ * Response bodies are streamed, never buffered whole. Links of other schemes, such as file: or
+ * jar:, are read with {@link URL#openStream()}.
+ */
+public class HttpFetcher implements Closeable {
+
+  private static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+  private static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(60);
+  private static final int DEFAULT_MAX_CONCURRENCY = 32;
+
+  private static volatile HttpFetcher defaultFetcher;
+
+  private final HttpClient client;
+  private final Duration requestTimeout;
+  private final ExecutorService executor;
+  private volatile HttpCache cache;
+
+  /**
+   * Constructor with the timeouts and the number of links read at the same time by {@link
+   * #getExecutor()}.
+   *
+   * @param connectTimeout The time allowed to open a connection.
+   * @param requestTimeout The time allowed for the response headers to arrive.
+   * @param maxConcurrency The number of threads reading links concurrently.
+   */
+  public HttpFetcher(Duration connectTimeout, Duration requestTimeout, int maxConcurrency) {
+    if (maxConcurrency <= 0) {
+      throw new IllegalArgumentException("Max concurrency must be positive");
+    }
+    this.client =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(connectTimeout)
+            .build();
+    this.requestTimeout = requestTimeout;
+
+    AtomicInteger threads = new AtomicInteger();
+    this.executor =
+        Executors.newFixedThreadPool(
+            maxConcurrency,
+            runnable -> {
+              Thread thread = new Thread(runnable, "langdata-fetch-" + threads.incrementAndGet());
+              // Idle readers never keep the application running
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /**
+   * Gets the fetcher shared by the readers, created on first use.
+   *
+   * @return The shared fetcher.
+   */
+  public static HttpFetcher getDefault() {
+    HttpFetcher fetcher = defaultFetcher;
+    if (fetcher == null) {
+      synchronized (HttpFetcher.class) {
+        fetcher = defaultFetcher;
+        if (fetcher == null) {
+          fetcher =
+              new HttpFetcher(
+                  DEFAULT_CONNECT_TIMEOUT, DEFAULT_REQUEST_TIMEOUT, DEFAULT_MAX_CONCURRENCY);
+          defaultFetcher = fetcher;
+        }
+      }
+    }
+    return fetcher;
+  }
+
+  /**
+   * Replaces the fetcher shared by the readers, for instance to change its timeouts. The replaced
+   * fetcher is returned as is, so that it can be restored or closed.
+   *
+   * @param fetcher The new shared fetcher, or null to create the default one on next use.
+   * @return The fetcher shared until now, or null if none was created yet.
+   */
+  public static HttpFetcher setDefault(HttpFetcher fetcher) {
+    synchronized (HttpFetcher.class) {
+      HttpFetcher previous = defaultFetcher;
+      defaultFetcher = fetcher;
+      return previous;
+    }
+  }
+
+  /**
+   * Gets the executor on which links are read concurrently.
+   *
+   * @return The executor.
+   */
+  public ExecutorService getExecutor() {
+    return executor;
+  }
+
+  /**
+   * Sets the cache through which {@link #open(String)} and {@link #openReader(String)} read links,
+   * so that unchanged bodies are not downloaded again.
+   *
+   * @param cache The cache, or null (the default) to always download bodies.
+   */
+  public void setCache(HttpCache cache) {
+    this.cache = cache;
+  }
+
+  /**
+   * Gets the cache through which links are read.
+   *
+   * @return The cache, or null if bodies are always downloaded.
+   */
+  public HttpCache getCache() {
+    return cache;
+  }
+
+  /**
+   * Tells whether a link is fetched over HTTP, and so can be cached and sent as a request.
+   *
+   * @param link The link.
+   * @return true if the scheme of the link is http or https.
+   */
+  public static boolean isHttp(String link) {
+    int colon = link.indexOf(':');
+    if (colon < 0) {
+      return false;
+    }
+    String scheme = link.substring(0, colon).toLowerCase(Locale.ROOT);
+    return scheme.equals("http") || scheme.equals("https");
+  }
+
+  /**
+   * Opens the body of a link, from the cache if one is set and the body did not change. Links that
+   * are not http or https are opened with {@link URL#openStream()} and never cached.
+   *
+   * @param link The link to fetch.
+   * @return The decompressed body, which must be closed to release the connection.
+   * @throws IOException if the request fails or the response status is not 2xx.
+   */
+  public InputStream open(String link) throws IOException {
+    if (!isHttp(link)) {
+      return new URL(link).openStream();
+    }
+    HttpCache httpCache = cache;
+    if (httpCache != null) {
+      return httpCache.open(this, link);
+    }
+    return body(send(link));
+  }
+
+  /**
+   * Opens the body of a link as text, decoded with the charset of its Content-Type header, or UTF-8
+   * if the header gives none. Links that are not http or https are decoded as UTF-8.
+   *
+   * @param link The link to fetch.
+   * @return The text of the body, which must be closed to release the connection.
+   * @throws IOException if the request fails or the response status is not 2xx.
+   */
+  public Reader openReader(String link) throws IOException {
+    if (!isHttp(link)) {
+      return new InputStreamReader(new URL(link).openStream(), StandardCharsets.UTF_8);
+    }
+    HttpCache httpCache = cache;
+    if (httpCache != null) {
+      InputStream body = httpCache.open(this, link);
+      return new InputStreamReader(body, charset(httpCache.getContentType(link)));
+    }
+    HttpResponse<InputStream> response = send(link);
+    return new InputStreamReader(
+        body(response), charset(response.headers().firstValue("Content-Type").orElse(null)));
+  }
+
+  /**
+   * Sends a GET request for a link and waits for the response headers.
+   *
+   * @param link The link to fetch.
+   * @return The response, whose body is read with {@link #body(HttpResponse)}.
+   * @throws IOException if the request fails or the response status is not 2xx.
+   */
+  public HttpResponse<InputStream> send(String link) throws IOException {
+    return send(newRequest(link).build());
+  }
+
+  /**
+   * Creates a GET request for a link with the settings of this fetcher, to add headers to it.
+   *
+   * @param link The http or https link to fetch.
+   * @return The request builder.
+   * @throws IllegalArgumentException if the link is not an http or https link.
+   */
+  public HttpRequest.Builder newRequest(String link) {
+    return HttpRequest.newBuilder(URI.create(link))
+        .timeout(requestTimeout)
+        .header("Accept-Encoding", "gzip")
+        .GET();
+  }
+
+  /**
+   * Sends a request and waits for the response headers.
+   *
+   * @param request The request.
+   * @return The response, whose body is read with {@link #body(HttpResponse)}.
+   * @throws IOException if the request fails or the response status is not 2xx.
+   */
+  public HttpResponse<InputStream> send(HttpRequest request) throws IOException {
+    return send(request, false);
+  }
+
+  /**
+   * Sends a request and waits for the response headers.
+   *
+   * @param request The request.
+   * @param notModified true to accept a 304 Not Modified answer to a conditional request.
+   * @return The response, whose body is read with {@link #body(HttpResponse)}.
+   * @throws IOException if the request fails or the response status is not accepted.
+   */
+  HttpResponse<InputStream> send(HttpRequest request, boolean notModified) throws IOException {
+    HttpResponse<InputStream> response;
+    try {
+      response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while fetching " + request.uri(), e);
+    }
+
+    int status = response.statusCode();
+    if ((status < 200 || status >= 300) && !(notModified && status == 304)) {
+      response.body().close();
+      throw new IOException("HTTP " + status + " fetching " + request.uri());
+    }
+    return response;
+  }
+
+  /**
+   * Gets the body of a response, decompressed if the server sent it gzipped.
+   *
+   * @param response The response.
+   * @return The body, which must be closed to release the connection.
+   * @throws IOException if the gzip header cannot be read.
+   */
+  public static InputStream body(HttpResponse<InputStream> response) throws IOException {
+    String encoding = response.headers().firstValue("Content-Encoding").orElse("");
+    if (encoding.equalsIgnoreCase("gzip")) {
+      return new GZIPInputStream(response.body(), 64 * 1024);
+    }
+    return response.body();
+  }
+
+  /** Stops the threads of the executor once the links being read are done. */
+  @Override
+  public void close() {
+    executor.shutdown();
+  }
+
+  /**
+   * Gets the charset given by a Content-Type header.
+   *
+   * @param contentType The value of the header, or null.
+   * @return The charset, or UTF-8 if the header gives none or an unknown one.
+   */
+  private static Charset charset(String contentType) {
+    if (contentType != null) {
+      for (String parameter : contentType.split(";")) {
+        String trimmed = parameter.trim();
+        if (trimmed.toLowerCase(Locale.ROOT).startsWith("charset=")) {
+          String name = trimmed.substring("charset=".length()).replace("\"", "").trim();
+          try {
+            return Charset.forName(name);
+          } catch (IllegalArgumentException e) {
+            break;
+          }
+        }
+      }
+    }
+    return StandardCharsets.UTF_8;
+  }
+}
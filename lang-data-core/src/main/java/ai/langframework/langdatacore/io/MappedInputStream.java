@@ -0,0 +1,66 @@
+package ai.langframework.langdatacore.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads a region of a file through memory mappings of at most 1 GB, mapped one after the other as
+ * the region is read. The channel is not closed with the stream, so that several regions of a file
+ * can be read in parallel over the same channel.
+ */
+public class MappedInputStream extends InputStream {
+
+  // Largest region of a file mapped at once
+  public static final int MAX_MAPPING = 1 << 30;
+
+  private final FileChannel channel;
+  private final long end;
+  private long position;
+  private MappedByteBuffer buffer;
+
+  /**
+   * Constructor for the region between two offsets of a file.
+   *
+   * @param channel The channel over the file.
+   * @param start The offset of the first byte read.
+   * @param end The offset after the last byte read.
+   */
+  public MappedInputStream(FileChannel channel, long start, long end) {
+    this.channel = channel;
+    this.position = start;
+    this.end = end;
+  }
+
+  private boolean ensureMapped() throws IOException {
+    if (buffer != null && buffer.hasRemaining()) {
+      return true;
+    }
+    if (position >= end) {
+      return false;
+    }
+    buffer =
+        channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAX_MAPPING, end - position));
+    position += buffer.limit();
+    return true;
+  }
+
+  @Override
+  public int read() throws IOException {
+    return ensureMapped() ? buffer.get() & 0xFF : -1;
+  }
+
+  @Override
+  public int read(byte[] bytes, int offset, int length) throws IOException {
+    if (length == 0) {
+      return 0;
+    }
+    if (!ensureMapped()) {
+      return -1;
+    }
+    int read = Math.min(length, buffer.remaining());
+    buffer.get(bytes, offset, read);
+    return read;
+  }
+}
@@ -0,0 +1,139 @@
+package ai.langframework.langdatacore.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Reads UTF-8 text, keeping it exactly as stored, line breaks included. Local files are
+ * memory-mapped and decoded in large blocks, in parallel, straight into the array backing the
+ * returned text. Each block is decoded at its byte offset, since UTF-8 never decodes to more chars
+ * than bytes, and blocks holding multi-byte characters are then moved down to close the gaps.
+ */
+public class TextReader {
+
+  // Bytes decoded by one task; blocks end on a character boundary
+  private static final int BLOCK_SIZE = 16 * 1024 * 1024;
+
+  private TextReader() {}
+
+  /**
+   * Reads a UTF-8 file. Malformed bytes are replaced, as an InputStreamReader would.
+   *
+   * @param file The file to read.
+   * @return The text of the file, backed by a single char array.
+   * @throws IOException if the file cannot be read or is larger than 2 GB.
+   */
+  public static CharSequence readFile(File file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE - 8) {
+        throw new IOException("File is too large to be read as one text: " + file);
+      }
+      if (size == 0) {
+        return "";
+      }
+
+      MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      List<int[]> blocks = splitBlocks(bytes);
+
+      // UTF-8 never decodes to more chars than it has bytes, so the chars of a block fit in the
+      // slice of the array at its byte offsets
+      char[] text = new char[(int) size];
+      int[] lengths = new int[blocks.size()];
+      IntStream.range(0, blocks.size())
+          .parallel()
+          .forEach(
+              i -> {
+                int[] block = blocks.get(i);
+                // The decoder is much faster on arrays than on mapped memory, so copy first
+                byte[] in = new byte[block[1] - block[0]];
+                bytes.get(block[0], in);
+                CharBuffer out = CharBuffer.wrap(text, block[0], block[1] - block[0]).slice();
+                decode(ByteBuffer.wrap(in), out);
+                lengths[i] = out.position();
+              });
+
+      // Close the gaps left by multi-byte characters, moving the blocks down in place
+      int offset = 0;
+      for (int i = 0; i < lengths.length; i++) {
+        int start = blocks.get(i)[0];
+        if (start != offset) {
+          System.arraycopy(text, start, text, offset, lengths[i]);
+        }
+        offset += lengths[i];
+      }
+      return CharBuffer.wrap(text, 0, offset);
+    }
+  }
+
+  /**
+   * Reads a UTF-8 stream to its end and closes it.
+   *
+   * @param stream The stream to read.
+   * @return The text of the stream.
+   * @throws IOException if the stream cannot be read.
+   */
+  public static String readStream(InputStream stream) throws IOException {
+    try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+      StringBuilder text = new StringBuilder();
+      char[] buffer = new char[64 * 1024];
+      int read;
+      while ((read = reader.read(buffer)) != -1) {
+        text.append(buffer, 0, read);
+      }
+      return text.toString();
+    }
+  }
+
+  /**
+   * Splits the bytes into blocks of about BLOCK_SIZE, moving each boundary back to the start of a
+   * UTF-8 sequence so no character is split between two blocks.
+   *
+   * @param bytes The bytes to split.
+   * @return The start and end offsets of the blocks.
+   */
+  private static List<int[]> splitBlocks(ByteBuffer bytes) {
+    List<int[]> blocks = new ArrayList<>();
+    int size = bytes.limit();
+    int start = 0;
+    while (start < size) {
+      int end = (int) Math.min((long) start + BLOCK_SIZE, size);
+      // Continuation bytes look like 10xxxxxx, at most 3 of them follow the first byte
+      for (int back = 0; end < size && back < 3 && (bytes.get(end) & 0xC0) == 0x80; back++) {
+        end--;
+      }
+      blocks.add(new int[] {start, end});
+      start = end;
+    }
+    return blocks;
+  }
+
+  private static void decode(ByteBuffer in, CharBuffer out) {
+    CharsetDecoder decoder =
+        StandardCharsets.UTF_8
+            .newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    CoderResult result = decoder.decode(in, out, true);
+    if (!result.isUnderflow()) {
+      // The output is as large as the input, which is enough for UTF-8
+      throw new IllegalStateException("Unexpected decoder result " + result);
+    }
+    decoder.flush(out);
+  }
+}
@@ -1,8 +1,9 @@
 package ai.langframework.langdatacore.splitters;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /** CharacterTextSplitter */
 public class CharacterTextSplitter extends TextSplitter {
@@ -44,40 +45,82 @@ public class CharacterTextSplitter extends TextSplitter {
    */
   @Override
   List<String> splitText(String text) {
-    validateParameters(text);
-
-    List<String> result = new ArrayList<>();
+    List<TextChunk> chunks = splitChunks(text);
 
-    if (isSeparatorRegex) {
-      return Arrays.asList(text.split(separator));
+    List<String> result = new ArrayList<>(chunks.size());
+    for (TextChunk chunk : chunks) {
+      result.add(chunk.toString());
     }
+    return result;
+  }
 
-    int length = text.length();
-    int startIndex = 0;
+  /**
+   * Splits the text into chunks of at most chunkSize characters, in a single forward scan. Each
+   * chunk ends at the last separator that keeps it within chunkSize, or is cut at chunkSize when
+   * there is no such separator. Separators and whitespace around chunks are left out, and
+   * consecutive chunks share chunkOverlap characters. The chunks are views of the text, nothing is
+   * copied.
+   *
+   * @param text
+   * @return List<TextChunk>
+   */
+  @Override
+  public List<TextChunk> splitChunks(CharSequence text) {
+    validateParameters(text);
 
-    while (startIndex < length) {
-      int endIndex = startIndex + chunkSize;
+    List<TextChunk> chunks = new ArrayList<>();
+    int length = text.length();
+    Matcher matcher = separator.isEmpty() ? null : separatorPattern().matcher(text);
+    boolean found = matcher != null && matcher.find();
 
-      // Adjust endIndex based on chunkOverlap
-      endIndex = Math.min(endIndex, length);
+    // Last separator starting at or before the limit of the current chunk
+    int separatorStart = -1;
+    int separatorEnd = -1;
+    int previousEnd = -1;
+    int start = 0;
 
-      // Find the actual end index by looking for the next occurrence of the separator
-      int separatorIndex = text.indexOf(separator, endIndex);
-      if (separatorIndex != -1) {
-        endIndex = separatorIndex + separator.length();
+    while (start < length) {
+      int limit = (int) Math.min((long) start + chunkSize, length);
+      while (found && matcher.start() <= limit) {
+        separatorStart = matcher.start();
+        separatorEnd = matcher.end();
+        found = matcher.find();
       }
 
-      String chunk = text.substring(startIndex, endIndex);
-      result.add(chunk.replace(separator, ""));
-
-      // Move startIndex based on chunkOverlap
-      if (endIndex < length) {
-        startIndex = endIndex - chunkOverlap;
+      // A chunk must end after the previous one, so a separator already cut at is not reused
+      boolean separatorUsable = separatorStart > previousEnd;
+      int end;
+      int next;
+      if (limit == length && !(separatorUsable && separatorEnd == length)) {
+        end = length;
+        next = length;
+      } else if (separatorUsable) {
+        end = separatorStart;
+        next = separatorEnd;
       } else {
-        startIndex = endIndex;
+        end = limit;
+        next = limit;
+      }
+
+      addTrimmed(chunks, text, start, end);
+      if (next >= length) {
+        break;
       }
+
+      previousEnd = end;
+      start = chunkOverlap > 0 ? Math.max(0, end - chunkOverlap) : next;
     }
-    return result;
+
+    return chunks;
+  }
+
+  /**
+   * Compiles the separator, quoting it unless it is a regex
+   *
+   * @return Pattern
+   */
+  private Pattern separatorPattern() {
+    return Pattern.compile(isSeparatorRegex ? separator : Pattern.quote(separator));
   }
 
   /**
@@ -86,7 +129,7 @@ public class CharacterTextSplitter extends TextSplitter {
    * @param text
    */
   @Override
-  protected void validateParameters(String text) {
+  protected void validateParameters(CharSequence text) {
     super.validateParameters(text);
     if (separator == null) {
       throw new IllegalArgumentException("Separator cannot be null");
@@ -1,9 +1,27 @@
 package ai.langframework.langdatacore.splitters;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.ToIntFunction;
 
+/**
+ * RecursiveCharacterTextSplitter
+ *
+ * <p>Splits the text on the first separator of the hierarchy found in it, merges the pieces back
+ * into chunks of at most chunkSize, and splits the pieces that are still too long on the next
+ * separators. By default the hierarchy is paragraph, line, sentence, word and character, and the
+ * length is counted in characters. A length function counting model tokens can be passed instead.
+ * Pieces and chunks are offsets into the text, so nothing is copied until the chunks are turned
+ * into Strings.
+ */
 public class RecursiveCharacterTextSplitter extends TextSplitter {
 
+  private static final List<String> DEFAULT_SEPARATORS = List.of("\n\n", "\n", ". ", " ", "");
+
+  private final List<String> separators;
+  private final ToIntFunction<CharSequence> lengthFunction;
+
   /**
    * Constructor to initialize the Splitter
    *
@@ -11,11 +29,213 @@ public class RecursiveCharacterTextSplitter extends TextSplitter {
    * @param chunkOverlap
    */
   public RecursiveCharacterTextSplitter(int chunkSize, int chunkOverlap) {
+    this(DEFAULT_SEPARATORS, chunkSize, chunkOverlap, CharSequence::length);
+  }
+
+  /**
+   * Constructor to initialize the Splitter
+   *
+   * @param chunkSize
+   * @param chunkOverlap
+   * @param lengthFunction measures chunkSize and chunkOverlap, for example in model tokens
+   */
+  public RecursiveCharacterTextSplitter(
+      int chunkSize, int chunkOverlap, ToIntFunction<CharSequence> lengthFunction) {
+    this(DEFAULT_SEPARATORS, chunkSize, chunkOverlap, lengthFunction);
+  }
+
+  /**
+   * Constructor to initialize the Splitter
+   *
+   * @param separators from the coarsest to the finest, "" splitting between characters
+   * @param chunkSize
+   * @param chunkOverlap
+   * @param lengthFunction measures chunkSize and chunkOverlap, for example in model tokens
+   */
+  public RecursiveCharacterTextSplitter(
+      List<String> separators,
+      int chunkSize,
+      int chunkOverlap,
+      ToIntFunction<CharSequence> lengthFunction) {
     super(chunkSize, chunkOverlap);
+    this.separators = separators;
+    this.lengthFunction = lengthFunction;
   }
 
+  /**
+   * Method that splits the text passed into chunks
+   *
+   * @param text
+   * @return List<String>
+   */
   @Override
   List<String> splitText(String text) {
-    return null;
+    List<TextChunk> chunks = splitChunks(text);
+
+    List<String> result = new ArrayList<>(chunks.size());
+    for (TextChunk chunk : chunks) {
+      result.add(chunk.toString());
+    }
+    return result;
+  }
+
+  /**
+   * Splits the text into chunks of at most chunkSize, as measured by the length function.
+   * Consecutive chunks share up to chunkOverlap of whole pieces. A piece is only longer than
+   * chunkSize when the finest separator cannot split it, which does not happen while "" is the last
+   * separator.
+   *
+   * @param text
+   * @return List<TextChunk>
+   */
+  @Override
+  public List<TextChunk> splitChunks(CharSequence text) {
+    validateParameters(text);
+
+    List<TextChunk> chunks = new ArrayList<>();
+    split(text, 0, text.length(), 0, chunks);
+    return chunks;
+  }
+
+  /**
+   * Splits the text between start and end with the separators from the given level on
+   *
+   * @param text
+   * @param start
+   * @param end
+   * @param level
+   * @param chunks
+   */
+  private void split(CharSequence text, int start, int end, int level, List<TextChunk> chunks) {
+    // Use the first separator found in the range, or the last one of the hierarchy
+    int separatorIndex = level;
+    while (separatorIndex < separators.size() - 1
+        && !separators.get(separatorIndex).isEmpty()
+        && indexOf(text, separators.get(separatorIndex), start, end) < 0) {
+      separatorIndex++;
+    }
+    String separator = separators.get(separatorIndex);
+    boolean finest = separatorIndex == separators.size() - 1;
+
+    Pieces pieces = new Pieces();
+    int pieceStart = start;
+    while (pieceStart < end) {
+      int separatorStart;
+      int pieceEnd;
+      if (separator.isEmpty()) {
+        pieceEnd = pieceStart + Character.charCount(Character.codePointAt(text, pieceStart));
+        separatorStart = pieceEnd;
+      } else {
+        separatorStart = indexOf(text, separator, pieceStart, end);
+        pieceEnd = separatorStart < 0 ? end : separatorStart;
+      }
+
+      if (pieceEnd > pieceStart) {
+        int length = lengthFunction.applyAsInt(new TextChunk(text, pieceStart, pieceEnd));
+        if (length <= chunkSize) {
+          // Empty pieces are skipped, so the text since the previous piece may hold several
+          // separators
+          int gap =
+              pieces.size > 0
+                  ? lengthFunction.applyAsInt(
+                      new TextChunk(text, pieces.ends[pieces.size - 1], pieceStart))
+                  : 0;
+          pieces.add(pieceStart, pieceEnd, length, gap);
+        } else {
+          merge(text, pieces, chunks);
+          if (finest) {
+            addTrimmed(chunks, text, pieceStart, pieceEnd);
+          } else {
+            split(text, pieceStart, pieceEnd, separatorIndex + 1, chunks);
+          }
+        }
+      }
+
+      if (separatorStart < 0) {
+        break;
+      }
+      pieceStart = separatorStart + separator.length();
+    }
+    merge(text, pieces, chunks);
+  }
+
+  /**
+   * Merges consecutive pieces into chunks of at most chunkSize, keeping up to chunkOverlap of the
+   * last pieces of a chunk at the start of the next one. A chunk is the range from its first to its
+   * last piece, and its length counts the text between the pieces as well as the pieces.
+   *
+   * @param text
+   * @param pieces
+   * @param chunks
+   */
+  private void merge(CharSequence text, Pieces pieces, List<TextChunk> chunks) {
+    int first = 0;
+    int total = 0;
+
+    for (int i = 0; i < pieces.size; i++) {
+      int gap = i > first ? pieces.gaps[i] : 0;
+      if (i > first && total + gap + pieces.lengths[i] > chunkSize) {
+        addTrimmed(chunks, text, pieces.starts[first], pieces.ends[i - 1]);
+
+        // Drop pieces from the front until what is left fits the overlap and the next piece
+        while (i > first
+            && (total > chunkOverlap || total + pieces.gaps[i] + pieces.lengths[i] > chunkSize)) {
+          total -= pieces.lengths[first] + (i - first > 1 ? pieces.gaps[first + 1] : 0);
+          first++;
+        }
+        gap = i > first ? pieces.gaps[i] : 0;
+      }
+      total += gap + pieces.lengths[i];
+    }
+
+    if (pieces.size > first) {
+      addTrimmed(chunks, text, pieces.starts[first], pieces.ends[pieces.size - 1]);
+    }
+    pieces.clear();
+  }
+
+  /**
+   * Method to validate the parameters
+   *
+   * @param text
+   */
+  @Override
+  protected void validateParameters(CharSequence text) {
+    super.validateParameters(text);
+    if (separators == null || separators.isEmpty()) {
+      throw new IllegalArgumentException("Separators cannot be empty");
+    } else if (lengthFunction == null) {
+      throw new IllegalArgumentException("Length Function cannot be null");
+    }
+  }
+
+  /**
+   * Offsets and lengths of the pieces waiting to be merged, and the length of the text between each
+   * piece and the previous one
+   */
+  private static class Pieces {
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private int[] lengths = new int[16];
+    private int[] gaps = new int[16];
+    private int size;
+
+    void add(int start, int end, int length, int gap) {
+      if (size == starts.length) {
+        starts = Arrays.copyOf(starts, size * 2);
+        ends = Arrays.copyOf(ends, size * 2);
+        lengths = Arrays.copyOf(lengths, size * 2);
+        gaps = Arrays.copyOf(gaps, size * 2);
+      }
+      starts[size] = start;
+      ends[size] = end;
+      lengths[size] = length;
+      gaps[size] = gap;
+      size++;
+    }
+
+    void clear() {
+      size = 0;
+    }
   }
 }
@@ -0,0 +1,79 @@
+package ai.langframework.langdatacore.splitters;
+
+/**
+ * A chunk of a text, kept as a view of the characters between two offsets of the source text. The
+ * characters are only copied when {@link #toString()} is called.
+ */
+public final class TextChunk implements CharSequence {
+
+  private final CharSequence source;
+  private final int start;
+  private final int end;
+
+  /**
+   * Creates a view of the characters of the source between start, inclusive, and end, exclusive.
+   *
+   * @param source
+   * @param start
+   * @param end
+   */
+  public TextChunk(CharSequence source, int start, int end) {
+    if (start < 0 || end < start || end > source.length()) {
+      throw new IndexOutOfBoundsException(
+          "Invalid chunk [" + start + ", " + end + ") of a text of length " + source.length());
+    }
+    this.source = source;
+    this.start = start;
+    this.end = end;
+  }
+
+  /**
+   * Gets the offset of the first character of the chunk in the source text
+   *
+   * @return int
+   */
+  public int getStart() {
+    return start;
+  }
+
+  /**
+   * Gets the offset after the last character of the chunk in the source text
+   *
+   * @return int
+   */
+  public int getEnd() {
+    return end;
+  }
+
+  @Override
+  public int length() {
+    return end - start;
+  }
+
+  @Override
+  public char charAt(int index) {
+    if (index < 0 || index >= length()) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of chunk of length " + length());
+    }
+    return source.charAt(start + index);
+  }
+
+  @Override
+  public TextChunk subSequence(int start, int end) {
+    if (start < 0 || end > length()) {
+      throw new IndexOutOfBoundsException(
+          "Invalid range [" + start + ", " + end + ") of a chunk of length " + length());
+    }
+    return new TextChunk(source, this.start + start, this.start + end);
+  }
+
+  /**
+   * Copies the characters of the chunk into a String
+   *
+   * @return String
+   */
+  @Override
+  public String toString() {
+    return source.subSequence(start, end).toString();
+  }
+}
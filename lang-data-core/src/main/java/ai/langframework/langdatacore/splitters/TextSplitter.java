@@ -1,10 +1,12 @@
 package ai.langframework.langdatacore.splitters;
 
 import ai.langframework.langdatacore.Document;
+import ai.langframework.langdatacore.DocumentMetadata;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /** An Abstract TextSplitter with common methods and variables */
 public abstract class TextSplitter {
@@ -31,39 +33,62 @@ public abstract class TextSplitter {
    * @return List<Document>
    */
   public List<Document> createDocuments(List<Document> inputDocuments) {
-    List<Document> outputDocuments = new ArrayList<>();
-
-    for (Document inputDocument : inputDocuments) {
-      List<String> splitChunks = splitText(inputDocument.getText());
-      for (int i = 0; i < splitChunks.size(); i++) {
-        String chunk = splitChunks.get(i);
-        Map<String, String> metadata = new HashMap<>(inputDocument.getMetadata());
-        metadata.put("lookup_index", String.valueOf(i));
-        Document outputDocument = new Document(chunk, metadata);
-        outputDocuments.add(outputDocument);
-      }
-    }
+    return createDocuments(inputDocuments, false);
+  }
 
-    return outputDocuments;
+  /**
+   * Method to split each Document from the list of Documents passed, optionally splitting the
+   * Documents in parallel on the common fork-join pool. The chunks are returned in the order of the
+   * Documents passed either way.
+   *
+   * @param inputDocuments
+   * @param parallel
+   * @return List<Document>
+   */
+  public List<Document> createDocuments(List<Document> inputDocuments, boolean parallel) {
+    Stream<Document> stream = parallel ? inputDocuments.parallelStream() : inputDocuments.stream();
+    return stream
+        .map(this::createDocuments)
+        .flatMap(List::stream)
+        .collect(Collectors.toCollection(ArrayList::new));
   }
 
   /**
-   * Method to split the Document passed
+   * Method to split the Document passed. The chunks share the metadata of the Document, and only
+   * their "lookup_index" is stored per chunk.
    *
    * @param inputDocument
    * @return List<Document>
    */
   public List<Document> createDocuments(Document inputDocument) {
-    List<Document> outputDocuments = new ArrayList<>();
-    List<String> splitChunks;
+    List<String> splitChunks = splitText(inputDocument.getText());
+    List<Document> outputDocuments = new ArrayList<>(splitChunks.size());
+    DocumentMetadata metadata = DocumentMetadata.copyOf(inputDocument.getMetadata());
 
-    splitChunks = splitText(inputDocument.getText());
     for (int i = 0; i < splitChunks.size(); i++) {
-      String chunk = splitChunks.get(i);
-      Map<String, String> metadata = new HashMap<>(inputDocument.getMetadata());
-      metadata.put("lookup_index", String.valueOf(i));
-      Document outputDocument = new Document(chunk, metadata);
-      outputDocuments.add(outputDocument);
+      outputDocuments.add(
+          new Document(splitChunks.get(i), metadata.with("lookup_index", String.valueOf(i))));
+    }
+
+    return outputDocuments;
+  }
+
+  /**
+   * Splits a text into Documents without copying it: the text of each Document is a view of the
+   * text passed, only copied into a String when the Document's getText() is called.
+   *
+   * @param text
+   * @param metadata shared by the Documents, which only add their "lookup_index"
+   * @return List<Document>
+   */
+  public List<Document> createDocuments(CharSequence text, Map<String, String> metadata) {
+    List<TextChunk> chunks = splitChunks(text);
+    List<Document> outputDocuments = new ArrayList<>(chunks.size());
+    DocumentMetadata sharedMetadata = DocumentMetadata.copyOf(metadata);
+
+    for (int i = 0; i < chunks.size(); i++) {
+      outputDocuments.add(
+          new Document(chunks.get(i), sharedMetadata.with("lookup_index", String.valueOf(i))));
     }
 
     return outputDocuments;
@@ -74,15 +99,74 @@ public abstract class TextSplitter {
    *
    * @param text
    */
-  protected void validateParameters(String text) {
+  protected void validateParameters(CharSequence text) {
     if (text == null) {
       throw new IllegalArgumentException("Text cannot be null");
     } else if (chunkSize <= 0) {
       throw new IllegalArgumentException("Chunk Size should be greater than 0");
     } else if (chunkOverlap < 0) {
       throw new IllegalArgumentException("Chunk Overlap should be greater than or equal to 0");
+    } else if (chunkOverlap >= chunkSize) {
+      throw new IllegalArgumentException("Chunk Overlap should be smaller than Chunk Size");
+    }
+  }
+
+  /**
+   * Adds the chunk between start and end, without its leading and trailing whitespace, unless it is
+   * blank
+   *
+   * @param chunks
+   * @param text
+   * @param start
+   * @param end
+   */
+  protected static void addTrimmed(List<TextChunk> chunks, CharSequence text, int start, int end) {
+    while (start < end && Character.isWhitespace(text.charAt(start))) {
+      start++;
+    }
+    while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+      end--;
+    }
+    if (end > start) {
+      chunks.add(new TextChunk(text, start, end));
+    }
+  }
+
+  /**
+   * Finds the first occurrence of a non-empty separator lying entirely between from and to
+   *
+   * @param text
+   * @param separator
+   * @param from
+   * @param to
+   * @return the offset of the separator, or -1 if it does not occur
+   */
+  protected static int indexOf(CharSequence text, String separator, int from, int to) {
+    // Bounded by to, unlike String.indexOf, so searching a short range never scans the whole text
+    int last = to - separator.length();
+    char first = separator.charAt(0);
+    for (int i = from; i <= last; i++) {
+      if (text.charAt(i) != first) {
+        continue;
+      }
+      int j = 1;
+      while (j < separator.length() && text.charAt(i + j) == separator.charAt(j)) {
+        j++;
+      }
+      if (j == separator.length()) {
+        return i;
+      }
     }
+    return -1;
   }
 
+  /**
+   * Splits the text into chunks that are views of it
+   *
+   * @param text
+   * @return List<TextChunk>
+   */
+  public abstract List<TextChunk> splitChunks(CharSequence text);
+
   abstract List<String> splitText(String text);
 }
@@ -0,0 +1,153 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import ai.langframework.langdatacore.embeddings.CoalescingEmbeddingProvider;
+import ai.langframework.langdatacore.embeddings.EmbeddingProviderHolder;
+import ai.langframework.langdatacore.exceptions.EmbeddingException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class CoalescingEmbeddingProviderTest {
+
+  @Test
+  void testBatchSplitIntoRequests() {
+    try (RecordingProvider provider = new RecordingProvider(3, Duration.ZERO)) {
+      List<String> texts = List.of("a", "bb", "ccc", "dddd", "eeeee", "ffffff", "g");
+      List<float[]> vectors = provider.embed(texts);
+
+      assertEquals(List.of(3, 3, 1), provider.batchSizes());
+      for (int i = 0; i < texts.size(); i++) {
+        assertArrayEquals(new float[] {texts.get(i).length()}, vectors.get(i));
+      }
+    }
+  }
+
+  @Test
+  void testConcurrentTextsCoalesced() throws Exception {
+    // A full batch is sent at once, long before the wait runs out
+    try (RecordingProvider provider = new RecordingProvider(5, Duration.ofSeconds(30))) {
+      CountDownLatch start = new CountDownLatch(1);
+      List<CompletableFuture<float[]>> vectors = new ArrayList<>();
+      for (int i = 1; i <= 5; i++) {
+        String text = "x".repeat(i);
+        vectors.add(
+            CompletableFuture.supplyAsync(
+                () -> {
+                  try {
+                    start.await();
+                  } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                  }
+                  return provider.embed(text);
+                },
+                runnable -> new Thread(runnable).start()));
+      }
+      start.countDown();
+
+      for (int i = 1; i <= 5; i++) {
+        assertArrayEquals(new float[] {i}, vectors.get(i - 1).get(10, TimeUnit.SECONDS));
+      }
+      assertEquals(List.of(5), provider.batchSizes());
+    }
+  }
+
+  @Test
+  void testFailuresReachCallers() {
+    try (CoalescingEmbeddingProvider failing =
+        new CoalescingEmbeddingProvider(4, Duration.ZERO, 1) {
+          @Override
+          protected List<float[]> embedBatch(List<String> texts) {
+            throw new EmbeddingException("Service unavailable");
+          }
+
+          @Override
+          public String getModel() {
+            return "failing";
+          }
+        }) {
+      assertThrows(EmbeddingException.class, () -> failing.embed("text"));
+      assertThrows(EmbeddingException.class, () -> failing.embed(List.of("a", "b")));
+    }
+
+    try (CoalescingEmbeddingProvider missing =
+        new CoalescingEmbeddingProvider(4, Duration.ZERO, 1) {
+          @Override
+          protected List<float[]> embedBatch(List<String> texts) {
+            return List.of(new float[] {1});
+          }
+
+          @Override
+          public String getModel() {
+            return "missing";
+          }
+        }) {
+      assertThrows(EmbeddingException.class, () -> missing.embed(List.of("a", "b")));
+    }
+  }
+
+  @Test
+  void testClosedProviderRejectsTexts() {
+    RecordingProvider provider = new RecordingProvider(4, Duration.ZERO);
+    assertArrayEquals(new float[] {2}, provider.embed("ab"));
+    provider.close();
+    assertThrows(IllegalStateException.class, () -> provider.embed("ab"));
+  }
+
+  @Test
+  void testHolderClosesReplacedOwnedProvider() {
+    EmbeddingProviderHolder holder = new EmbeddingProviderHolder();
+    RecordingProvider first = new RecordingProvider(4, Duration.ZERO);
+    RecordingProvider second = new RecordingProvider(4, Duration.ZERO);
+    RecordingProvider supplied = new RecordingProvider(4, Duration.ZERO);
+    RecordingProvider third = new RecordingProvider(4, Duration.ZERO);
+
+    holder.setOwnedProvider(first);
+    holder.setOwnedProvider(second);
+    assertThrows(IllegalStateException.class, () -> first.embed("a"));
+    assertArrayEquals(new float[] {1}, holder.get().embed("a"));
+
+    // A provider supplied by the caller is left open once replaced
+    holder.setProvider(supplied);
+    assertThrows(IllegalStateException.class, () -> second.embed("a"));
+    holder.setOwnedProvider(third);
+    assertArrayEquals(new float[] {1}, supplied.embed("a"));
+
+    supplied.close();
+    third.close();
+  }
+
+  /** Embeds a text as its length and records the size of every request. */
+  private static class RecordingProvider extends CoalescingEmbeddingProvider {
+    private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+    RecordingProvider(int maxBatchSize, Duration maxWait) {
+      super(maxBatchSize, maxWait, 2);
+    }
+
+    @Override
+    protected List<float[]> embedBatch(List<String> texts) {
+      batchSizes.add(texts.size());
+      List<float[]> vectors = new ArrayList<>();
+      for (String text : texts) {
+        vectors.add(new float[] {text.length()});
+      }
+      return vectors;
+    }
+
+    @Override
+    public String getModel() {
+      return "recording";
+    }
+
+    List<Integer> batchSizes() {
+      return new ArrayList<>(batchSizes);
+    }
+  }
+}
@@ -0,0 +1,101 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import ai.langframework.langdatacore.Document;
+import ai.langframework.langdatacore.exceptions.LoaderException;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ConnectorClientTest {
+
+  private HttpServer server;
+
+  @BeforeEach
+  void startServer() throws Exception {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext(
+        "/",
+        exchange -> {
+          if (exchange.getRequestURI().getPath().startsWith("/missing")) {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+          }
+          byte[] body =
+              ("Body of " + exchange.getRequestURI().getPath()).getBytes(StandardCharsets.UTF_8);
+          // Gzipped when the client asks for it, which the shared fetcher always does
+          if ("gzip".equals(exchange.getRequestHeaders().getFirst("Accept-Encoding"))) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+              gzip.write(body);
+            }
+            body = compressed.toByteArray();
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+          }
+          exchange.sendResponseHeaders(200, body.length);
+          try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(body);
+          }
+        });
+    server.start();
+  }
+
+  @AfterEach
+  void stopServer() {
+    server.stop(0);
+  }
+
+  @Test
+  void testReadDataAsync() throws Exception {
+    List<String> links = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      links.add(link("/page" + i + ".txt"));
+    }
+    List<Document> documents = new LinkClient().readDataAsync(links).get();
+
+    assertEquals(20, documents.size());
+    for (int i = 0; i < 20; i++) {
+      assertEquals("Body of /page" + i + ".txt", documents.get(i).getText());
+      assertEquals(links.get(i), documents.get(i).getMetadata().get("Source"));
+    }
+  }
+
+  @Test
+  void testReadDataAsyncFailure() {
+    List<String> links = List.of(link("/page.txt"), link("/missing.txt"));
+    ExecutionException failure =
+        assertThrows(ExecutionException.class, () -> new LinkClient().readDataAsync(links).get());
+    assertInstanceOf(LoaderException.class, failure.getCause());
+  }
+
+  @Test
+  void testReadDataAsyncWithoutDocuments() throws Exception {
+    LinkClient client =
+        new LinkClient() {
+          @Override
+          public List<Document> readData(String link) throws LoaderException {
+            return link.endsWith("/empty.txt") ? null : super.readData(link);
+          }
+        };
+    List<String> links = List.of(link("/empty.txt"), link("/page.txt"));
+    List<Document> documents = client.readDataAsync(links).get();
+
+    assertEquals(1, documents.size());
+    assertEquals("Body of /page.txt", documents.get(0).getText());
+  }
+
+  private String link(String path) {
+    return "http://localhost:" + server.getAddress().getPort() + path;
+  }
+}
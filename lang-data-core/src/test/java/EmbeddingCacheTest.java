@@ -0,0 +1,164 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import ai.langframework.langdatacore.embeddings.CachingEmbeddingProvider;
+import ai.langframework.langdatacore.embeddings.EmbeddingCache;
+import ai.langframework.langdatacore.embeddings.EmbeddingProvider;
+import ai.langframework.langdatacore.embeddings.EmbeddingProviderHolder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class EmbeddingCacheTest {
+
+  @Test
+  void testReloadAfterRestart(@TempDir Path directory) throws Exception {
+    Path file = directory.resolve("embeddings.bin");
+    try (EmbeddingCache cache = new EmbeddingCache(file)) {
+      cache.put("model-a", "first", new float[] {1, 2, 3});
+      cache.put("model-a", "second", new float[] {4, 5});
+      cache.put("model-b", "first", new float[] {6});
+      assertEquals(3, cache.size());
+    }
+
+    try (EmbeddingCache cache = new EmbeddingCache(file)) {
+      assertEquals(3, cache.size());
+      assertArrayEquals(new float[] {1, 2, 3}, cache.get("model-a", "first"));
+      assertArrayEquals(new float[] {4, 5}, cache.get("model-a", "second"));
+      assertArrayEquals(new float[] {6}, cache.get("model-b", "first"));
+      assertNull(cache.get("model-b", "second"));
+      assertEquals(3, cache.getHits());
+      assertEquals(1, cache.getMisses());
+    }
+  }
+
+  @Test
+  void testIncompleteRecordDiscarded(@TempDir Path directory) throws Exception {
+    Path file = directory.resolve("embeddings.bin");
+    try (EmbeddingCache cache = new EmbeddingCache(file)) {
+      cache.put("model", "text", new float[] {1, 2});
+    }
+    long complete = Files.size(file);
+    // A record cut short by a crash
+    Files.write(file, new byte[] {1, 2, 3, 4, 5}, StandardOpenOption.APPEND);
+
+    try (EmbeddingCache cache = new EmbeddingCache(file)) {
+      assertEquals(1, cache.size());
+      assertArrayEquals(new float[] {1, 2}, cache.get("model", "text"));
+      cache.put("model", "other", new float[] {3});
+    }
+    assertEquals(complete + 32 + 4 + 4, Files.size(file));
+    try (EmbeddingCache cache = new EmbeddingCache(file)) {
+      assertArrayEquals(new float[] {3}, cache.get("model", "other"));
+    }
+  }
+
+  @Test
+  void testLeastRecentlyUsedEvicted(@TempDir Path directory) throws Exception {
+    try (EmbeddingCache cache = new EmbeddingCache(directory.resolve("embeddings.bin"), 2)) {
+      float[] first = {1};
+      float[] second = {2};
+      float[] third = {3};
+      cache.put("model", "first", first);
+      cache.put("model", "second", second);
+      // Using the first vector makes the second one the least recently used
+      assertSame(first, cache.get("model", "first"));
+      cache.put("model", "third", third);
+
+      assertSame(first, cache.get("model", "first"));
+      assertSame(third, cache.get("model", "third"));
+      // The evicted vector is read back from the file
+      float[] reloaded = cache.get("model", "second");
+      assertNotSame(second, reloaded);
+      assertArrayEquals(second, reloaded);
+      assertEquals(3, cache.size());
+    }
+  }
+
+  @Test
+  void testHolderPutsCacheInFront(@TempDir Path directory) throws Exception {
+    CountingProvider provider = new CountingProvider();
+    EmbeddingProviderHolder holder = new EmbeddingProviderHolder();
+    assertNull(holder.get());
+
+    holder.setProvider(provider);
+    assertSame(provider, holder.get());
+
+    try (EmbeddingCache cache = new EmbeddingCache(directory.resolve("embeddings.bin"))) {
+      holder.setCache(cache);
+      assertInstanceOf(CachingEmbeddingProvider.class, holder.get());
+      holder.get().embed(List.of("a", "b", "a"));
+      holder.get().embed("b");
+      assertEquals(List.of("a", "b"), provider.embedded);
+
+      // A new provider is also put behind the cache, which already holds its vectors
+      CountingProvider replacement = new CountingProvider();
+      holder.setProvider(replacement);
+      assertSame(replacement, holder.getProvider());
+      holder.get().embed("a");
+      assertEquals(List.of(), replacement.embedded);
+
+      holder.setCache(null);
+      assertSame(replacement, holder.get());
+    }
+  }
+
+  @Test
+  void testHolderRequiresModelToCache(@TempDir Path directory) throws Exception {
+    CountingProvider unnamed = new CountingProvider(null);
+    EmbeddingProviderHolder holder = new EmbeddingProviderHolder();
+    holder.setProvider(unnamed);
+
+    try (EmbeddingCache cache = new EmbeddingCache(directory.resolve("embeddings.bin"))) {
+      assertThrows(IllegalStateException.class, () -> holder.setCache(cache));
+      assertNull(holder.getCache());
+      assertSame(unnamed, holder.get());
+
+      CountingProvider named = new CountingProvider();
+      holder.setProvider(named);
+      holder.setCache(cache);
+      assertThrows(IllegalStateException.class, () -> holder.setProvider(unnamed));
+      assertSame(named, holder.getProvider());
+      assertThrows(
+          IllegalArgumentException.class, () -> new CachingEmbeddingProvider(unnamed, cache));
+    }
+  }
+
+  /** Embeds a text as its length and records the texts it was asked for. */
+  private static class CountingProvider implements EmbeddingProvider {
+    private final List<String> embedded = new ArrayList<>();
+    private final String model;
+
+    CountingProvider() {
+      this("counting");
+    }
+
+    CountingProvider(String model) {
+      this.model = model;
+    }
+
+    @Override
+    public synchronized List<float[]> embed(List<String> texts) {
+      embedded.addAll(texts);
+      List<float[]> vectors = new ArrayList<>();
+      for (String text : texts) {
+        vectors.add(new float[] {text.length()});
+      }
+      return vectors;
+    }
+
+    @Override
+    public String getModel() {
+      return model;
+    }
+  }
+}
@@ -0,0 +1,149 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ai.langframework.langdatacore.CachingConnectorClient;
+import ai.langframework.langdatacore.Document;
+import ai.langframework.langdatacore.io.DocumentCache;
+import ai.langframework.langdatacore.io.HttpCache;
+import ai.langframework.langdatacore.io.HttpFetcher;
+import com.sun.net.httpserver.HttpServer;
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class HttpCacheTest {
+
+  private final String[] content = {"First version"};
+  private final AtomicInteger bodiesSent = new AtomicInteger();
+  private final AtomicInteger notModified = new AtomicInteger();
+  private HttpServer server;
+  private HttpFetcher fetcher;
+
+  @BeforeEach
+  void startServer() throws Exception {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext(
+        "/",
+        exchange -> {
+          String etag = "\"" + content[0].hashCode() + "\"";
+          exchange.getResponseHeaders().add("ETag", etag);
+          if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            notModified.incrementAndGet();
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+          }
+          bodiesSent.incrementAndGet();
+          byte[] body = content[0].getBytes(StandardCharsets.UTF_8);
+          exchange.sendResponseHeaders(200, body.length);
+          try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(body);
+          }
+        });
+    server.start();
+    fetcher = new HttpFetcher(Duration.ofSeconds(5), Duration.ofSeconds(5), 2);
+  }
+
+  @AfterEach
+  void stopServer() {
+    server.stop(0);
+    fetcher.close();
+  }
+
+  @Test
+  void testConditionalRefetch(@TempDir Path cacheDirectory) throws Exception {
+    HttpCache httpCache = new HttpCache(cacheDirectory.resolve("http").toFile());
+    // Ask the server every time, to see each conditional request
+    httpCache.setRevalidateAfter(Duration.ZERO);
+    fetcher.setCache(httpCache);
+    HttpFetcher previous = HttpFetcher.setDefault(fetcher);
+    try {
+      LinkClient linkClient = new LinkClient();
+      CachingConnectorClient client =
+          new CachingConnectorClient(
+              linkClient, new DocumentCache(cacheDirectory.resolve("documents").toFile()));
+      String link = link("/notes.txt");
+
+      assertEquals("First version", client.readData(link).get(0).getText());
+      List<Document> unchanged = client.readData(link);
+      assertEquals("First version", unchanged.get(0).getText());
+      assertEquals(link, unchanged.get(0).getMetadata().get("Source"));
+      assertEquals(1, linkClient.parsed.get());
+      assertEquals(1, bodiesSent.get());
+
+      content[0] = "Second version";
+      assertEquals("Second version", client.readData(link).get(0).getText());
+      assertEquals(2, linkClient.parsed.get());
+      assertEquals(2, bodiesSent.get());
+      assertEquals(3, notModified.get());
+    } finally {
+      HttpFetcher.setDefault(previous);
+    }
+  }
+
+  @Test
+  void testBodyMatchesContentHash(@TempDir Path cacheDirectory) throws Exception {
+    File directory = cacheDirectory.toFile();
+    HttpCache httpCache = new HttpCache(directory);
+    httpCache.setRevalidateAfter(Duration.ZERO);
+    String link = link("/notes.txt");
+
+    for (String version : List.of("First version", "Second version")) {
+      content[0] = version;
+      String contentHash = httpCache.validate(fetcher, link);
+      try (InputStream body = httpCache.open(fetcher, link)) {
+        byte[] bytes = body.readAllBytes();
+        assertEquals(version, new String(bytes, StandardCharsets.UTF_8));
+        assertEquals(
+            contentHash,
+            HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes)));
+      }
+      // The body of the previous version is removed once replaced
+      File[] bodies = directory.listFiles((dir, name) -> name.endsWith(".body"));
+      assertEquals(1, bodies.length);
+      assertTrue(bodies[0].getName().endsWith(contentHash + ".body"));
+    }
+  }
+
+  @Test
+  void testFileLinkBypassesCache(@TempDir Path cacheDirectory) throws Exception {
+    fetcher.setCache(new HttpCache(cacheDirectory.resolve("http").toFile()));
+    HttpFetcher previous = HttpFetcher.setDefault(fetcher);
+    try {
+      Path file = Files.writeString(cacheDirectory.resolve("notes.txt"), "Local version");
+      String link = file.toUri().toString();
+      CachingConnectorClient client =
+          new CachingConnectorClient(
+              new LinkClient(), new DocumentCache(cacheDirectory.resolve("documents").toFile()));
+
+      assertEquals("Local version", client.readData(link).get(0).getText());
+      try (Reader reader = fetcher.openReader(link)) {
+        assertEquals('L', reader.read());
+      }
+      assertFalse(HttpFetcher.isHttp(link));
+      assertThrows(IllegalArgumentException.class, () -> fetcher.newRequest(link));
+    } finally {
+      HttpFetcher.setDefault(previous);
+    }
+  }
+
+  private String link(String path) {
+    return "http://localhost:" + server.getAddress().getPort() + path;
+  }
+}
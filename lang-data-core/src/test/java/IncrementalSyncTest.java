@@ -0,0 +1,115 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ai.langframework.langdatacore.Document;
+import ai.langframework.langdatacore.VectorInterface;
+import ai.langframework.langdatacore.ingestion.IncrementalSync;
+import ai.langframework.langdatacore.ingestion.IngestionManifest;
+import ai.langframework.langdatacore.ingestion.SyncResult;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class IncrementalSyncTest {
+
+  @Test
+  void testIncrementalSync(@TempDir Path directory) throws Exception {
+    Map<String, String> stored = new HashMap<>();
+    List<String> upserted = new ArrayList<>();
+    VectorInterface store =
+        new VectorInterface() {
+          @Override
+          public void addDocuments(List<Document> documents) {}
+
+          @Override
+          public List<Document> searchSimilarity(String query) {
+            return List.of();
+          }
+
+          @Override
+          public void upsertDocuments(List<Document> documents, List<String> ids) {
+            for (int i = 0; i < documents.size(); i++) {
+              stored.put(ids.get(i), documents.get(i).getText());
+              upserted.add(documents.get(i).getText());
+            }
+          }
+
+          @Override
+          public void deleteDocuments(List<String> ids) {
+            stored.keySet().removeAll(ids);
+          }
+        };
+    File manifestFile = directory.resolve("manifest").toFile();
+
+    SyncResult first =
+        new IncrementalSync(store, new IngestionManifest(manifestFile))
+            .sync(
+                List.of(
+                    chunk("a.txt", "Alpha"),
+                    chunk("a.txt", "Beta"),
+                    chunk("a.txt", "Beta"),
+                    chunk("b.txt", "Gamma")));
+    assertEquals(4, first.getUpserted());
+    assertEquals(4, stored.size());
+
+    // A later run reads the manifest back and only writes the delta
+    upserted.clear();
+    IncrementalSync sync = new IncrementalSync(store, new IngestionManifest(manifestFile));
+    SyncResult second =
+        sync.sync(
+            List.of(chunk("a.txt", "Alpha"), chunk("a.txt", "Delta"), chunk("a.txt", "Beta")));
+    assertEquals(1, second.getUpserted());
+    assertEquals(2, second.getUnchanged());
+    assertEquals(1, second.getDeleted());
+    assertEquals(List.of("Delta"), upserted);
+    assertEquals(4, stored.size());
+    assertTrue(stored.containsValue("Gamma"));
+
+    SyncResult third = sync.retainSources(List.of("a.txt"));
+    assertEquals(1, third.getDeleted());
+    assertEquals(3, stored.size());
+    assertFalse(stored.containsValue("Gamma"));
+  }
+
+  @Test
+  void testManifestReload(@TempDir Path directory) throws Exception {
+    File manifestFile = directory.resolve("manifest").toFile();
+    IngestionManifest manifest = new IngestionManifest(manifestFile);
+    Map<String, String> chunks = new LinkedHashMap<>();
+    chunks.put("id-2", "hash-2");
+    chunks.put("id-1", "hash-1");
+    manifest.putChunks("a.txt", chunks);
+    manifest.putChunks("b.txt", Map.of("id-3", "hash-3"));
+    manifest.save();
+
+    IngestionManifest reloaded = new IngestionManifest(manifestFile);
+    assertEquals(List.of("id-2", "id-1"), new ArrayList<>(reloaded.getChunks("a.txt").keySet()));
+    assertEquals("hash-3", reloaded.getChunks("b.txt").get("id-3"));
+    assertTrue(reloaded.getChunks("c.txt").isEmpty());
+
+    reloaded.removeSource("a.txt");
+    reloaded.save();
+    assertEquals(List.of("b.txt"), new IngestionManifest(manifestFile).getSources());
+  }
+
+  @Test
+  void testManifestRejectsOtherFiles(@TempDir Path directory) throws Exception {
+    Path other = directory.resolve("other");
+    Files.writeString(other, "not a manifest");
+    assertThrows(IOException.class, () -> new IngestionManifest(other.toFile()));
+  }
+
+  private static Document chunk(String source, String text) {
+    return new Document(text, Map.of("Source", source));
+  }
+}
@@ -0,0 +1,95 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ai.langframework.langdatacore.Connector;
+import ai.langframework.langdatacore.Document;
+import ai.langframework.langdatacore.ingestion.IngestionEngine;
+import ai.langframework.langdatacore.ingestion.IngestionMetrics;
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class IngestionEngineTest {
+
+  @Test
+  void testMetricsReadWhileRunning() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    Connector connector =
+        new Connector() {
+          @Override
+          public List<Document> loadData(File file) {
+            try {
+              release.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            return List.of(new Document("Text of " + file.getName()));
+          }
+
+          @Override
+          public List<Document> loadData(String link) {
+            throw new UnsupportedOperationException();
+          }
+        };
+    IngestionMetrics metrics = new IngestionMetrics();
+
+    try (IngestionEngine engine = new IngestionEngine(2, 1)) {
+      engine.registerConnector(connector, "txt");
+      CompletableFuture<IngestionMetrics> ingestion =
+          CompletableFuture.supplyAsync(
+              () -> engine.ingest(List.of("a.txt", "b.txt", "c.pdf"), document -> {}, metrics));
+
+      // The caller sees the sources in flight before the ingestion returns
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      while (metrics.getSourcesInFlight() < 2 && System.nanoTime() < deadline) {
+        Thread.sleep(10);
+      }
+      assertEquals(2, metrics.getSourcesInFlight());
+      assertEquals(1, metrics.getSourcesSkipped());
+      assertFalse(metrics.isFinished());
+
+      release.countDown();
+      assertSame(metrics, ingestion.get(10, TimeUnit.SECONDS));
+    }
+
+    assertTrue(metrics.isFinished());
+    assertEquals(2, metrics.getSourcesCompleted());
+    assertEquals(0, metrics.getSourcesInFlight());
+    assertEquals(2, metrics.getDocuments());
+  }
+
+  @Test
+  void testClockStopsWhenFinished() throws Exception {
+    Connector connector =
+        new Connector() {
+          @Override
+          public List<Document> loadData(File file) {
+            return List.of(new Document(file.getName()));
+          }
+
+          @Override
+          public List<Document> loadData(String link) {
+            return List.of(new Document(link));
+          }
+        };
+
+    IngestionMetrics metrics;
+    try (IngestionEngine engine = new IngestionEngine(1, 1)) {
+      engine.registerConnector(connector, "txt");
+      metrics = engine.ingest(List.of("a.txt", "https://example.com/b.txt"), document -> {});
+    }
+    assertTrue(metrics.isFinished());
+    assertEquals(2, metrics.getSourcesCompleted());
+
+    long elapsed = metrics.getElapsedMillis();
+    double documentsPerSecond = metrics.getDocumentsPerSecond();
+    Thread.sleep(50);
+    assertEquals(elapsed, metrics.getElapsedMillis());
+    assertEquals(documentsPerSecond, metrics.getDocumentsPerSecond());
+  }
+}
@@ -0,0 +1,38 @@
+import ai.langframework.langdatacore.ConnectorClient;
+import ai.langframework.langdatacore.Document;
+import ai.langframework.langdatacore.exceptions.LoaderException;
+import ai.langframework.langdatacore.io.HttpFetcher;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Reads links through the shared fetcher, one document per link, and counts the links read. */
+class LinkClient implements ConnectorClient {
+  final AtomicInteger parsed = new AtomicInteger();
+
+  @Override
+  public Object getClient() {
+    return this;
+  }
+
+  @Override
+  public List<Document> readData(File file) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public List<Document> readData(String link) throws LoaderException {
+    parsed.incrementAndGet();
+    try (InputStream body = HttpFetcher.getDefault().open(link)) {
+      return List.of(
+          new Document(
+              new String(body.readAllBytes(), StandardCharsets.UTF_8), Map.of("Source", link)));
+    } catch (IOException e) {
+      throw new LoaderException("Cannot read " + link, e);
+    }
+  }
+}
@@ -0,0 +1,37 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import ai.langframework.langdatacore.io.TextReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TextReaderTest {
+
+  @Test
+  void testReadFileAcrossBlocks(@TempDir Path directory) throws Exception {
+    // Multi-byte characters in every block of 16 MB, so later blocks are moved down
+    StringBuilder builder = new StringBuilder();
+    String line = "Prix: 12 \u20ac, d\u00e9j\u00e0 vu, \u65e5\u672c\u8a9e, \ud834\udd1e clef\r\n";
+    while (builder.length() < 40 * 1024 * 1024) {
+      builder.append(line);
+    }
+    String expected = builder.toString();
+    Path file = directory.resolve("large.txt");
+    Files.writeString(file, expected, StandardCharsets.UTF_8);
+
+    assertEquals(expected, TextReader.readFile(file.toFile()).toString());
+  }
+
+  @Test
+  void testReadSmallFile(@TempDir Path directory) throws Exception {
+    Path file = directory.resolve("small.txt");
+    Files.writeString(file, "Line one\nLigne deux \u00e9\n", StandardCharsets.UTF_8);
+    assertEquals("Line one\nLigne deux \u00e9\n", TextReader.readFile(file.toFile()).toString());
+
+    Path empty = directory.resolve("empty.txt");
+    Files.writeString(empty, "");
+    assertEquals("", TextReader.readFile(empty.toFile()).toString());
+  }
+}
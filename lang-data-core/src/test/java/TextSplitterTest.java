@@ -0,0 +1,112 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ai.langframework.langdatacore.Document;
+import ai.langframework.langdatacore.splitters.CharacterTextSplitter;
+import ai.langframework.langdatacore.splitters.RecursiveCharacterTextSplitter;
+import ai.langframework.langdatacore.splitters.TextChunk;
+import ai.langframework.langdatacore.splitters.TextSplitter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class TextSplitterTest {
+
+  @Test
+  void testRecursiveSplitCountsSkippedSeparators() {
+    RecursiveCharacterTextSplitter splitter = new RecursiveCharacterTextSplitter(8, 0);
+    assertEquals(List.of("aaaa", "bbb cc"), texts(splitter.splitChunks("aaaa  bbb cc")));
+  }
+
+  @Test
+  void testRecursiveSplitWithinChunkSize() {
+    String text =
+        "First  paragraph with   repeated    spaces.\n\n\n\nSecond paragraph.\n\nA line\n\n\n"
+            + "and another line.  Then  a   sentence. And more words  than fit in one chunk.";
+    for (int chunkSize = 5; chunkSize <= 40; chunkSize++) {
+      RecursiveCharacterTextSplitter splitter =
+          new RecursiveCharacterTextSplitter(chunkSize, chunkSize / 3);
+      for (TextChunk chunk : splitter.splitChunks(text)) {
+        assertTrue(chunk.length() <= chunkSize, "\"" + chunk + "\" exceeds " + chunkSize);
+      }
+    }
+  }
+
+  @Test
+  void testRecursiveSplitHierarchy() {
+    RecursiveCharacterTextSplitter splitter = new RecursiveCharacterTextSplitter(12, 0);
+    assertEquals(
+        List.of("Para one.", "Para two is", "here."),
+        texts(splitter.splitChunks("Para one.\n\nPara two is here.")));
+  }
+
+  @Test
+  void testRecursiveSplitOverlap() {
+    RecursiveCharacterTextSplitter splitter = new RecursiveCharacterTextSplitter(10, 4);
+    assertEquals(
+        List.of("one two", "two three", "four five"),
+        texts(splitter.splitChunks("one two three four five")));
+  }
+
+  @Test
+  void testRecursiveSplitLengthFunction() {
+    // Counts words rather than characters
+    RecursiveCharacterTextSplitter splitter =
+        new RecursiveCharacterTextSplitter(
+            3,
+            0,
+            text -> text.toString().isBlank() ? 0 : text.toString().strip().split("\\s+").length);
+    assertEquals(List.of("a b c", "d e f", "g"), texts(splitter.splitChunks("a b c d e f g")));
+  }
+
+  @Test
+  void testCharacterSplit() {
+    CharacterTextSplitter splitter = new CharacterTextSplitter(20, 0);
+    List<String> chunks =
+        texts(splitter.splitChunks("First paragraph.\n\nSecond paragraph.\n\nThird."));
+    assertEquals(List.of("First paragraph.", "Second paragraph.", "Third."), chunks);
+  }
+
+  @Test
+  void testCharacterSplitWithinChunkSize() {
+    String text = "no separators in this text at all so it is cut at the chunk size";
+    CharacterTextSplitter splitter = new CharacterTextSplitter(10, 2);
+    List<TextChunk> chunks = splitter.splitChunks(text);
+    assertTrue(chunks.size() > 1);
+    for (TextChunk chunk : chunks) {
+      assertTrue(chunk.length() <= 10, "\"" + chunk + "\" exceeds 10");
+    }
+  }
+
+  @Test
+  void testCreateDocumentsLookupIndex() {
+    TextSplitter splitter = new RecursiveCharacterTextSplitter(12, 0);
+    List<Document> documents =
+        splitter.createDocuments(
+            new Document("Para one.\n\nPara two is here.", Map.of("Source", "notes.txt")));
+    assertEquals(3, documents.size());
+    for (int i = 0; i < documents.size(); i++) {
+      assertEquals(String.valueOf(i), documents.get(i).getMetadata().get("lookup_index"));
+      assertEquals("notes.txt", documents.get(i).getMetadata().get("Source"));
+    }
+  }
+
+  @Test
+  void testInvalidParameters() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new RecursiveCharacterTextSplitter(10, 10).splitChunks("text"));
+    assertThrows(
+        IllegalArgumentException.class, () -> new CharacterTextSplitter(0, 0).splitChunks("text"));
+  }
+
+  private static List<String> texts(List<TextChunk> chunks) {
+    List<String> texts = new ArrayList<>();
+    for (TextChunk chunk : chunks) {
+      texts.add(chunk.toString());
+    }
+    return texts;
+  }
+}
@@ -1,32 +1,32 @@
 package ai.langframework.langdatacsv;
 
-import ai.langframework.langdatacore.Connector;
 import ai.langframework.langdatacore.Document;
+import ai.langframework.langdatacore.StreamingConnector;
 import java.io.File;
-import java.util.List;
+import java.util.stream.Stream;
 
 /** CSV Connector */
-public class CsvConnector implements Connector {
+public class CsvConnector implements StreamingConnector {
 
   /**
-   * Loads data from a CSV file using a CsvConnectorClient.
+   * Streams the rows of a CSV file using a CsvConnectorClient.
    *
-   * @param file the CSV file to load data from
-   * @return a list of documents containing the data from the CSV file
+   * @param file the CSV file to stream data from
+   * @return a stream of documents, one per CSV row
    */
   @Override
-  public List<Document> loadData(File file) {
-    return new CsvConnectorClient().readData(file);
+  public Stream<Document> streamData(File file) {
+    return new CsvConnectorClient().streamData(file);
   }
 
   /**
-   * Loads data from a CSV file located at the specified link using a CsvConnectorClient.
+   * Streams the rows of a CSV file located at the specified link using a CsvConnectorClient.
    *
    * @param link the link to the CSV file
-   * @return a list of documents containing the data from the CSV file
+   * @return a stream of documents, one per CSV row
    */
   @Override
-  public List<Document> loadData(String link) {
-    return new CsvConnectorClient().readData(link);
+  public Stream<Document> streamData(String link) {
+    return new CsvConnectorClient().streamData(link);
   }
 }
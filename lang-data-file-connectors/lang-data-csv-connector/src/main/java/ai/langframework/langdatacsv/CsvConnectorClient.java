@@ -1,120 +1,289 @@
 package ai.langframework.langdatacsv;
 
-import ai.langframework.langdatacore.ConnectorClient;
 import ai.langframework.langdatacore.Document;
-import ai.langframework.langdatacore.Logger;
+import ai.langframework.langdatacore.DocumentMetadata;
+import ai.langframework.langdatacore.StreamingConnectorClient;
+import ai.langframework.langdatacore.io.HttpFetcher;
+import ai.langframework.langdatacore.io.MappedInputStream;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
+import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.URL;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
 
 /** CSV Connector Client */
-public class CsvConnectorClient implements ConnectorClient {
+public class CsvConnectorClient implements StreamingConnectorClient {
+
+  private int rowsPerDocument = 1;
+  private int parallelism = 1;
+
   /**
-   * Reads data from a CSV file and converts it into a list of documents.
+   * Sets the number of consecutive rows combined into each document. The "Row" metadata of a
+   * document is the number of its first row.
    *
-   * @param file the CSV file to read data from
-   * @return a list of documents containing the data from the CSV file
+   * @param rowsPerDocument the number of rows per document, 1 by default
    */
-  @Override
-  public List<Document> readData(File file) {
-    List<Document> documents = new ArrayList<Document>();
-    try {
-      FileReader reader = new FileReader(file);
-      CSVParser csvParser = CSVFormat.DEFAULT.withHeader().parse(reader);
-
-      List<String> headerNames = csvParser.getHeaderNames();
+  public void setRowsPerDocument(int rowsPerDocument) {
+    if (rowsPerDocument <= 0) {
+      throw new IllegalArgumentException("Rows per document must be positive");
+    }
+    this.rowsPerDocument = rowsPerDocument;
+  }
 
-      int totalColumns = headerNames.size();
+  /**
+   * Sets the number of segments a local file is split into and parsed in parallel. Segments start
+   * on record boundaries after a multiple of the rows per document, so documents group the same
+   * rows as a sequential parse, and they are returned in the order of the file.
+   *
+   * @param parallelism the number of segments, 1 by default to parse files sequentially
+   */
+  public void setParallelism(int parallelism) {
+    if (parallelism <= 0) {
+      throw new IllegalArgumentException("Parallelism must be positive");
+    }
+    this.parallelism = parallelism;
+  }
 
-      for (CSVRecord record : csvParser) {
-        String documentText = "";
-        HashMap<String, String> metadata = new HashMap<>();
+  /**
+   * Streams the rows of a CSV file as documents while the file is being parsed. With a parallelism
+   * above 1 the file is memory-mapped and its segments are parsed in parallel. The stream must be
+   * closed to release the file.
+   *
+   * @param file the CSV file to read data from
+   * @return a stream of documents, one per group of rows
+   */
+  @Override
+  public Stream<Document> streamData(File file) {
+    DocumentMetadata sourceMetadata =
+        DocumentMetadata.EMPTY
+            .with("FileName", file.getName())
+            .with("Source", file.getAbsolutePath())
+            .with("FileSize", String.valueOf(file.length()));
 
-        for (int i = 0; i < totalColumns; i++) {
-          documentText += headerNames.get(i) + ":";
-          if (i == totalColumns - 1) {
-            documentText += record.get(headerNames.get(i));
-          } else {
-            documentText += record.get(headerNames.get(i)) + "\\n";
-          }
-        }
-        metadata.put("FileName", file.getName());
-        metadata.put("Source", file.getAbsolutePath());
-        metadata.put("FileSize", String.valueOf(file.length()));
-        metadata.put("Row", String.valueOf(record.getRecordNumber()));
-        Document newDocument = new Document(documentText, metadata);
-        documents.add(newDocument);
+    try {
+      if (parallelism > 1) {
+        return streamSegments(file, sourceMetadata);
       }
-
-      csvParser.close();
-      reader.close();
+      return streamRecords(
+          new FileReader(file, StandardCharsets.UTF_8),
+          CSVFormat.DEFAULT.withHeader(),
+          0,
+          sourceMetadata);
     } catch (Exception e) {
       e.printStackTrace();
     }
-
-    return documents;
+    return Stream.empty();
   }
 
   /**
-   * Reads data from a CSV file located at the specified link and converts it into a list of
-   * documents.
+   * Streams the rows of a CSV file located at the specified link as documents while the response is
+   * being parsed. The stream must be closed to release the connection.
    *
    * @param link the link to the CSV file
-   * @return a list of documents containing the data from the CSV file
+   * @return a stream of documents, one per group of rows
    */
   @Override
-  public List<Document> readData(String link) {
-    URL url = null;
-    List<Document> documents = new ArrayList<Document>();
+  public Stream<Document> streamData(String link) {
     try {
-      url = new URL(link);
-      InputStreamReader inputStreamReader = new InputStreamReader(url.openStream());
-      BufferedReader reader = new BufferedReader(inputStreamReader);
+      URL url = new URL(link);
+
+      DocumentMetadata sourceMetadata =
+          DocumentMetadata.EMPTY
+              .with("FileName", url.getFile())
+              .with("Source", link)
+              .with("FileSize", String.valueOf(url.getFile().length()));
+
+      return streamRecords(
+          new InputStreamReader(HttpFetcher.getDefault().open(link), StandardCharsets.UTF_8),
+          CSVFormat.DEFAULT.withHeader(),
+          0,
+          sourceMetadata);
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+    return Stream.empty();
+  }
 
-      CSVParser csvParser = CSVFormat.DEFAULT.withHeader().parse(reader);
-      List<String> headerNames = csvParser.getHeaderNames();
+  /**
+   * Splits a file into segments starting on record boundaries and parses them in parallel. The
+   * first segment reads the header, the others are given its names.
+   *
+   * @param file the CSV file
+   * @param sourceMetadata the metadata shared by every row of the source
+   * @return a parallel stream of documents, in the order of the file
+   * @throws IOException if the file cannot be read
+   */
+  private Stream<Document> streamSegments(File file, DocumentMetadata sourceMetadata)
+      throws IOException {
+    String[] headerNames;
+    try (CSVParser headerParser =
+        CSVFormat.DEFAULT
+            .withHeader()
+            .parse(new BufferedReader(new FileReader(file, StandardCharsets.UTF_8)))) {
+      headerNames = headerParser.getHeaderNames().toArray(new String[0]);
+    }
 
-      int totalColumns = headerNames.size();
+    FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    long[][] segments;
+    try {
+      segments = findSegments(channel, parallelism, rowsPerDocument);
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+    long[] starts = segments[0];
+    long[] firstRows = segments[1];
 
-      for (CSVRecord record : csvParser) {
-        String documentText = "";
-        HashMap<String, String> metadata = new HashMap<>();
+    return IntStream.range(0, starts.length - 1)
+        .parallel()
+        .boxed()
+        .flatMap(
+            segment -> {
+              CSVFormat format =
+                  segment == 0
+                      ? CSVFormat.DEFAULT.withHeader()
+                      : CSVFormat.DEFAULT.withHeader(headerNames);
+              Reader reader =
+                  new InputStreamReader(
+                      new MappedInputStream(channel, starts[segment], starts[segment + 1]),
+                      StandardCharsets.UTF_8);
+              try {
+                return streamRecords(reader, format, firstRows[segment], sourceMetadata);
+              } catch (IOException e) {
+                e.printStackTrace();
+              }
+              return Stream.empty();
+            })
+        .onClose(
+            () -> {
+              try {
+                channel.close();
+              } catch (IOException e) {
+                e.printStackTrace();
+              }
+            });
+  }
 
-        for (int i = 0; i < totalColumns; i++) {
-          documentText += headerNames.get(i) + ":";
-          if (i == totalColumns - 1) {
-            documentText += record.get(headerNames.get(i));
-          } else {
-            documentText += record.get(headerNames.get(i)) + "\\n";
+  /**
+   * Finds where the segments of a file start. A segment starts after a line break that is not
+   * inside a quoted value and a multiple of the rows per document, so it never splits a record or a
+   * group of rows. The file is scanned once, counting the non-empty records so that rows keep the
+   * numbers a sequential parse gives them.
+   *
+   * @param channel the channel over the file
+   * @param count the number of segments wanted
+   * @param rowsPerDocument the number of rows combined into each document
+   * @return the start offsets of the segments followed by the file size, and the number of rows
+   *     before each segment
+   * @throws IOException if the file cannot be mapped
+   */
+  private static long[][] findSegments(FileChannel channel, int count, int rowsPerDocument)
+      throws IOException {
+    long size = channel.size();
+    long[] starts = new long[count + 1];
+    long[] firstRows = new long[count];
+    int found = 1;
+    long target = size / count;
+
+    boolean quoted = false;
+    boolean lineHasContent = false;
+    // Records read so far, including the header
+    long records = 0;
+
+    for (long position = 0; position < size && found < count; ) {
+      MappedByteBuffer buffer =
+          channel.map(
+              FileChannel.MapMode.READ_ONLY,
+              position,
+              Math.min(MappedInputStream.MAX_MAPPING, size - position));
+      for (int i = 0; i < buffer.limit() && found < count; i++) {
+        byte b = buffer.get(i);
+        if (b == '"') {
+          // An escaped quote toggles twice, which leaves the state unchanged
+          quoted = !quoted;
+        } else if (b == '\n' && !quoted) {
+          if (lineHasContent) {
+            records++;
           }
+          lineHasContent = false;
+          long next = position + i + 1;
+          // The header is the first record, the rows before the segment must fill whole groups
+          if (next >= target && next < size && (records - 1) % rowsPerDocument == 0) {
+            starts[found] = next;
+            firstRows[found] = records - 1;
+            found++;
+            target = Math.max(next, size * found / count);
+          }
+        } else if (b != '\r') {
+          lineHasContent = true;
         }
-        metadata.put("FileName", url.getFile());
-        metadata.put("Source", link);
-        metadata.put("FileSize", String.valueOf(url.getFile().length()));
-        metadata.put("Row", String.valueOf(record.getRecordNumber()));
-        Document newDocument = new Document(documentText, metadata);
-        documents.add(newDocument);
       }
+      position += buffer.limit();
+    }
 
-      csvParser.close();
-      reader.close();
+    // Too few records for the segments asked for: keep the segments found
+    long[] segmentStarts = new long[found + 1];
+    System.arraycopy(starts, 0, segmentStarts, 0, found);
+    segmentStarts[found] = size;
+    long[] segmentRows = new long[found];
+    System.arraycopy(firstRows, 0, segmentRows, 0, found);
+    return new long[][] {segmentStarts, segmentRows};
+  }
 
-    } catch (Exception e) {
-      e.printStackTrace();
-    }
-    for (Document doc : documents) {
-      Logger.info(doc.getText());
-      Logger.info(doc.getMetadata());
+  /**
+   * Lazily maps the records read from the reader to documents. Closing the returned stream closes
+   * the parser and the reader.
+   *
+   * @param reader the reader over the CSV content
+   * @param format the format, reading the header or giving its names
+   * @param firstRow the number of rows before the content of the reader
+   * @param sourceMetadata the metadata shared by every row of the source
+   * @return a stream of documents, one per group of rows
+   * @throws IOException if the header cannot be read
+   */
+  private Stream<Document> streamRecords(
+      Reader reader, CSVFormat format, long firstRow, DocumentMetadata sourceMetadata)
+      throws IOException {
+    CSVParser csvParser;
+    try {
+      csvParser = format.parse(new BufferedReader(reader));
+    } catch (IOException e) {
+      reader.close();
+      throw e;
     }
-    return documents;
+
+    Iterator<Document> documents =
+        new RowGroupIterator(
+            csvParser.iterator(), csvParser.getHeaderNames(), firstRow, sourceMetadata);
+    return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(
+                documents, Spliterator.ORDERED | Spliterator.NONNULL),
+            false)
+        .onClose(
+            () -> {
+              try {
+                csvParser.close();
+              } catch (IOException e) {
+                e.printStackTrace();
+              }
+            });
   }
 
   /**
@@ -126,4 +295,61 @@ public class CsvConnectorClient implements ConnectorClient {
   public Object getClient() {
     return this;
   }
+
+  /**
+   * Combines groups of consecutive records into documents. The "Name:" prefixes of the columns are
+   * built once and the text of every document is assembled in the same buffer.
+   */
+  private class RowGroupIterator implements Iterator<Document> {
+    private final Iterator<CSVRecord> records;
+    private final String[] prefixes;
+    private final long firstRow;
+    private final DocumentMetadata sourceMetadata;
+    private final StringBuilder text = new StringBuilder();
+
+    RowGroupIterator(
+        Iterator<CSVRecord> records,
+        List<String> headerNames,
+        long firstRow,
+        DocumentMetadata sourceMetadata) {
+      this.records = records;
+      this.prefixes = new String[headerNames.size()];
+      for (int i = 0; i < prefixes.length; i++) {
+        prefixes[i] = (i > 0 ? "\\n" : "") + headerNames.get(i) + ":";
+      }
+      this.firstRow = firstRow;
+      this.sourceMetadata = sourceMetadata;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return records.hasNext();
+    }
+
+    @Override
+    public Document next() {
+      if (!records.hasNext()) {
+        throw new NoSuchElementException();
+      }
+
+      text.setLength(0);
+      long row = 0;
+      for (int count = 0; count < rowsPerDocument && records.hasNext(); count++) {
+        CSVRecord record = records.next();
+        if (count == 0) {
+          row = firstRow + record.getRecordNumber();
+        } else {
+          text.append('\n');
+        }
+        for (int i = 0; i < prefixes.length; i++) {
+          text.append(prefixes[i]);
+          if (i < record.size()) {
+            text.append(record.get(i));
+          }
+        }
+      }
+
+      return new Document(text.toString(), sourceMetadata.with("Row", String.valueOf(row)));
+    }
+  }
 }
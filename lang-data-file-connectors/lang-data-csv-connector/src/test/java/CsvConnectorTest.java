@@ -4,7 +4,9 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import ai.langframework.langdatacore.Document;
+import ai.langframework.langdatacore.DocumentIds;
 import ai.langframework.langdatacsv.CsvConnector;
+import ai.langframework.langdatacsv.CsvConnectorClient;
 import java.io.File;
 import java.io.InputStream;
 import java.net.MalformedURLException;
@@ -12,7 +14,9 @@ import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
@@ -55,6 +59,76 @@ class CsvConnectorTest {
     assertEquals(String.valueOf(testFile.length()), documents.get(0).getMetadata().get("FileSize"));
   }
 
+  @Test
+  void testDistinctDocumentIds() throws Exception {
+    File testFile = copyResource("test.csv");
+    CsvConnectorClient client = new CsvConnectorClient();
+    documents = client.readData(testFile);
+    assertTrue(documents.size() > 1);
+
+    Set<String> ids = new HashSet<>();
+    for (Document document : documents) {
+      ids.add(DocumentIds.of(document));
+    }
+    assertEquals(documents.size(), ids.size());
+    // Ids are stable across reads of the same file
+    assertEquals(
+        DocumentIds.of(documents.get(1)), DocumentIds.of(client.readData(testFile).get(1)));
+  }
+
+  @Test
+  void testRowsPerDocument() throws Exception {
+    File testFile = copyResource("test.csv");
+    CsvConnectorClient client = new CsvConnectorClient();
+    List<Document> rows = client.readData(testFile);
+
+    client.setRowsPerDocument(4);
+    documents = client.readData(testFile);
+
+    assertEquals((rows.size() + 3) / 4, documents.size());
+    assertEquals(
+        String.join(
+            "\n",
+            rows.get(0).getText(),
+            rows.get(1).getText(),
+            rows.get(2).getText(),
+            rows.get(3).getText()),
+        documents.get(0).getText());
+    assertEquals("1", documents.get(0).getMetadata().get("Row"));
+    assertEquals("5", documents.get(1).getMetadata().get("Row"));
+  }
+
+  @Test
+  void testParallelLoadData() throws Exception {
+    File testFile = copyResource("test.csv");
+    CsvConnectorClient client = new CsvConnectorClient();
+    for (int rowsPerDocument = 1; rowsPerDocument <= 4; rowsPerDocument++) {
+      client.setRowsPerDocument(rowsPerDocument);
+      client.setParallelism(1);
+      List<Document> sequential = client.readData(testFile);
+
+      client.setParallelism(4);
+      documents = client.readData(testFile);
+
+      assertEquals(sequential.size(), documents.size());
+      for (int i = 0; i < sequential.size(); i++) {
+        assertEquals(sequential.get(i).getText(), documents.get(i).getText());
+        assertEquals(sequential.get(i).getMetadata(), documents.get(i).getMetadata());
+      }
+    }
+  }
+
+  private File copyResource(String name) throws Exception {
+    try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(name)) {
+      assertNotNull(inputStream, "Input stream must not be null");
+      Path tempFilePath = Files.createTempFile("dataset-", ".csv");
+      Files.copy(inputStream, tempFilePath, StandardCopyOption.REPLACE_EXISTING);
+      File testFile = tempFilePath.toFile();
+      testFile.deleteOnExit();
+      return testFile;
+    }
+  }
+
   @Test
   void testLoadDataUrl() throws MalformedURLException {
     URL url = new URL(CSV_FILE_URL);
@@ -1,34 +1,32 @@
 package ai.langframework.langdatadocx;
 
-import ai.langframework.langdatacore.Connector;
 import ai.langframework.langdatacore.Document;
-import ai.langframework.langdatacore.exceptions.LoaderException;
+import ai.langframework.langdatacore.StreamingConnector;
 import java.io.File;
-import java.util.List;
+import java.util.stream.Stream;
 
 /** Microsoft Word Document Connector */
-public class DocxConnector implements Connector {
+public class DocxConnector implements StreamingConnector {
 
   /**
-   * Loads data from a DOCX file using a DocxConnectorClient.
+   * Streams data from a DOCX file using a DocxConnectorClient.
    *
-   * @param file the DOCX file to load data from
-   * @return a list of documents containing the data from the DOCX file
+   * @param file the file to stream data from
+   * @return a stream of documents containing the data from the file
    */
   @Override
-  public List<Document> loadData(File file) throws LoaderException {
-    return new DocxConnectorClient().readData(file);
+  public Stream<Document> streamData(File file) {
+    return new DocxConnectorClient().streamData(file);
   }
 
   /**
-   * Loads data from a DOCX file located at the specified link using a DocxConnectorClient.
+   * Streams data from a DOCX file located at the specified link using a DocxConnectorClient.
    *
-   * @param link the link to the DOCX file
-   * @return a list of documents containing the data from the DOCX file
-   * @throws LoaderException if there is an issue loading the data
+   * @param link the link to the file
+   * @return a stream of documents containing the data from the file
    */
   @Override
-  public List<Document> loadData(String link) throws LoaderException {
-    return new DocxConnectorClient().readData(link);
+  public Stream<Document> streamData(String link) {
+    return new DocxConnectorClient().streamData(link);
   }
 }
@@ -1,42 +1,174 @@
 package ai.langframework.langdatadocx;
 
-import ai.langframework.langdatacore.ConnectorClient;
 import ai.langframework.langdatacore.Document;
-import ai.langframework.langdatacore.exceptions.LoaderException;
+import ai.langframework.langdatacore.DocumentMetadata;
+import ai.langframework.langdatacore.StreamingConnectorClient;
+import ai.langframework.langdatacore.io.HttpFetcher;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.xwpf.usermodel.IBodyElement;
 import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFFooter;
+import org.apache.poi.xwpf.usermodel.XWPFHeader;
 import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFSDT;
+import org.apache.poi.xwpf.usermodel.XWPFStyle;
+import org.apache.poi.xwpf.usermodel.XWPFStyles;
+import org.apache.poi.xwpf.usermodel.XWPFTable;
+import org.apache.poi.xwpf.usermodel.XWPFTableCell;
+import org.apache.poi.xwpf.usermodel.XWPFTableRow;
 
 /** Word Document Connector Client */
-public class DocxConnectorClient implements ConnectorClient {
+public class DocxConnectorClient implements StreamingConnectorClient {
+
+  private boolean splitByHeading;
+  private boolean includeHeadersAndFooters;
 
   /**
-   * Extracts text from a DOCX file.
+   * Sets whether a document is created per heading section. A section starts at a paragraph with a
+   * heading style and holds everything up to the next heading; its "heading" metadata is the text
+   * of that paragraph and its "section" metadata its number, starting at 1.
    *
-   * @param inputStream The input stream of the DOCX file.
-   * @return The extracted text.
+   * @param splitByHeading true for a document per section, false (the default) for a single
+   *     document.
    */
-  private String ExtractTextFromDocx(InputStream inputStream) {
+  public void setSplitByHeading(boolean splitByHeading) {
+    this.splitByHeading = splitByHeading;
+  }
 
-    String text = "";
+  /**
+   * Sets whether the text of the page headers comes before the body and the text of the page
+   * footers after it.
+   *
+   * @param includeHeadersAndFooters true to include headers and footers, false by default.
+   */
+  public void setIncludeHeadersAndFooters(boolean includeHeadersAndFooters) {
+    this.includeHeadersAndFooters = includeHeadersAndFooters;
+  }
 
-    try {
-      XWPFDocument wordDocument = new XWPFDocument(inputStream);
+  /**
+   * Extracts documents from a DOCX file, walking its body elements once. Paragraphs are separated
+   * by line breaks, and the cells of table rows by tabs.
+   *
+   * @param wordDocument The DOCX document.
+   * @param metadata The metadata of the source.
+   * @return The extracted documents.
+   */
+  private List<Document> extractDocuments(XWPFDocument wordDocument, DocumentMetadata metadata) {
+    List<Document> documents = new ArrayList<>();
+    StringBuilder text = new StringBuilder();
+    String heading = null;
+    Map<String, Boolean> headingStyles = new HashMap<>();
 
-      for (XWPFParagraph paragraph : wordDocument.getParagraphs()) {
-        text = text + paragraph.getText();
+    if (includeHeadersAndFooters) {
+      for (XWPFHeader header : wordDocument.getHeaderList()) {
+        appendLine(text, header.getText());
       }
-    } catch (Exception e) {
-      e.printStackTrace();
     }
 
-    return text != null ? text : "null";
+    for (IBodyElement element : wordDocument.getBodyElements()) {
+      if (element instanceof XWPFParagraph) {
+        XWPFParagraph paragraph = (XWPFParagraph) element;
+        if (splitByHeading && isHeading(wordDocument, paragraph, headingStyles)) {
+          addSection(documents, text, heading, metadata);
+          heading = paragraph.getText();
+        }
+        appendLine(text, paragraph.getText());
+      } else if (element instanceof XWPFTable) {
+        appendTable(text, (XWPFTable) element);
+      } else if (element instanceof XWPFSDT) {
+        appendLine(text, ((XWPFSDT) element).getContent().getText());
+      }
+    }
+
+    if (includeHeadersAndFooters) {
+      for (XWPFFooter footer : wordDocument.getFooterList()) {
+        appendLine(text, footer.getText());
+      }
+    }
+
+    if (splitByHeading) {
+      addSection(documents, text, heading, metadata);
+    } else {
+      documents.add(new Document(trimEnd(text), metadata));
+    }
+    return documents;
+  }
+
+  /**
+   * Adds the text collected so far as a section, unless it is blank, and clears it.
+   *
+   * @param documents The documents of the previous sections.
+   * @param text The text of the section.
+   * @param heading The heading of the section, or null for the text before the first heading.
+   * @param metadata The metadata of the source.
+   */
+  private static void addSection(
+      List<Document> documents, StringBuilder text, String heading, DocumentMetadata metadata) {
+    String sectionText = trimEnd(text);
+    text.setLength(0);
+    if (sectionText.isBlank()) {
+      return;
+    }
+    documents.add(
+        new Document(
+            sectionText,
+            metadata
+                .with("heading", heading)
+                .with("section", String.valueOf(documents.size() + 1))));
+  }
+
+  private static boolean isHeading(
+      XWPFDocument wordDocument, XWPFParagraph paragraph, Map<String, Boolean> headingStyles) {
+    String styleId = paragraph.getStyleID();
+    if (styleId == null) {
+      return false;
+    }
+    // Looking a style up scans all the styles, so do it once per style
+    return headingStyles.computeIfAbsent(
+        styleId,
+        id -> {
+          XWPFStyles styles = wordDocument.getStyles();
+          XWPFStyle style = styles != null ? styles.getStyle(id) : null;
+          String name = style != null && style.getName() != null ? style.getName() : id;
+          return name.replace(" ", "").toLowerCase().startsWith("heading")
+              || name.equalsIgnoreCase("Title");
+        });
+  }
+
+  private static void appendTable(StringBuilder text, XWPFTable table) {
+    for (XWPFTableRow row : table.getRows()) {
+      List<XWPFTableCell> cells = row.getTableCells();
+      for (int i = 0; i < cells.size(); i++) {
+        if (i > 0) {
+          text.append('\t');
+        }
+        text.append(cells.get(i).getText().replace('\n', ' '));
+      }
+      text.append('\n');
+    }
+  }
+
+  private static void appendLine(StringBuilder text, String line) {
+    if (line != null) {
+      text.append(line).append('\n');
+    }
+  }
+
+  private static String trimEnd(StringBuilder text) {
+    int end = text.length();
+    while (end > 0 && text.charAt(end - 1) == '\n') {
+      end--;
+    }
+    return text.substring(0, end);
   }
 
   /**
@@ -50,79 +182,64 @@ public class DocxConnectorClient implements ConnectorClient {
   }
 
   /**
-   * Reads data from a DOCX file and creates documents.
+   * Reads data from a DOCX file and creates documents. The file is opened read-only in place rather
+   * than read into memory first.
    *
    * @param file The file to read data from.
-   * @return The list of created documents.
-   * @throws LoaderException If an error occurs during loading.
+   * @return A stream containing the created documents, one per section when splitting by heading.
    */
   @Override
-  public List<Document> readData(File file) throws LoaderException {
-
-    List<Document> documents = new ArrayList<>();
-
-    String text = "";
-
-    // Open the Word document using FileInputStream
-    FileInputStream inputStream = null;
-
+  public Stream<Document> streamData(File file) {
+    DocumentMetadata metadata =
+        DocumentMetadata.EMPTY
+            .with("FileName", file.getName())
+            .with("Source", file.getAbsolutePath())
+            .with("FileSize", String.valueOf(file.length()));
+
+    List<Document> documents;
     try {
-      inputStream = new FileInputStream(file);
-
-      text = ExtractTextFromDocx(inputStream);
-
-      inputStream.close();
-
+      OPCPackage wordPackage = OPCPackage.open(file, PackageAccess.READ);
+      try {
+        documents = extractDocuments(new XWPFDocument(wordPackage), metadata);
+      } finally {
+        // Closing a package opened read-only would try to save it
+        wordPackage.revert();
+      }
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
 
-    HashMap<String, String> metadata = new HashMap<>();
-    metadata.put("FileName", file.getName());
-    metadata.put("Source", file.getAbsolutePath());
-    metadata.put("FileSize", String.valueOf(file.length()));
-
-    documents.add(new Document(text, metadata));
-
-    return documents;
+    return documents.stream();
   }
 
   /**
    * Reads data from a DOCX link and creates documents.
    *
    * @param link The link to read data from.
-   * @return The list of created documents.
-   * @throws LoaderException If an error occurs during loading.
+   * @return A stream containing the created documents, one per section when splitting by heading.
    */
   @Override
-  public List<Document> readData(String link) throws LoaderException {
-
-    List<Document> documents = new ArrayList<>();
+  public Stream<Document> streamData(String link) {
 
-    String text = "";
     URL url = null;
 
     try {
       url = new URL(link);
 
-      // Open the Word document using InputStream
-      InputStream inputStream = url.openStream();
-
-      text = ExtractTextFromDocx(inputStream);
-
-      inputStream.close();
+      DocumentMetadata metadata =
+          DocumentMetadata.EMPTY
+              .with("Source", link)
+              .with("FileName", url.getFile())
+              .with("FileSize", String.valueOf(url.getFile().length()));
 
+      // Open the Word document using InputStream
+      try (InputStream inputStream = HttpFetcher.getDefault().open(link)) {
+        return extractDocuments(new XWPFDocument(inputStream), metadata).stream();
+      }
     } catch (Exception e) {
       e.printStackTrace();
     }
 
-    HashMap<String, String> metadata = new HashMap<>();
-    metadata.put("Source", link);
-    metadata.put("FileName", url.getFile());
-    metadata.put("FileSize", String.valueOf(url.getFile().length()));
-
-    documents.add(new Document(text, metadata));
-
-    return documents;
+    return Stream.empty();
   }
 }
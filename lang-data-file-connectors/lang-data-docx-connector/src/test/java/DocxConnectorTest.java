@@ -1,12 +1,15 @@
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import ai.langframework.langdatacore.Document;
 import ai.langframework.langdatacore.PathFileConstants;
 import ai.langframework.langdatacore.exceptions.LoaderException;
 import ai.langframework.langdatadocx.DocxConnector;
+import ai.langframework.langdatadocx.DocxConnectorClient;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
@@ -15,6 +18,9 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.util.List;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFTable;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
@@ -60,6 +66,61 @@ class DocxConnectorTest {
     assertEquals(String.valueOf(testFile.length()), document.get(0).getMetadata().get("FileSize"));
   }
 
+  @Test
+  void testLoadDataWithTables() throws Exception {
+    File testFile = createDocx();
+    List<Document> documents = new DocxConnectorClient().readData(testFile);
+
+    assertEquals(1, documents.size());
+    String text = documents.get(0).getText();
+    assertTrue(text.startsWith("Preamble\nTerms\nThe parties agree.\n"));
+    assertTrue(text.contains("Name\tValue\nTerm\t12 months"));
+    assertTrue(text.endsWith("Payment is due monthly."));
+  }
+
+  @Test
+  void testSplitByHeading() throws Exception {
+    File testFile = createDocx();
+    DocxConnectorClient client = new DocxConnectorClient();
+    client.setSplitByHeading(true);
+    List<Document> sections = client.readData(testFile);
+
+    assertEquals(3, sections.size());
+    assertEquals("Preamble", sections.get(0).getText());
+    assertNull(sections.get(0).getMetadata().get("heading"));
+    assertEquals("Terms", sections.get(1).getMetadata().get("heading"));
+    assertEquals("2", sections.get(1).getMetadata().get("section"));
+    assertTrue(sections.get(1).getText().contains("Term\t12 months"));
+    assertEquals("Payment\nPayment is due monthly.", sections.get(2).getText());
+    assertEquals(testFile.getName(), sections.get(2).getMetadata().get("FileName"));
+  }
+
+  private File createDocx() throws Exception {
+    File testFile = Files.createTempFile("dataset-", ".docx").toFile();
+    testFile.deleteOnExit();
+    try (XWPFDocument wordDocument = new XWPFDocument();
+        FileOutputStream outputStream = new FileOutputStream(testFile)) {
+      wordDocument.createParagraph().createRun().setText("Preamble");
+      addHeading(wordDocument, "Terms");
+      wordDocument.createParagraph().createRun().setText("The parties agree.");
+      XWPFTable table = wordDocument.createTable(2, 2);
+      table.getRow(0).getCell(0).setText("Name");
+      table.getRow(0).getCell(1).setText("Value");
+      table.getRow(1).getCell(0).setText("Term");
+      table.getRow(1).getCell(1).setText("12 months");
+      addHeading(wordDocument, "Payment");
+      wordDocument.createParagraph().createRun().setText("Payment is due monthly.");
+      wordDocument.write(outputStream);
+    }
+    return testFile;
+  }
+
+  private void addHeading(XWPFDocument wordDocument, String text) {
+    XWPFParagraph heading = wordDocument.createParagraph();
+    heading.setStyle("Heading1");
+    heading.createRun().setText(text);
+  }
+
   @Test
   void testLoadDataFromUrl() throws MalformedURLException, LoaderException {
     url = new URL(DOCX_URL);
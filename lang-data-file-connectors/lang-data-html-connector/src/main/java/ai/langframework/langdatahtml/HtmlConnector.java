@@ -1,32 +1,32 @@
 package ai.langframework.langdatahtml;
 
-import ai.langframework.langdatacore.Connector;
 import ai.langframework.langdatacore.Document;
+import ai.langframework.langdatacore.StreamingConnector;
 import java.io.File;
-import java.util.List;
+import java.util.stream.Stream;
 
 /** HTML Connector */
-public class HtmlConnector implements Connector {
+public class HtmlConnector implements StreamingConnector {
 
   /**
-   * Loads data from an HTML file using an HtmlConnectorClient.
+   * Streams data from an HTML file using a HtmlConnectorClient.
    *
-   * @param file the HTML file to load data from
-   * @return a list of documents containing the data from the HTML file
+   * @param file the file to stream data from
+   * @return a stream of documents containing the data from the file
    */
   @Override
-  public List<Document> loadData(File file) {
-    return new HtmlConnectorClient().readData(file);
+  public Stream<Document> streamData(File file) {
+    return new HtmlConnectorClient().streamData(file);
   }
 
   /**
-   * Loads data from an HTML file located at the specified link using an HtmlConnectorClient.
+   * Streams data from an HTML file located at the specified link using a HtmlConnectorClient.
    *
-   * @param link the link to the HTML file
-   * @return a list of documents containing the data from the HTML file
+   * @param link the link to the file
+   * @return a stream of documents containing the data from the file
    */
   @Override
-  public List<Document> loadData(String link) {
-    return new HtmlConnectorClient().readData(link);
+  public Stream<Document> streamData(String link) {
+    return new HtmlConnectorClient().streamData(link);
   }
 }
@@ -1,68 +1,183 @@
 package ai.langframework.langdatahtml;
 
-import ai.langframework.langdatacore.ConnectorClient;
 import ai.langframework.langdatacore.Document;
+import ai.langframework.langdatacore.DocumentMetadata;
+import ai.langframework.langdatacore.StreamingConnectorClient;
+import ai.langframework.langdatacore.io.HttpFetcher;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Deque;
 import java.util.List;
-import org.jsoup.Jsoup;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 /** HTML Connector Client */
-public class HtmlConnectorClient implements ConnectorClient {
+public class HtmlConnectorClient implements StreamingConnectorClient {
+
+  // Elements that start and end a block of text
+  private static final Set<String> BLOCKS =
+      Set.of(
+          "address",
+          "article",
+          "aside",
+          "blockquote",
+          "body",
+          "br",
+          "caption",
+          "dd",
+          "details",
+          "div",
+          "dl",
+          "dt",
+          "fieldset",
+          "figcaption",
+          "figure",
+          "footer",
+          "h1",
+          "h2",
+          "h3",
+          "h4",
+          "h5",
+          "h6",
+          "header",
+          "hr",
+          "html",
+          "li",
+          "main",
+          "nav",
+          "ol",
+          "p",
+          "pre",
+          "section",
+          "summary",
+          "table",
+          "tbody",
+          "td",
+          "tfoot",
+          "th",
+          "thead",
+          "tr",
+          "ul");
+
+  private static final Set<String> HEADINGS = Set.of("h1", "h2", "h3", "h4", "h5", "h6");
+
+  // Elements without content, which are never closed
+  private static final Set<String> VOID_ELEMENTS =
+      Set.of(
+          "area", "base", "br", "col", "embed", "hr", "img", "input", "link", "meta", "param",
+          "source", "track", "wbr");
+
+  // Elements closed by the start of another element of the same name
+  private static final Set<String> IMPLICITLY_CLOSED =
+      Set.of("dd", "dt", "li", "option", "p", "td", "th", "tr");
+
+  // Elements whose text is never part of the content
+  private static final Set<String> NON_CONTENT =
+      Set.of("head", "iframe", "noscript", "script", "style", "svg", "template");
+
+  // Elements holding navigation and other page furniture rather than content
+  private static final Set<String> BOILERPLATE_ELEMENTS =
+      Set.of("aside", "button", "dialog", "form", "nav");
+
+  // Page headers and footers, unless they are the header or footer of an article
+  private static final Set<String> PAGE_FURNITURE = Set.of("footer", "header");
+
+  private static final Set<String> CONTENT_ELEMENTS = Set.of("article", "main");
+
+  // Page wrappers, which often carry layout classes such as "has-sidebar"
+  private static final Set<String> PAGE_ELEMENTS = Set.of("article", "body", "html", "main");
+
+  // Blocks of running text, whose presence makes a block a container of content
+  private static final Set<String> TEXT_BLOCKS =
+      Set.of("article", "blockquote", "h1", "h2", "h3", "h4", "h5", "h6", "main", "p", "pre");
+
+  private static final Set<String> BOILERPLATE_ROLES =
+      Set.of("banner", "complementary", "contentinfo", "navigation", "search");
+
+  private static final Pattern BOILERPLATE_NAMES =
+      Pattern.compile(
+          "(^|[\\s_-])(ads?|advert\\w*|banner|breadcrumbs?|comments?|cookies?|footer|menu|modal"
+              + "|nav|navbar|navigation|newsletter|popup|related|share|sidebar|social|subscribe)"
+              + "($|[\\s_-])");
+
+  private boolean splitByHeading;
+  private boolean removeBoilerplate = true;
 
   /**
-   * Reads data from an HTML file and creates documents.
+   * Sets whether a document is created per heading section. A section starts at an h1 to h6 heading
+   * and holds everything up to the next one; its "heading" metadata is the text of the heading and
+   * its "section" metadata its number, starting at 1.
+   *
+   * @param splitByHeading true for a document per section, false (the default) for a single
+   *     document.
+   */
+  public void setSplitByHeading(boolean splitByHeading) {
+    this.splitByHeading = splitByHeading;
+  }
+
+  /**
+   * Sets whether navigation, page headers and footers, sidebars, forms and blocks made mostly of
+   * links are left out of the text. Blocks are recognized as sidebars, banners and the like by
+   * their id, class or role only outside of the article and only when they hold no paragraph or
+   * heading. Scripts, styles and the head are always left out.
+   *
+   * @param removeBoilerplate true (the default) to keep only the content of the page.
+   */
+  public void setRemoveBoilerplate(boolean removeBoilerplate) {
+    this.removeBoilerplate = removeBoilerplate;
+  }
+
+  /**
+   * Reads data from an HTML file and creates documents. The file is read in a single pass without
+   * building its tree, one line per block of text.
    *
    * @param file The file to read data from.
-   * @return The list of created documents.
+   * @return A stream containing the created documents, one per section when splitting by heading.
    */
   @Override
-  public List<Document> readData(File file) {
-    List<Document> documents = new ArrayList<>();
-
-    String text = "";
-    String title = "";
-    try {
-      org.jsoup.nodes.Document doc = Jsoup.parse(file, "UTF-8");
-      text = doc.body().text();
-      title = doc.title();
+  public Stream<Document> streamData(File file) {
+    DocumentMetadata metadata = DocumentMetadata.EMPTY.with("Source", file.getAbsolutePath());
+    try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+      return extractDocuments(reader, metadata).stream();
     } catch (Exception e) {
       e.printStackTrace();
     }
-    HashMap<String, String> metadata = new HashMap<>();
-    metadata.put("Source", file.getAbsolutePath());
-    metadata.put("Title", title);
-
-    documents.add(new Document(text, metadata));
-    return documents;
+    return Stream.of(new Document("", metadata.with("Title", "")));
   }
 
   /**
-   * Reads data from an HTML link and creates documents.
+   * Reads data from an HTML link and creates documents. The response is read in a single pass
+   * without building its tree, one line per block of text.
    *
    * @param link The link to read data from.
-   * @return The list of created documents.
+   * @return A stream containing the created documents, one per section when splitting by heading.
    */
   @Override
-  public List<Document> readData(String link) {
-    List<Document> documents = new ArrayList<>();
-
-    String text = "";
-    String title = "";
+  public Stream<Document> streamData(String link) {
+    DocumentMetadata metadata = DocumentMetadata.EMPTY.with("Source", link);
     try {
-      org.jsoup.nodes.Document doc = Jsoup.connect(link).get();
-      text = doc.body().text();
-      title = doc.title();
+      try (Reader reader = HttpFetcher.getDefault().openReader(link)) {
+        return extractDocuments(reader, metadata).stream();
+      }
     } catch (Exception e) {
       e.printStackTrace();
     }
-    HashMap<String, String> metadata = new HashMap<>();
-    metadata.put("Source", link);
-    metadata.put("Title", title);
+    return Stream.of(new Document("", metadata.with("Title", "")));
+  }
 
-    documents.add(new Document(text, metadata));
-    return documents;
+  private List<Document> extractDocuments(Reader reader, DocumentMetadata metadata)
+      throws IOException {
+    TextCollector collector = new TextCollector(metadata);
+    HtmlTokenizer.tokenize(reader, collector);
+    return collector.finish();
   }
 
   /**
@@ -74,4 +189,250 @@ public class HtmlConnectorClient implements ConnectorClient {
   public Object getClient() {
     return this;
   }
+
+  /** An element that is open, and what it means for the text it contains */
+  private static class Element {
+    final String name;
+    final boolean hidden;
+    final boolean skipped;
+    final boolean link;
+    final boolean content;
+
+    Element(String name, boolean hidden, boolean skipped, boolean link, boolean content) {
+      this.name = name;
+      this.hidden = hidden;
+      this.skipped = skipped;
+      this.link = link;
+      this.content = content;
+    }
+  }
+
+  /**
+   * Collects the text of the page block by block, keeping track of the open elements to leave out
+   * the text of non-content elements, and of the links to leave out blocks made mostly of links.
+   *
+   * <p>A block whose id, class or role names page furniture is only suspected: its text is kept
+   * while it is read, and removed when it closes without having held a paragraph or heading.
+   */
+  private class TextCollector implements HtmlTokenizer.Handler {
+    private final DocumentMetadata metadata;
+    private final Deque<Element> open = new ArrayDeque<>();
+    private final List<Document> documents = new ArrayList<>();
+    private final StringBuilder title = new StringBuilder();
+    private final StringBuilder block = new StringBuilder();
+    private final StringBuilder section = new StringBuilder();
+    private String heading;
+    private int linkChars;
+    private boolean pendingSpace;
+    private boolean inTitle;
+    private Element suspect;
+    private int suspectStart;
+    private boolean suspectHoldsText;
+
+    TextCollector(DocumentMetadata metadata) {
+      this.metadata = metadata;
+    }
+
+    @Override
+    public void startTag(String name, Map<String, String> attributes, boolean selfClosing) {
+      Element parent = open.peek();
+      if (parent != null && IMPLICITLY_CLOSED.contains(name) && parent.name.equals(name)) {
+        endTag(name);
+        parent = open.peek();
+      }
+      if (BLOCKS.contains(name) && !HEADINGS.contains(name)) {
+        flushBlock();
+      }
+      if (VOID_ELEMENTS.contains(name) || selfClosing) {
+        return;
+      }
+
+      boolean parentContent = parent != null && parent.content;
+      boolean hidden =
+          (parent != null && parent.hidden)
+              || NON_CONTENT.contains(name)
+              || (removeBoilerplate
+                  && (attributes.containsKey("hidden")
+                      || "true".equals(attributes.get("aria-hidden"))));
+      // An article or main element is content even inside a block taken for page furniture
+      boolean inheritedSkip = parent != null && parent.skipped && !CONTENT_ELEMENTS.contains(name);
+      boolean skipped = hidden || inheritedSkip || isBoilerplateElement(name, parentContent);
+      if (name.equals("title")) {
+        inTitle = true;
+      } else if (HEADINGS.contains(name) && !skipped) {
+        flushBlock();
+      }
+      if (suspect != null && !skipped && TEXT_BLOCKS.contains(name)) {
+        suspectHoldsText = true;
+      }
+
+      Element element =
+          new Element(
+              name,
+              hidden,
+              skipped,
+              name.equals("a") || (parent != null && parent.link),
+              parentContent || CONTENT_ELEMENTS.contains(name));
+      open.push(element);
+      if (suspect == null
+          && !skipped
+          && !parentContent
+          && BLOCKS.contains(name)
+          && !PAGE_ELEMENTS.contains(name)
+          && isBoilerplateName(attributes)) {
+        suspect = element;
+        suspectStart = section.length();
+        suspectHoldsText = false;
+      }
+    }
+
+    @Override
+    public void endTag(String name) {
+      boolean isOpen = false;
+      for (Element element : open) {
+        if (element.name.equals(name)) {
+          isOpen = true;
+          break;
+        }
+      }
+      if (!isOpen) {
+        return;
+      }
+
+      // Elements left open inside the closed one are closed with it
+      Element element;
+      do {
+        element = open.pop();
+        close(element);
+      } while (!element.name.equals(name));
+    }
+
+    @Override
+    public void text(String text) {
+      if (inTitle) {
+        title.append(text);
+        return;
+      }
+      Element current = open.peek();
+      if (current != null && current.skipped) {
+        return;
+      }
+
+      // Whitespace is collapsed into single spaces between words
+      for (int i = 0; i < text.length(); i++) {
+        char c = text.charAt(i);
+        if (Character.isWhitespace(c)) {
+          pendingSpace = block.length() > 0;
+          continue;
+        }
+        if (pendingSpace) {
+          block.append(' ');
+          pendingSpace = false;
+        }
+        block.append(c);
+        if (current != null && current.link) {
+          linkChars++;
+        }
+      }
+    }
+
+    private boolean isBoilerplateElement(String name, boolean insideContent) {
+      return removeBoilerplate
+          && (BOILERPLATE_ELEMENTS.contains(name)
+              || (PAGE_FURNITURE.contains(name) && !insideContent));
+    }
+
+    private boolean isBoilerplateName(Map<String, String> attributes) {
+      if (!removeBoilerplate) {
+        return false;
+      }
+      String role = attributes.get("role");
+      if (role != null && BOILERPLATE_ROLES.contains(role.toLowerCase())) {
+        return true;
+      }
+      String names = attributes.getOrDefault("id", "") + " " + attributes.getOrDefault("class", "");
+      return BOILERPLATE_NAMES.matcher(names.toLowerCase()).find();
+    }
+
+    private void close(Element element) {
+      if (element.name.equals("title")) {
+        inTitle = false;
+      } else if (HEADINGS.contains(element.name) && !element.skipped) {
+        closeHeading();
+      } else if (BLOCKS.contains(element.name)) {
+        flushBlock();
+      }
+      if (element == suspect) {
+        if (!suspectHoldsText) {
+          section.setLength(suspectStart);
+        }
+        suspect = null;
+      }
+    }
+
+    private void closeHeading() {
+      String text = block.toString();
+      clearBlock();
+      if (text.isEmpty()) {
+        return;
+      }
+      if (splitByHeading) {
+        finishSection();
+        heading = text;
+      }
+      section.append(text).append('\n');
+    }
+
+    private void flushBlock() {
+      // Blocks that are mostly link text are menus, tag clouds or lists of related pages
+      if (block.length() > 0 && !(removeBoilerplate && linkChars * 2 > block.length())) {
+        section.append(block).append('\n');
+      }
+      clearBlock();
+    }
+
+    private void clearBlock() {
+      block.setLength(0);
+      linkChars = 0;
+      pendingSpace = false;
+    }
+
+    private void finishSection() {
+      if (section.length() == 0) {
+        return;
+      }
+      section.setLength(section.length() - 1);
+      documents.add(
+          new Document(
+              section.toString(),
+              metadata
+                  .with("Title", title.toString().strip())
+                  .with("heading", heading)
+                  .with("section", String.valueOf(documents.size() + 1))));
+      section.setLength(0);
+    }
+
+    /**
+     * Closes the elements left open and creates the documents.
+     *
+     * @return The documents of the page.
+     */
+    List<Document> finish() {
+      while (!open.isEmpty()) {
+        close(open.pop());
+      }
+      flushBlock();
+
+      if (splitByHeading) {
+        finishSection();
+        return documents;
+      }
+      if (section.length() > 0) {
+        section.setLength(section.length() - 1);
+      }
+      documents.add(
+          new Document(section.toString(), metadata.with("Title", title.toString().strip())));
+      return documents;
+    }
+  }
 }
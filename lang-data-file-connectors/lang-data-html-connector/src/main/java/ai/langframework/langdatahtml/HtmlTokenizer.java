@@ -0,0 +1,235 @@
+package ai.langframework.langdatahtml;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.jsoup.parser.Parser;
+
+/**
+ * Splits HTML into start tags, end tags and text in a single pass over a reader, without building a
+ * tree. Comments, declarations and the content of script and style elements are skipped, and
+ * character references are decoded.
+ */
+class HtmlTokenizer {
+
+  /** Receives the tokens in the order they appear */
+  interface Handler {
+    /**
+     * Called for a start tag.
+     *
+     * @param name The lower-case tag name.
+     * @param attributes The attributes, with lower-case names.
+     * @param selfClosing true if the tag ends with "/>".
+     */
+    void startTag(String name, Map<String, String> attributes, boolean selfClosing);
+
+    /**
+     * Called for an end tag.
+     *
+     * @param name The lower-case tag name.
+     */
+    void endTag(String name);
+
+    /**
+     * Called for the text between two tags.
+     *
+     * @param text The decoded text.
+     */
+    void text(String text);
+  }
+
+  // Elements whose content is not markup
+  private static final Set<String> RAW_TEXT = Set.of("script", "style");
+
+  private static final Pattern ATTRIBUTE =
+      Pattern.compile("([^\\s=/]+)(?:\\s*=\\s*(?:\"([^\"]*)\"|'([^']*)'|([^\\s\"'>]+)))?");
+
+  private final Reader reader;
+  private final Handler handler;
+  private final char[] buffer = new char[64 * 1024];
+  private int position;
+  private int limit;
+  private final StringBuilder text = new StringBuilder();
+  private final StringBuilder tag = new StringBuilder();
+
+  private HtmlTokenizer(Reader reader, Handler handler) {
+    this.reader = reader;
+    this.handler = handler;
+  }
+
+  /**
+   * Reads the HTML to its end, passing its tokens to the handler. The reader is not closed.
+   *
+   * @param reader The reader over the HTML.
+   * @param handler The handler of the tokens.
+   * @throws IOException if the reader fails.
+   */
+  static void tokenize(Reader reader, Handler handler) throws IOException {
+    new HtmlTokenizer(reader, handler).run();
+  }
+
+  private void run() throws IOException {
+    int c;
+    while ((c = read()) != -1) {
+      if (c != '<') {
+        text.append((char) c);
+        continue;
+      }
+
+      int next = read();
+      if (next == '!' || next == '?') {
+        flushText();
+        skipMarkupDeclaration(next);
+      } else if (next == '/' || isLetter(next)) {
+        flushText();
+        readTag(next);
+      } else {
+        // A lone '<' is text
+        text.append('<');
+        if (next != -1) {
+          position--;
+        }
+      }
+    }
+    flushText();
+  }
+
+  private void flushText() {
+    if (text.length() == 0) {
+      return;
+    }
+    String value = text.toString();
+    text.setLength(0);
+    handler.text(value.indexOf('&') >= 0 ? Parser.unescapeEntities(value, false) : value);
+  }
+
+  private void skipMarkupDeclaration(int first) throws IOException {
+    int c = read();
+    if (first == '!' && c == '-' && (c = read()) == '-') {
+      // A comment ends at the first "-->"
+      int dashes = 0;
+      while ((c = read()) != -1) {
+        if (c == '>' && dashes >= 2) {
+          return;
+        }
+        dashes = c == '-' ? dashes + 1 : 0;
+      }
+      return;
+    }
+    if (c != '>' && c != -1) {
+      skipPast('>');
+    }
+  }
+
+  private void readTag(int first) throws IOException {
+    tag.setLength(0);
+    tag.append((char) first);
+    char quote = 0;
+    int c;
+    while ((c = read()) != -1) {
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        }
+      } else if (c == '"' || c == '\'') {
+        quote = (char) c;
+      } else if (c == '>') {
+        break;
+      }
+      tag.append((char) c);
+    }
+
+    if (tag.charAt(0) == '/') {
+      String name = tagName(1);
+      if (!name.isEmpty()) {
+        handler.endTag(name);
+      }
+      return;
+    }
+
+    String name = tagName(0);
+    boolean selfClosing = tag.charAt(tag.length() - 1) == '/';
+    Map<String, String> attributes = new HashMap<>();
+    Matcher matcher = ATTRIBUTE.matcher(tag);
+    matcher.region(name.length(), tag.length());
+    while (matcher.find()) {
+      String value = matcher.group(2);
+      if (value == null) {
+        value = matcher.group(3) != null ? matcher.group(3) : matcher.group(4);
+      }
+      if (value != null && value.indexOf('&') >= 0) {
+        value = Parser.unescapeEntities(value, true);
+      }
+      attributes.putIfAbsent(matcher.group(1).toLowerCase(Locale.ROOT), value != null ? value : "");
+    }
+    handler.startTag(name, attributes, selfClosing);
+
+    if (RAW_TEXT.contains(name) && !selfClosing) {
+      skipRawText(name);
+      handler.endTag(name);
+    }
+  }
+
+  private String tagName(int start) {
+    int end = start;
+    while (end < tag.length()
+        && !Character.isWhitespace(tag.charAt(end))
+        && tag.charAt(end) != '/') {
+      end++;
+    }
+    return tag.substring(start, end).toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Skips the content of an element up to its end tag, which is consumed.
+   *
+   * @param name The name of the element.
+   * @throws IOException if the reader fails.
+   */
+  private void skipRawText(String name) throws IOException {
+    int c;
+    while ((c = read()) != -1) {
+      if (c != '<' || read() != '/') {
+        continue;
+      }
+      int matched = 0;
+      while (matched < name.length()
+          && (c = read()) != -1
+          && Character.toLowerCase(c) == name.charAt(matched)) {
+        matched++;
+      }
+      if (matched == name.length()) {
+        skipPast('>');
+        return;
+      }
+    }
+  }
+
+  private void skipPast(char end) throws IOException {
+    int c;
+    while ((c = read()) != -1 && c != end) {
+      // Skipped
+    }
+  }
+
+  private static boolean isLetter(int c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+  }
+
+  private int read() throws IOException {
+    if (position == limit) {
+      limit = reader.read(buffer, 0, buffer.length);
+      position = 0;
+      if (limit <= 0) {
+        limit = 0;
+        return -1;
+      }
+    }
+    return buffer[position++];
+  }
+}
@@ -1,10 +1,12 @@
 import static ai.langframework.langdatacore.PathFileConstants.HTML_FILE_URL;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import ai.langframework.langdatacore.Document;
 import ai.langframework.langdatahtml.HtmlConnector;
+import ai.langframework.langdatahtml.HtmlConnectorClient;
 import java.io.File;
 import java.io.InputStream;
 import java.net.MalformedURLException;
@@ -58,6 +60,114 @@ class HtmlConnectorTest {
     assertEquals(testFile.getAbsolutePath(), document.get(0).getMetadata().get("Source"));
   }
 
+  @Test
+  void testRemoveBoilerplate() throws Exception {
+    File testFile = copyResource("article.html");
+    List<Document> documents = new HtmlConnectorClient().readData(testFile);
+
+    assertEquals(1, documents.size());
+    assertEquals("Release Notes & Changes", documents.get(0).getMetadata().get("Title"));
+    assertEquals(
+        "Version 2.0\n"
+            + "This release rewrites the storage engine.\n"
+            + "Upgrading\n"
+            + "Stop the service before upgrading\n"
+            + "and back up the data directory.\n"
+            + "Known issues\n"
+            + "Large imports are slower than in 1.9 < 5%.",
+        documents.get(0).getText());
+  }
+
+  @Test
+  void testKeepBoilerplate() throws Exception {
+    File testFile = copyResource("article.html");
+    HtmlConnectorClient client = new HtmlConnectorClient();
+    client.setRemoveBoilerplate(false);
+    String text = client.readData(testFile).get(0).getText();
+
+    assertTrue(text.startsWith("Home Blog\nProducts\nPricing\nVersion 2.0\n"));
+    assertTrue(text.contains("See the full changelog"));
+    assertTrue(text.endsWith("We use cookies.\nCopyright 2024"));
+    assertFalse(text.contains("Not text"));
+    assertFalse(text.contains("Hidden comment"));
+  }
+
+  @Test
+  void testSplitByHeading() throws Exception {
+    File testFile = copyResource("article.html");
+    HtmlConnectorClient client = new HtmlConnectorClient();
+    client.setSplitByHeading(true);
+    List<Document> sections = client.readData(testFile);
+
+    assertEquals(3, sections.size());
+    assertEquals("Version 2.0", sections.get(0).getMetadata().get("heading"));
+    assertEquals(
+        "Version 2.0\nThis release rewrites the storage engine.", sections.get(0).getText());
+    assertEquals("Upgrading", sections.get(1).getMetadata().get("heading"));
+    assertEquals("2", sections.get(1).getMetadata().get("section"));
+    assertEquals("Known issues", sections.get(2).getMetadata().get("heading"));
+    assertEquals("Release Notes & Changes", sections.get(2).getMetadata().get("Title"));
+    assertEquals(testFile.getAbsolutePath(), sections.get(2).getMetadata().get("Source"));
+  }
+
+  @Test
+  void testBoilerplateNamesOnPageElements() throws Exception {
+    // Layout classes on the page wrappers leave the article in place
+    assertEquals(
+        "Title\nReal article text here.",
+        readHtml(
+            "<html><body class=\"post-template has-sidebar\"><main><article><h1>Title</h1>"
+                + "<p>Real article text here.</p></article></main></body></html>"));
+    // A block holding paragraphs is content whatever its class
+    assertEquals(
+        "First paragraph.\nSecond paragraph.",
+        readHtml(
+            "<body><div class=\"article-body has-comments\"><p>First paragraph.</p>"
+                + "<p>Second paragraph.</p></div></body>"));
+    // Inside the article, names are not taken for page furniture
+    assertEquals(
+        "Body text.\nShare this with your team",
+        readHtml(
+            "<body><article><p>Body text.</p>"
+                + "<div class=\"share-box\">Share this with your team</div></article></body>"));
+  }
+
+  @Test
+  void testBoilerplateNamesOnLeafBlocks() throws Exception {
+    assertEquals(
+        "Body text.",
+        readHtml(
+            "<body><div class=\"sidebar\"><span>Popular posts</span></div>"
+                + "<div><p>Body text.</p></div>"
+                + "<div role=\"contentinfo\">Contact us</div>"
+                + "<div id=\"cookie-banner\">We use cookies.</div></body>"));
+    // An article resets the skip inherited from a block left out of the text
+    assertEquals(
+        "Kept text.",
+        readHtml(
+            "<body><aside><span>Left out</span><article><p>Kept text.</p></article></aside>"
+                + "<script>Not text</script></body>"));
+  }
+
+  private String readHtml(String html) throws Exception {
+    Path tempFilePath = Files.createTempFile("test-", ".html");
+    Files.writeString(tempFilePath, html);
+    File testFile = tempFilePath.toFile();
+    testFile.deleteOnExit();
+    return new HtmlConnectorClient().readData(testFile).get(0).getText();
+  }
+
+  private File copyResource(String name) throws Exception {
+    try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(name)) {
+      assertNotNull(inputStream, "Input stream must not be null");
+      Path tempFilePath = Files.createTempFile("test-", ".html");
+      Files.copy(inputStream, tempFilePath, StandardCopyOption.REPLACE_EXISTING);
+      File testFile = tempFilePath.toFile();
+      testFile.deleteOnExit();
+      return testFile;
+    }
+  }
+
   @Test
   void testLoadDataUrl() throws MalformedURLException {
     URL url = new URL(HTML_FILE_URL);
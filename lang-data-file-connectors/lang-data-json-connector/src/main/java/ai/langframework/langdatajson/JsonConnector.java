@@ -1,35 +1,32 @@
 package ai.langframework.langdatajson;
 
-import ai.langframework.langdatacore.Connector;
 import ai.langframework.langdatacore.Document;
-import ai.langframework.langdatacore.exceptions.LoaderException;
+import ai.langframework.langdatacore.StreamingConnector;
 import java.io.File;
-import java.util.List;
+import java.util.stream.Stream;
 
 /** JSON Connector */
-public class JsonConnector implements Connector {
+public class JsonConnector implements StreamingConnector {
 
   /**
-   * Loads data from a JSON file using a JsonConnectorClient.
+   * Streams data from a JSON file using a JsonConnectorClient.
    *
-   * @param file the JSON file to load data from
-   * @return a list of documents containing the data from the JSON file
-   * @throws LoaderException if there is an issue loading the data
+   * @param file the file to stream data from
+   * @return a stream of documents containing the data from the file
    */
   @Override
-  public List<Document> loadData(File file) throws LoaderException {
-    return new JsonConnectorClient().readData(file);
+  public Stream<Document> streamData(File file) {
+    return new JsonConnectorClient().streamData(file);
   }
 
   /**
-   * Loads data from a JSON file located at the specified link using a JsonConnectorClient.
+   * Streams data from a JSON file located at the specified link using a JsonConnectorClient.
    *
-   * @param link the link to the JSON file
-   * @return a list of documents containing the data from the JSON file
-   * @throws LoaderException if there is an issue loading the data
+   * @param link the link to the file
+   * @return a stream of documents containing the data from the file
    */
   @Override
-  public List<Document> loadData(String link) throws LoaderException {
-    return new JsonConnectorClient().readData(link);
+  public Stream<Document> streamData(String link) {
+    return new JsonConnectorClient().streamData(link);
   }
 }
@@ -1,92 +1,376 @@
 package ai.langframework.langdatajson;
 
-import ai.langframework.langdatacore.ConnectorClient;
 import ai.langframework.langdatacore.Document;
-import ai.langframework.langdatacore.Logger;
-import ai.langframework.langdatacore.exceptions.LoaderException;
-import java.io.BufferedReader;
+import ai.langframework.langdatacore.DocumentMetadata;
+import ai.langframework.langdatacore.StreamingConnectorClient;
+import ai.langframework.langdatacore.io.HttpFetcher;
+import ai.langframework.langdatacore.io.MappedInputStream;
+import ai.langframework.langdatacore.io.TextReader;
+import ai.langframework.langdatacore.splitters.TextSplitter;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.filter.FilteringParserDelegate;
+import com.fasterxml.jackson.core.filter.JsonPointerBasedFilter;
+import com.fasterxml.jackson.core.filter.TokenFilter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.File;
-import java.io.FileReader;
-import java.io.InputStreamReader;
+import java.io.IOException;
 import java.net.URL;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /** JSON Connector Client */
-public class JsonConnectorClient implements ConnectorClient {
+public class JsonConnectorClient implements StreamingConnectorClient {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private TextSplitter textSplitter;
+  private JsonPointer recordsPointer;
+  private boolean jsonLines;
+  private JsonPointer textPointer;
+  private final Map<String, JsonPointer> metadataPointers = new LinkedHashMap<>();
+  private int parallelism = 1;
+
+  /**
+   * Sets the splitter applied while reading, so that a file is returned as one document per chunk
+   * instead of a single document. Chunks are views of the decoded text and are not copied.
+   *
+   * @param textSplitter The splitter to apply, or null to return whole files.
+   */
+  public void setTextSplitter(TextSplitter textSplitter) {
+    this.textSplitter = textSplitter;
+  }
+
   /**
-   * Reads data from a JSON file and creates documents.
+   * Sets the array whose elements are read as records, one document each, while the file is being
+   * parsed. The "Row" metadata of a document is the number of its record, starting at 1.
+   *
+   * @param recordsPointer The JSON pointer to the array, such as "/items" or "" for a top-level
+   *     array, or null to read a JSON file as a single document.
+   */
+  public void setRecordsPointer(String recordsPointer) {
+    this.recordsPointer = recordsPointer != null ? JsonPointer.compile(recordsPointer) : null;
+  }
+
+  /**
+   * Sets whether the content is JSON Lines, each line being read as a record. Files and links
+   * ending in ".jsonl" or ".ndjson" are always read as JSON Lines.
+   *
+   * @param jsonLines true to read every source as JSON Lines.
+   */
+  public void setJsonLines(boolean jsonLines) {
+    this.jsonLines = jsonLines;
+  }
+
+  /**
+   * Sets the field of a record used as the text of its document. Strings are used as they are,
+   * objects and arrays as JSON.
+   *
+   * @param textPointer The JSON pointer to the field within a record, or null to use the whole
+   *     record as JSON.
+   */
+  public void setTextPointer(String textPointer) {
+    this.textPointer = textPointer != null ? JsonPointer.compile(textPointer) : null;
+  }
+
+  /**
+   * Adds a field of a record to the metadata of its document. Records without the field do not get
+   * the metadata entry.
+   *
+   * @param key The metadata key.
+   * @param pointer The JSON pointer to the field within a record.
+   */
+  public void addMetadataPointer(String key, String pointer) {
+    metadataPointers.put(key, JsonPointer.compile(pointer));
+  }
+
+  /**
+   * Sets the number of segments a local JSON Lines file is split into and parsed in parallel.
+   * Segments start on line boundaries, and documents are returned in the order of the file.
+   *
+   * @param parallelism The number of segments, 1 by default to parse files sequentially.
+   */
+  public void setParallelism(int parallelism) {
+    if (parallelism <= 0) {
+      throw new IllegalArgumentException("Parallelism must be positive");
+    }
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Reads data from a JSON file and creates documents. The file is memory-mapped and decoded as
+   * UTF-8 with its line breaks. When a text splitter is set, the file is split into one document
+   * per chunk, each a view of the decoded text.
+   *
+   * <p>When a records pointer is set, or for JSON Lines, the file is instead streamed through a
+   * pull parser, one document per record. With a parallelism above 1, JSON Lines files are split
+   * into segments parsed in parallel. The stream must be closed to release the file.
    *
    * @param file The file to read data from.
-   * @return The list of created documents.
-   * @throws LoaderException If an error occurs during loading.
+   * @return A stream containing the created documents.
    */
   @Override
-  public List<Document> readData(File file) throws LoaderException {
-    List<Document> documents = new ArrayList<>();
-    String text = "";
-    try {
-      FileReader fileReader = new FileReader(file);
-      BufferedReader bufferedReader = new BufferedReader(fileReader);
-      String line;
+  public Stream<Document> streamData(File file) {
+    DocumentMetadata metadata =
+        DocumentMetadata.EMPTY
+            .with("FileName", file.getName())
+            .with("Source", file.getAbsolutePath())
+            .with("FileSize", String.valueOf(file.length()));
 
-      while ((line = bufferedReader.readLine()) != null) {
-        // process the line
-        text += line;
+    boolean lines = isJsonLines(file.getName());
+    if (lines || recordsPointer != null) {
+      try {
+        if (lines && parallelism > 1) {
+          return split(streamSegments(file, metadata));
+        }
+        return split(streamRecords(MAPPER.createParser(file), lines, 0, metadata));
+      } catch (Exception e) {
+        e.printStackTrace();
       }
+      return Stream.empty();
+    }
 
-      fileReader.close();
-      bufferedReader.close();
-
+    CharSequence text = "";
+    try {
+      text = TextReader.readFile(file);
     } catch (Exception e) {
       e.printStackTrace();
     }
 
-    HashMap<String, String> metadata = new HashMap<>();
-    metadata.put("FileName", file.getName());
-    metadata.put("Source", file.getAbsolutePath());
-    metadata.put("FileSize", String.valueOf(file.length()));
-
-    documents.add(new Document(text, metadata));
-    return documents;
+    if (textSplitter != null) {
+      return textSplitter.createDocuments(text, metadata).stream();
+    }
+    return Stream.of(new Document(text, metadata));
   }
 
   /**
-   * Reads data from a JSON link and creates documents.
+   * Reads data from a JSON link and creates documents. When a records pointer is set, or for JSON
+   * Lines, the response is streamed through a pull parser, one document per record, and the stream
+   * must be closed to release the connection.
    *
    * @param link The link to read data from.
-   * @return The list of created documents.
-   * @throws LoaderException If an error occurs during loading.
+   * @return A stream containing the created documents.
    */
   @Override
-  public List<Document> readData(String link) throws LoaderException {
-    List<Document> documents = new ArrayList<>();
-
+  public Stream<Document> streamData(String link) {
     String text = "";
     URL url = null;
     try {
       url = new URL(link);
-      BufferedReader in = new BufferedReader(new InputStreamReader(url.openStream()));
-
-      String line;
-
-      while ((line = in.readLine()) != null) {
-        text += line;
-        Logger.info(line);
+      boolean lines = isJsonLines(url.getPath());
+      if (lines || recordsPointer != null) {
+        return split(
+            streamRecords(
+                MAPPER.createParser(HttpFetcher.getDefault().open(link)),
+                lines,
+                0,
+                linkMetadata(url, link)));
       }
-      in.close();
+      text = TextReader.readStream(HttpFetcher.getDefault().open(link));
     } catch (Exception e) {
       e.printStackTrace();
     }
 
-    HashMap<String, String> metadata = new HashMap<>();
-    metadata.put("Source", link);
-    metadata.put("FileName", url.getFile());
-    metadata.put("FileSize", String.valueOf(url.getFile().length()));
+    DocumentMetadata metadata = linkMetadata(url, link);
 
-    documents.add(new Document(text, metadata));
-    return documents;
+    if (textSplitter != null) {
+      return textSplitter.createDocuments(text, metadata).stream();
+    }
+    return Stream.of(new Document(text, metadata));
+  }
+
+  private static DocumentMetadata linkMetadata(URL url, String link) {
+    return DocumentMetadata.EMPTY
+        .with("Source", link)
+        .with("FileName", url.getFile())
+        .with("FileSize", String.valueOf(url.getFile().length()));
+  }
+
+  private boolean isJsonLines(String name) {
+    String lowerCase = name.toLowerCase();
+    return jsonLines || lowerCase.endsWith(".jsonl") || lowerCase.endsWith(".ndjson");
+  }
+
+  private Stream<Document> split(Stream<Document> records) {
+    if (textSplitter == null) {
+      return records;
+    }
+    return records.flatMap(record -> textSplitter.createDocuments(record).stream());
+  }
+
+  /**
+   * Splits a JSON Lines file into segments starting on line boundaries and parses them in parallel.
+   *
+   * @param file The JSON Lines file.
+   * @param sourceMetadata The metadata shared by every record of the source.
+   * @return A parallel stream of documents, in the order of the file.
+   * @throws IOException if the file cannot be read.
+   */
+  private Stream<Document> streamSegments(File file, DocumentMetadata sourceMetadata)
+      throws IOException {
+    FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    long[][] segments;
+    try {
+      segments = findSegments(channel, parallelism);
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+    long[] starts = segments[0];
+    long[] firstRows = segments[1];
+
+    return IntStream.range(0, starts.length - 1)
+        .parallel()
+        .boxed()
+        .flatMap(
+            segment -> {
+              try {
+                JsonParser parser =
+                    MAPPER.createParser(
+                        new MappedInputStream(channel, starts[segment], starts[segment + 1]));
+                return streamRecords(parser, true, firstRows[segment], sourceMetadata);
+              } catch (IOException e) {
+                e.printStackTrace();
+              }
+              return Stream.empty();
+            })
+        .onClose(
+            () -> {
+              try {
+                channel.close();
+              } catch (IOException e) {
+                e.printStackTrace();
+              }
+            });
+  }
+
+  /**
+   * Finds where the segments of a JSON Lines file start. JSON strings cannot hold a raw line break,
+   * so every line break ends a record. The file is scanned once, counting the non-blank lines so
+   * that records keep the numbers a sequential parse gives them.
+   *
+   * @param channel The channel over the file.
+   * @param count The number of segments wanted.
+   * @return The start offsets of the segments followed by the file size, and the number of records
+   *     before each segment.
+   * @throws IOException if the file cannot be mapped.
+   */
+  private static long[][] findSegments(FileChannel channel, int count) throws IOException {
+    long size = channel.size();
+    long[] starts = new long[count + 1];
+    long[] firstRows = new long[count];
+    int found = 1;
+    long target = size / count;
+
+    boolean lineHasContent = false;
+    long records = 0;
+
+    for (long position = 0; position < size && found < count; ) {
+      MappedByteBuffer buffer =
+          channel.map(
+              FileChannel.MapMode.READ_ONLY,
+              position,
+              Math.min(MappedInputStream.MAX_MAPPING, size - position));
+      for (int i = 0; i < buffer.limit() && found < count; i++) {
+        byte b = buffer.get(i);
+        if (b == '\n') {
+          if (lineHasContent) {
+            records++;
+          }
+          lineHasContent = false;
+          long next = position + i + 1;
+          if (next >= target && next < size) {
+            starts[found] = next;
+            firstRows[found] = records;
+            found++;
+            target = Math.max(next, size * found / count);
+          }
+        } else if (b != ' ' && b != '\t' && b != '\r') {
+          lineHasContent = true;
+        }
+      }
+      position += buffer.limit();
+    }
+
+    // Too few lines for the segments asked for: keep the segments found
+    long[] segmentStarts = new long[found + 1];
+    System.arraycopy(starts, 0, segmentStarts, 0, found);
+    segmentStarts[found] = size;
+    long[] segmentRows = new long[found];
+    System.arraycopy(firstRows, 0, segmentRows, 0, found);
+    return new long[][] {segmentStarts, segmentRows};
+  }
+
+  /**
+   * Lazily maps the records read by the parser to documents. Closing the returned stream closes the
+   * parser and its input.
+   *
+   * @param parser The parser over the JSON content.
+   * @param lines true if every top-level value is a record, false to read the records at the
+   *     records pointer.
+   * @param firstRow The number of records before the content of the parser.
+   * @param sourceMetadata The metadata shared by every record of the source.
+   * @return A stream of documents, one per record.
+   * @throws IOException if the content cannot be parsed.
+   */
+  private Stream<Document> streamRecords(
+      JsonParser parser, boolean lines, long firstRow, DocumentMetadata sourceMetadata)
+      throws IOException {
+    if (!lines && !recordsPointer.matches()) {
+      // Only the tokens of the value at the pointer are returned, the rest is skipped
+      parser =
+          new FilteringParserDelegate(
+              parser,
+              new JsonPointerBasedFilter(recordsPointer),
+              TokenFilter.Inclusion.ONLY_INCLUDE_ALL,
+              false);
+    }
+
+    JsonParser recordParser = parser;
+    Iterator<Document> documents;
+    try {
+      documents = new RecordIterator(recordParser, !lines, firstRow, sourceMetadata);
+    } catch (IOException e) {
+      recordParser.close();
+      throw e;
+    }
+    return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(
+                documents, Spliterator.ORDERED | Spliterator.NONNULL),
+            false)
+        .onClose(
+            () -> {
+              try {
+                recordParser.close();
+              } catch (IOException e) {
+                e.printStackTrace();
+              }
+            });
+  }
+
+  /**
+   * Gets the text of a field for a document.
+   *
+   * @param node The field.
+   * @return The text of a scalar, the JSON of an object or array, or null for a missing field.
+   */
+  private static String valueText(JsonNode node) {
+    if (node == null || node.isMissingNode() || node.isNull()) {
+      return null;
+    }
+    return node.isContainerNode() ? node.toString() : node.asText();
   }
 
   /**
@@ -98,4 +382,66 @@ public class JsonConnectorClient implements ConnectorClient {
   public Object getClient() {
     return null;
   }
+
+  /**
+   * Reads one record at a time from the parser, each into a small tree from which the text and
+   * metadata fields are taken. Only the current record is held in memory.
+   */
+  private class RecordIterator implements Iterator<Document> {
+    private final JsonParser parser;
+    private final DocumentMetadata sourceMetadata;
+    private boolean inArray;
+    private long row;
+    // The first token of the next record, or null at the end
+    private JsonToken next;
+
+    RecordIterator(
+        JsonParser parser, boolean arrays, long firstRow, DocumentMetadata sourceMetadata)
+        throws IOException {
+      this.parser = parser;
+      this.row = firstRow;
+      this.sourceMetadata = sourceMetadata;
+      next = parser.nextToken();
+      if (arrays && next == JsonToken.START_ARRAY) {
+        // The records are the elements, otherwise the value itself is the only record
+        inArray = true;
+        advance();
+      }
+    }
+
+    private void advance() throws IOException {
+      next = parser.nextToken();
+      if (inArray && next == JsonToken.END_ARRAY) {
+        next = null;
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public Document next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+
+      JsonNode record;
+      try {
+        record = MAPPER.readTree(parser);
+        advance();
+      } catch (IOException e) {
+        throw new IllegalStateException("Invalid JSON after record " + row, e);
+      }
+      row++;
+
+      String text = valueText(textPointer != null ? record.at(textPointer) : record);
+      DocumentMetadata metadata = sourceMetadata.with("Row", String.valueOf(row));
+      for (Map.Entry<String, JsonPointer> entry : metadataPointers.entrySet()) {
+        metadata = metadata.with(entry.getKey(), valueText(record.at(entry.getValue())));
+      }
+      return new Document(text, metadata);
+    }
+  }
 }
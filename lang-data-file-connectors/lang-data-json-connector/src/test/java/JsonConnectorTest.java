@@ -1,16 +1,19 @@
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import ai.langframework.langdatacore.Document;
 import ai.langframework.langdatacore.PathFileConstants;
 import ai.langframework.langdatajson.JsonConnector;
+import ai.langframework.langdatajson.JsonConnectorClient;
 import java.io.File;
 import java.io.InputStream;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.List;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
@@ -53,6 +56,74 @@ class JsonConnectorTest {
     assertEquals(String.valueOf(testFile.length()), document.get(0).getMetadata().get("FileSize"));
   }
 
+  @Test
+  void testLoadRecords() throws Exception {
+    File testFile = copyResource("records.json", ".json");
+    JsonConnectorClient client = new JsonConnectorClient();
+    client.setRecordsPointer("/items");
+    client.setTextPointer("/message");
+    client.addMetadataPointer("level", "/level");
+    client.addMetadataPointer("context", "/context");
+    List<Document> records = client.readData(testFile);
+
+    assertEquals(3, records.size());
+    assertEquals("Service started", records.get(0).getText());
+    assertEquals("1", records.get(0).getMetadata().get("Row"));
+    assertEquals("INFO", records.get(0).getMetadata().get("level"));
+    assertNull(records.get(0).getMetadata().get("context"));
+    assertEquals("{\"disk\":\"/dev/sda1\"}", records.get(1).getMetadata().get("context"));
+    assertEquals("", records.get(2).getText());
+    assertEquals("3", records.get(2).getMetadata().get("Row"));
+    assertEquals(testFile.getName(), records.get(2).getMetadata().get("FileName"));
+  }
+
+  @Test
+  void testLoadJsonLines() throws Exception {
+    File testFile = copyResource("events.jsonl", ".jsonl");
+    List<Document> events = loader.loadData(testFile);
+
+    // The blank line is not a record
+    assertEquals(3, events.size());
+    assertEquals("{\"event\":\"login\",\"user\":\"ana\"}", events.get(0).getText());
+    assertEquals("2", events.get(1).getMetadata().get("Row"));
+    assertEquals("3", events.get(2).getMetadata().get("Row"));
+    assertTrue(events.get(2).getText().contains("logout"));
+  }
+
+  @Test
+  void testParallelJsonLines() throws Exception {
+    Path tempFilePath = Files.createTempFile("dataset-", ".jsonl");
+    tempFilePath.toFile().deleteOnExit();
+    List<String> lines = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      lines.add("{\"id\":" + i + ",\"message\":\"event " + i + "\"}");
+    }
+    Files.write(tempFilePath, lines);
+
+    JsonConnectorClient client = new JsonConnectorClient();
+    client.setTextPointer("/message");
+    List<Document> sequential = client.readData(tempFilePath.toFile());
+    client.setParallelism(4);
+    List<Document> parallel = client.readData(tempFilePath.toFile());
+
+    assertEquals(1000, parallel.size());
+    for (int i = 0; i < sequential.size(); i++) {
+      assertEquals("event " + i, parallel.get(i).getText());
+      assertEquals(sequential.get(i).getMetadata(), parallel.get(i).getMetadata());
+    }
+  }
+
+  private File copyResource(String name, String suffix) throws Exception {
+    try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(name)) {
+      assertNotNull(inputStream, "Input stream must not be null");
+      Path tempFilePath = Files.createTempFile("dataset-", suffix);
+      Files.copy(inputStream, tempFilePath, StandardCopyOption.REPLACE_EXISTING);
+      File testFile = tempFilePath.toFile();
+      testFile.deleteOnExit();
+      return testFile;
+    }
+  }
+
   @Test
   void testLoadData() throws Exception {
     URL url = new URL(PathFileConstants.JSON_FILE_URL);
@@ -1,32 +1,32 @@
 package ai.langframework.langdatapdf;
 
-import ai.langframework.langdatacore.Connector;
 import ai.langframework.langdatacore.Document;
+import ai.langframework.langdatacore.StreamingConnector;
 import java.io.File;
-import java.util.List;
+import java.util.stream.Stream;
 
 /** PDF Connector */
-public class PdfConnector implements Connector {
+public class PdfConnector implements StreamingConnector {
 
   /**
-   * Loads data from a PDF file using a PdfConnectorClient.
+   * Streams data from a PDF file using a PdfConnectorClient.
    *
-   * @param file the PDF file to load data from
-   * @return a list of documents containing the data from the PDF file
+   * @param file the file to stream data from
+   * @return a stream of documents containing the data from the file
    */
   @Override
-  public List<Document> loadData(File file) {
-    return new PdfConnectorClient().readData(file);
+  public Stream<Document> streamData(File file) {
+    return new PdfConnectorClient().streamData(file);
   }
 
   /**
-   * Loads data from a PDF file located at the specified link using a PdfConnectorClient.
+   * Streams data from a PDF file located at the specified link using a PdfConnectorClient.
    *
-   * @param link the link to the PDF file
-   * @return a list of documents containing the data from the PDF file
+   * @param link the link to the file
+   * @return a stream of documents containing the data from the file
    */
   @Override
-  public List<Document> loadData(String link) {
-    return new PdfConnectorClient().readData(link);
+  public Stream<Document> streamData(String link) {
+    return new PdfConnectorClient().streamData(link);
   }
 }
@@ -1,96 +1,247 @@
 package ai.langframework.langdatapdf;
 
-import ai.langframework.langdatacore.ConnectorClient;
 import ai.langframework.langdatacore.Document;
+import ai.langframework.langdatacore.DocumentMetadata;
+import ai.langframework.langdatacore.StreamingConnectorClient;
+import ai.langframework.langdatacore.io.HttpFetcher;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URL;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
 
 /** PDF Connector Client */
-public class PdfConnectorClient implements ConnectorClient {
+public class PdfConnectorClient implements StreamingConnectorClient {
+
+  // Rough ratio between the memory of a loaded document and the size of its file
+  private static final int LOADED_SIZE_FACTOR = 4;
+
+  private int pagesPerDocument = 0;
+  private int parallelism = 1;
+  private long maxMainMemoryBytes = -1;
+
   /**
-   * Reads data from a PDF file and creates documents.
+   * Sets the number of consecutive pages combined into each document. The "page" metadata of a
+   * document is the number of its first page, starting at 1.
    *
-   * @param file The file to read data from.
-   * @return The list of created documents.
+   * @param pagesPerDocument the number of pages per document, or 0 (the default) for a single
+   *     document holding the text of every page
    */
-  @Override
-  public List<Document> readData(File file) {
+  public void setPagesPerDocument(int pagesPerDocument) {
+    if (pagesPerDocument < 0) {
+      throw new IllegalArgumentException("Pages per document must not be negative");
+    }
+    this.pagesPerDocument = pagesPerDocument;
+  }
 
-    List<Document> documents = new ArrayList<>();
+  /**
+   * Sets the number of page ranges a local file is split into and extracted in parallel. A document
+   * cannot be shared between threads, so the first range is extracted from the document loaded to
+   * count the pages and every other range parses the whole file again into its own copy. The number
+   * of ranges is capped by the memory available for those copies, and documents are returned in the
+   * order of the pages.
+   *
+   * @param parallelism the number of page ranges, 1 by default to extract files sequentially
+   */
+  public void setParallelism(int parallelism) {
+    if (parallelism <= 0) {
+      throw new IllegalArgumentException("Parallelism must be positive");
+    }
+    this.parallelism = parallelism;
+  }
 
-    int numberOfPages = 0;
+  /**
+   * Bounds the memory used to load a document. The objects of the document beyond that size are
+   * kept in a scratch file in the temporary directory, which is deleted once the document is read.
+   *
+   * @param maxMainMemoryBytes the bytes kept in memory per loaded document, 0 to keep everything in
+   *     the scratch file, or -1 (the default) to keep everything in memory
+   */
+  public void setMaxMainMemoryBytes(long maxMainMemoryBytes) {
+    if (maxMainMemoryBytes < -1) {
+      throw new IllegalArgumentException("Max main memory bytes must be -1 or more");
+    }
+    this.maxMainMemoryBytes = maxMainMemoryBytes;
+  }
 
-    String text = "";
-    try {
-      // Load the PDF document
-      PDDocument document = PDDocument.load(file);
+  /**
+   * Reads data from a PDF file and creates documents. With a parallelism above 1, the pages are
+   * split into ranges extracted in parallel.
+   *
+   * @param file The file to read data from.
+   * @return A stream containing the created documents, one per group of pages.
+   */
+  @Override
+  public Stream<Document> streamData(File file) {
+    DocumentMetadata metadata =
+        DocumentMetadata.EMPTY
+            .with("FileName", file.getName())
+            .with("Source", file.getAbsolutePath())
+            .with("FileSize", String.valueOf(file.length()));
 
-      // Get the number of pages in the document
+    int numberOfPages = 0;
+    List<String> texts = new ArrayList<>();
+    try (PDDocument document = PDDocument.load(file, memoryUsageSetting())) {
       numberOfPages = document.getNumberOfPages();
-
-      PDFTextStripper pdfStripper = new PDFTextStripper();
-
-      text = pdfStripper.getText(document);
-
-      // Close the document when you're done
-      document.close();
-    } catch (IOException e) {
+      int[] bounds = splitPages(numberOfPages, maxRanges(file));
+      // The first range reuses the loaded document, the others load their own copy
+      texts =
+          IntStream.range(0, bounds.length - 1)
+              .parallel()
+              .mapToObj(
+                  range ->
+                      extractRange(
+                          range == 0 ? document : null, file, bounds[range], bounds[range + 1]))
+              .flatMap(List::stream)
+              .collect(Collectors.toList());
+    } catch (Exception e) {
       e.printStackTrace();
     }
 
-    HashMap<String, String> metadata = new HashMap<>();
-    metadata.put("FileName", file.getName());
-    metadata.put("Source", file.getAbsolutePath());
-    metadata.put("FileSize", String.valueOf(file.length()));
-    metadata.put("NumberOfPages", String.valueOf(numberOfPages));
-
-    documents.add(new Document(text, metadata));
-
-    return documents;
+    return toDocuments(texts, metadata.with("NumberOfPages", String.valueOf(numberOfPages)));
   }
 
   /**
    * Reads data from a PDF link and creates documents.
    *
    * @param link The link to read data from.
-   * @return The list of created documents.
+   * @return A stream containing the created documents, one per group of pages.
    */
   @Override
-  public List<Document> readData(String link) {
-
-    List<Document> documents = new ArrayList<>();
+  public Stream<Document> streamData(String link) {
 
-    String text = "";
+    List<String> texts = new ArrayList<>();
     URL url = null;
     int numberOfPages = 0;
     try {
       url = new URL(link);
-      InputStream inputStream = url.openStream();
-      PDDocument doc = PDDocument.load(inputStream);
-      numberOfPages = doc.getNumberOfPages();
-      PDFTextStripper pdfStripper = new PDFTextStripper();
-      text = pdfStripper.getText(doc);
-      doc.close();
+      try (InputStream inputStream = HttpFetcher.getDefault().open(link);
+          PDDocument doc = PDDocument.load(inputStream, memoryUsageSetting())) {
+        numberOfPages = doc.getNumberOfPages();
+        texts = extractWindows(doc, 0, numberOfPages);
+      }
     } catch (Exception e) {
       e.printStackTrace();
     }
 
-    HashMap<String, String> metadata = new HashMap<>();
-    metadata.put("FileName", url.getFile());
-    metadata.put("Source", link);
-    metadata.put("FileSize", String.valueOf(url.getFile().length()));
-    metadata.put("NumberOfPages", String.valueOf(numberOfPages));
+    DocumentMetadata metadata =
+        DocumentMetadata.EMPTY
+            .with("FileName", url.getFile())
+            .with("Source", link)
+            .with("FileSize", String.valueOf(url.getFile().length()))
+            .with("NumberOfPages", String.valueOf(numberOfPages));
 
-    documents.add(new Document(text, metadata));
+    return toDocuments(texts, metadata);
+  }
+
+  private MemoryUsageSetting memoryUsageSetting() {
+    if (maxMainMemoryBytes < 0) {
+      return MemoryUsageSetting.setupMainMemoryOnly();
+    }
+    if (maxMainMemoryBytes == 0) {
+      return MemoryUsageSetting.setupTempFileOnly();
+    }
+    return MemoryUsageSetting.setupMixed(maxMainMemoryBytes);
+  }
+
+  /**
+   * Estimates how many ranges fit in the memory left once a document is loaded: the loaded document
+   * and a copy per additional range.
+   *
+   * @param file the PDF file
+   * @return the largest number of ranges, at least 1
+   */
+  private int maxRanges(File file) {
+    Runtime runtime = Runtime.getRuntime();
+    long available = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+    long copySize = LOADED_SIZE_FACTOR * file.length();
+    if (maxMainMemoryBytes >= 0) {
+      // The rest of the copy is kept in its scratch file
+      copySize = Math.min(copySize, maxMainMemoryBytes);
+    }
+    return (int) Math.min(Integer.MAX_VALUE, 1 + Math.max(0, available) / Math.max(1, copySize));
+  }
+
+  /**
+   * Splits the pages into at most parallelism ranges of whole groups of pages.
+   *
+   * @param numberOfPages the number of pages of the document
+   * @param maxRanges the largest number of ranges the memory allows
+   * @return the page offsets where the ranges start, followed by the number of pages
+   */
+  private int[] splitPages(int numberOfPages, int maxRanges) {
+    int window = pagesPerDocument > 0 ? pagesPerDocument : 1;
+    int windows = (numberOfPages + window - 1) / window;
+    int ranges = Math.max(1, Math.min(Math.min(parallelism, maxRanges), windows));
+    int[] bounds = new int[ranges + 1];
+    for (int range = 0; range <= ranges; range++) {
+      bounds[range] = (int) Math.min(numberOfPages, (long) windows * range / ranges * window);
+    }
+    return bounds;
+  }
+
+  /**
+   * Extracts the texts of a range of pages, from the loaded document or from a copy of the file.
+   *
+   * @param loaded the document loaded by the calling thread, or null to load a copy of the file
+   * @param file the PDF file
+   * @param from the offset of the first page
+   * @param to the offset after the last page
+   * @return the texts of the groups of pages
+   */
+  private List<String> extractRange(PDDocument loaded, File file, int from, int to) {
+    try {
+      if (loaded != null) {
+        return extractWindows(loaded, from, to);
+      }
+      try (PDDocument document = PDDocument.load(file, memoryUsageSetting())) {
+        return extractWindows(document, from, to);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Extracts the text of the pages between two offsets, one text per group of pages, or a single
+   * text when pages are not grouped.
+   *
+   * @param document the loaded document
+   * @param from the offset of the first page
+   * @param to the offset after the last page
+   * @return the texts of the groups of pages
+   * @throws IOException if the text cannot be extracted
+   */
+  private List<String> extractWindows(PDDocument document, int from, int to) throws IOException {
+    List<String> texts = new ArrayList<>();
+    int window = pagesPerDocument > 0 ? pagesPerDocument : to - from;
+    PDFTextStripper pdfStripper = new PDFTextStripper();
+    for (int start = from; start < to; start += window) {
+      // The stripper numbers pages from 1 and includes its end page
+      pdfStripper.setStartPage(start + 1);
+      pdfStripper.setEndPage(Math.min(start + window, to));
+      texts.add(pdfStripper.getText(document));
+    }
+    return texts;
+  }
 
-    return documents;
+  private Stream<Document> toDocuments(List<String> texts, DocumentMetadata metadata) {
+    if (pagesPerDocument == 0) {
+      return Stream.of(new Document(String.join("", texts), metadata));
+    }
+    return IntStream.range(0, texts.size())
+        .mapToObj(
+            i ->
+                new Document(
+                    texts.get(i), metadata.with("page", String.valueOf(i * pagesPerDocument + 1))));
   }
 
   /**
@@ -1,13 +1,20 @@
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import ai.langframework.langdatacore.Document;
 import ai.langframework.langdatacore.PathFileConstants;
 import ai.langframework.langdatapdf.PdfConnector;
+import ai.langframework.langdatapdf.PdfConnectorClient;
 import java.io.File;
 import java.net.URL;
+import java.nio.file.Files;
 import java.util.List;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -44,6 +51,65 @@ class PdfConnectorTest {
     assertEquals(String.valueOf(testFile.length()), document.get(0).getMetadata().get("FileSize"));
   }
 
+  @Test
+  void testLoadDataPerPage() throws Exception {
+    File pdf = createPdf(7);
+    PdfConnectorClient client = new PdfConnectorClient();
+    client.setPagesPerDocument(2);
+    List<Document> pages = client.readData(pdf);
+
+    assertEquals(4, pages.size());
+    assertEquals("1", pages.get(0).getMetadata().get("page"));
+    assertEquals("7", pages.get(3).getMetadata().get("page"));
+    assertEquals("7", pages.get(3).getMetadata().get("NumberOfPages"));
+    assertTrue(pages.get(1).getText().contains("Page 3"));
+    assertTrue(pages.get(1).getText().contains("Page 4"));
+    assertFalse(pages.get(1).getText().contains("Page 5"));
+  }
+
+  @Test
+  void testParallelLoadData() throws Exception {
+    File pdf = createPdf(9);
+    PdfConnectorClient client = new PdfConnectorClient();
+    String sequential = client.readData(pdf).get(0).getText();
+    client.setPagesPerDocument(1);
+    List<Document> sequentialPages = client.readData(pdf);
+
+    client.setParallelism(4);
+    client.setMaxMainMemoryBytes(0);
+    List<Document> parallelPages = client.readData(pdf);
+    assertEquals(9, parallelPages.size());
+    for (int i = 0; i < parallelPages.size(); i++) {
+      assertEquals(sequentialPages.get(i).getText(), parallelPages.get(i).getText());
+      assertEquals(String.valueOf(i + 1), parallelPages.get(i).getMetadata().get("page"));
+    }
+
+    client.setPagesPerDocument(0);
+    List<Document> parallel = client.readData(pdf);
+    assertEquals(1, parallel.size());
+    assertEquals(sequential, parallel.get(0).getText());
+  }
+
+  private File createPdf(int numberOfPages) throws Exception {
+    File pdf = Files.createTempFile("dataset-", ".pdf").toFile();
+    pdf.deleteOnExit();
+    try (PDDocument document = new PDDocument()) {
+      for (int i = 1; i <= numberOfPages; i++) {
+        PDPage page = new PDPage();
+        document.addPage(page);
+        try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+          content.beginText();
+          content.setFont(PDType1Font.HELVETICA, 12);
+          content.newLineAtOffset(72, 700);
+          content.showText("Page " + i);
+          content.endText();
+        }
+      }
+      document.save(pdf);
+    }
+    return pdf;
+  }
+
   @Test
   void testLoadDataUrl() {
     document = loader.loadData(PDF_URL);
@@ -1,33 +1,31 @@
 package ai.langframework.langdatapptx;
 
-import ai.langframework.langdatacore.Connector;
 import ai.langframework.langdatacore.Document;
-import ai.langframework.langdatacore.exceptions.LoaderException;
+import ai.langframework.langdatacore.StreamingConnector;
 import java.io.File;
-import java.util.List;
+import java.util.stream.Stream;
 
 /** Microsoft PowerPoint Connector */
-public class PptxConnector implements Connector {
+public class PptxConnector implements StreamingConnector {
   /**
-   * Loads data from a PPTX file using a PptxConnectorClient.
+   * Streams data from a PowerPoint file using a PptxConnectorClient.
    *
-   * @param file the PPTX file to load data from
-   * @return a list of documents containing the data from the PPTX file
+   * @param file the file to stream data from
+   * @return a stream of documents containing the data from the file
    */
   @Override
-  public List<Document> loadData(File file) {
-    return new PptxConnectorClient().readData(file);
+  public Stream<Document> streamData(File file) {
+    return new PptxConnectorClient().streamData(file);
   }
 
   /**
-   * Loads data from a PPTX file located at the specified link using a PptxConnectorClient.
+   * Streams data from a PowerPoint file located at the specified link using a PptxConnectorClient.
    *
-   * @param link the link to the PPTX file
-   * @return a list of documents containing the data from the PPTX file
-   * @throws LoaderException if there is an issue loading the data
+   * @param link the link to the file
+   * @return a stream of documents containing the data from the file
    */
   @Override
-  public List<Document> loadData(String link) throws LoaderException {
-    return new PptxConnectorClient().readData(link);
+  public Stream<Document> streamData(String link) {
+    return new PptxConnectorClient().streamData(link);
   }
 }
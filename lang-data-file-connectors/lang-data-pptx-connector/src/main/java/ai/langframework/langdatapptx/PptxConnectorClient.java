@@ -1,119 +1,239 @@
 package ai.langframework.langdatapptx;
 
-import ai.langframework.langdatacore.ConnectorClient;
 import ai.langframework.langdatacore.Document;
+import ai.langframework.langdatacore.DocumentMetadata;
+import ai.langframework.langdatacore.StreamingConnectorClient;
+import ai.langframework.langdatacore.io.HttpFetcher;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
 import org.apache.poi.sl.extractor.SlideShowExtractor;
+import org.apache.poi.sl.usermodel.Placeholder;
 import org.apache.poi.xslf.usermodel.XMLSlideShow;
+import org.apache.poi.xslf.usermodel.XSLFNotes;
 import org.apache.poi.xslf.usermodel.XSLFShape;
 import org.apache.poi.xslf.usermodel.XSLFSlide;
 import org.apache.poi.xslf.usermodel.XSLFTextParagraph;
+import org.apache.poi.xslf.usermodel.XSLFTextShape;
 
 /** Microsoft PowerPoint Connector Client */
-public class PptxConnectorClient implements ConnectorClient {
+public class PptxConnectorClient implements StreamingConnectorClient {
+
+  private boolean documentPerSlide;
+  private int parallelism = 1;
+
+  /**
+   * Sets whether a document is created per slide. The "slide" metadata of a document is the number
+   * of its slide, starting at 1, and its "title" and "notes" metadata the title and the speaker
+   * notes of the slide, when it has them.
+   *
+   * @param documentPerSlide true for a document per slide, false (the default) for a single
+   *     document holding every slide.
+   */
+  public void setDocumentPerSlide(boolean documentPerSlide) {
+    this.documentPerSlide = documentPerSlide;
+  }
+
   /**
-   * Reads data from a PowerPoint file (.pptx) and creates documents.
+   * Sets the number of slide ranges whose text is extracted in parallel from a file. POI
+   * presentations are not thread-safe, so every range but the first opens the file again and parses
+   * its own copy of the presentation, which costs a parse and the memory of a presentation per
+   * range. Presentations read from links are extracted sequentially. Documents are returned in the
+   * order of the slides.
+   *
+   * @param parallelism The number of slide ranges, 1 by default to extract slides sequentially.
+   */
+  public void setParallelism(int parallelism) {
+    if (parallelism <= 0) {
+      throw new IllegalArgumentException("Parallelism must be positive");
+    }
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Reads data from a PowerPoint file (.pptx) and creates documents. The file is opened read-only
+   * in place rather than read into memory first.
    *
    * @param file The file to read data from.
-   * @return The list of created documents.
+   * @return A stream containing the created documents, one per slide when requested.
    */
   @Override
-  public List<Document> readData(File file) {
-    List<Document> documents = new ArrayList<>();
-
-    String text = "";
+  public Stream<Document> streamData(File file) {
+    DocumentMetadata metadata =
+        DocumentMetadata.EMPTY
+            .with("FileName", file.getName())
+            .with("Source", file.getAbsolutePath())
+            .with("FileSize", String.valueOf(file.length()));
 
-    // Read .pptx file
-    FileInputStream inputStream = null;
+    List<Document> documents;
     try {
-      inputStream = new FileInputStream(file);
+      OPCPackage slidePackage = OPCPackage.open(file, PackageAccess.READ);
+      try {
+        XMLSlideShow slideShow = new XMLSlideShow(slidePackage);
+        SlideTexts texts = new SlideTexts(slideShow.getSlides().size());
+        int ranges = Math.max(1, Math.min(parallelism, texts.size()));
 
-      text = extractTextFromPptx(inputStream);
+        IntStream.range(0, ranges)
+            .parallel()
+            .forEach(
+                range -> {
+                  int start = texts.size() * range / ranges;
+                  int end = texts.size() * (range + 1) / ranges;
+                  if (range == 0) {
+                    extractRange(slideShow, start, end, texts);
+                  } else {
+                    extractRange(file, start, end, texts);
+                  }
+                });
+        documents = createDocuments(texts, metadata);
+      } finally {
+        // Closing a package opened read-only would try to save it
+        slidePackage.revert();
+      }
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
 
-    HashMap<String, String> metadata = new HashMap<>();
-    metadata.put("FileName", file.getName());
-    metadata.put("Source", file.getAbsolutePath());
-    metadata.put("FileSize", String.valueOf(file.length()));
-
-    documents.add(new Document(text, metadata));
-    return documents;
+    return documents.stream();
   }
 
   /**
    * Reads data from a PowerPoint file (.pptx) located at the given link and creates documents.
    *
    * @param link The link to read data from.
-   * @return The list of created documents.
+   * @return A stream containing the created documents, one per slide when requested.
    */
   @Override
-  public List<Document> readData(String link) {
-    List<Document> documents = new ArrayList<>();
-    URL url = null;
-
-    String text = "";
+  public Stream<Document> streamData(String link) {
+    List<Document> documents;
 
     // Load the PowerPoint presentation
-    InputStream inputStream = null;
-
     try {
-      url = new URL(link);
-      inputStream = url.openStream();
-      text = extractTextFromPptx(inputStream);
-      inputStream.close();
+      URL url = new URL(link);
+
+      DocumentMetadata metadata =
+          DocumentMetadata.EMPTY
+              .with("Source", link)
+              .with("FileName", url.getFile())
+              .with("FileSize", String.valueOf(url.getFile().length()));
 
+      try (InputStream inputStream = HttpFetcher.getDefault().open(link);
+          XMLSlideShow slideShow = new XMLSlideShow(inputStream)) {
+        SlideTexts texts = new SlideTexts(slideShow.getSlides().size());
+        extractRange(slideShow, 0, texts.size(), texts);
+        documents = createDocuments(texts, metadata);
+      }
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
 
-    HashMap<String, String> metadata = new HashMap<>();
-    metadata.put("Source", link);
-    metadata.put("FileName", url.getFile());
-    metadata.put("FileSize", String.valueOf(url.getFile().length()));
-
-    documents.add(new Document(text, metadata));
-    return documents;
+    return documents.stream();
   }
 
   /**
-   * Extracts text from a PowerPoint file (.pptx) represented by the given input stream.
+   * Opens its own copy of a presentation and extracts the text of a range of its slides.
    *
-   * @param inputStream The input stream representing the PowerPoint file.
-   * @return The extracted text from the PowerPoint file.
+   * @param file The file of the presentation.
+   * @param start The index of the first slide of the range.
+   * @param end The index after the last slide of the range.
+   * @param texts Receives the texts of the slides.
    */
-  private String extractTextFromPptx(InputStream inputStream) {
-    String text = null;
-
-    XMLSlideShow xmlA = null;
+  private void extractRange(File file, int start, int end, SlideTexts texts) {
     try {
-      xmlA = new XMLSlideShow(inputStream);
+      OPCPackage slidePackage = OPCPackage.open(file, PackageAccess.READ);
+      try {
+        extractRange(new XMLSlideShow(slidePackage), start, end, texts);
+      } finally {
+        slidePackage.revert();
+      }
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
 
-      SlideShowExtractor<XSLFShape, XSLFTextParagraph> ex = new SlideShowExtractor<>(xmlA);
+  /**
+   * Extracts the text, title and speaker notes of a range of the slides of a presentation.
+   *
+   * @param slideShow The presentation, only read by the calling thread.
+   * @param start The index of the first slide of the range.
+   * @param end The index after the last slide of the range.
+   * @param texts Receives the texts of the slides.
+   */
+  private void extractRange(XMLSlideShow slideShow, int start, int end, SlideTexts texts) {
+    List<XSLFSlide> slides = slideShow.getSlides();
+    SlideShowExtractor<XSLFShape, XSLFTextParagraph> slideExtractor =
+        new SlideShowExtractor<>(slideShow);
+    for (int i = start; i < end; i++) {
+      XSLFSlide slide = slides.get(i);
+      texts.slides[i] = slideExtractor.getText(slide);
+      if (documentPerSlide) {
+        texts.titles[i] = slide.getTitle();
+        texts.notes[i] = notesText(slide);
+      }
+    }
+  }
 
-      // Iterate over each slide
-      int slideNumber = 0;
-      for (XSLFSlide slide : xmlA.getSlides()) {
-        slideNumber++;
-        String slideText = ex.getText(slide);
-        text += "Slide #" + slideNumber + ":\n" + slideText + "\n";
+  /**
+   * Creates the documents of the extracted slides.
+   *
+   * @param texts The texts of every slide.
+   * @param metadata The metadata of the source.
+   * @return The created documents.
+   */
+  private List<Document> createDocuments(SlideTexts texts, DocumentMetadata metadata) {
+    List<Document> documents = new ArrayList<>();
+    if (!documentPerSlide) {
+      StringBuilder text = new StringBuilder();
+      for (int i = 0; i < texts.size(); i++) {
+        text.append("Slide #").append(i + 1).append(":\n").append(texts.slides[i]).append('\n');
       }
-    } catch (Exception e) {
-      e.printStackTrace();
+      documents.add(new Document(text.toString(), metadata));
+      return documents;
+    }
+
+    for (int i = 0; i < texts.size(); i++) {
+      documents.add(
+          new Document(
+              texts.slides[i].stripTrailing(),
+              metadata
+                  .with("slide", String.valueOf(i + 1))
+                  .with("title", texts.titles[i])
+                  .with("notes", texts.notes[i])));
     }
+    return documents;
+  }
 
-    if (text != null) {
-      return text;
+  /**
+   * Gets the speaker notes of a slide, leaving out the date, slide number and other placeholders
+   * the notes inherit from the notes master.
+   *
+   * @param slide The slide.
+   * @return The text of the notes, or null if the slide has none.
+   */
+  private static String notesText(XSLFSlide slide) {
+    XSLFNotes notes = slide.getNotes();
+    if (notes == null) {
+      return null;
+    }
+    StringBuilder text = new StringBuilder();
+    for (XSLFShape shape : notes.getShapes()) {
+      if (shape instanceof XSLFTextShape) {
+        XSLFTextShape textShape = (XSLFTextShape) shape;
+        Placeholder placeholder = textShape.getTextType();
+        if (placeholder == null || placeholder == Placeholder.BODY) {
+          text.append(textShape.getText()).append('\n');
+        }
+      }
     }
-    return "null";
+    String notesText = text.toString().strip();
+    return notesText.isEmpty() ? null : notesText;
   }
 
   /**
@@ -125,4 +245,21 @@ public class PptxConnectorClient implements ConnectorClient {
   public Object getClient() {
     return this;
   }
+
+  /** The texts extracted from each slide, written by the range holding the slide */
+  private static class SlideTexts {
+    final String[] slides;
+    final String[] titles;
+    final String[] notes;
+
+    SlideTexts(int slideCount) {
+      slides = new String[slideCount];
+      titles = new String[slideCount];
+      notes = new String[slideCount];
+    }
+
+    int size() {
+      return slides.length;
+    }
+  }
 }
@@ -6,6 +6,7 @@ import ai.langframework.langdatacore.Document;
 import ai.langframework.langdatacore.PathFileConstants;
 import ai.langframework.langdatacore.exceptions.LoaderException;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
@@ -13,6 +14,13 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.util.List;
+import org.apache.poi.sl.usermodel.Placeholder;
+import org.apache.poi.xslf.usermodel.SlideLayout;
+import org.apache.poi.xslf.usermodel.XMLSlideShow;
+import org.apache.poi.xslf.usermodel.XSLFNotes;
+import org.apache.poi.xslf.usermodel.XSLFSlide;
+import org.apache.poi.xslf.usermodel.XSLFSlideLayout;
+import org.apache.poi.xslf.usermodel.XSLFTextShape;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
@@ -59,6 +67,71 @@ class PptxConnectorTest {
     assertEquals(String.valueOf(testFile.length()), document.get(0).getMetadata().get("FileSize"));
   }
 
+  @Test
+  void testDocumentPerSlide() throws Exception {
+    File testFile = createPptx(5);
+    PptxConnectorClient client = new PptxConnectorClient();
+    client.setDocumentPerSlide(true);
+    List<Document> slides = client.readData(testFile);
+
+    assertEquals(5, slides.size());
+    assertEquals("1", slides.get(0).getMetadata().get("slide"));
+    assertEquals("Title 1", slides.get(0).getMetadata().get("title"));
+    assertTrue(slides.get(0).getText().contains("Body of slide 1"));
+    assertEquals("Notes for slide 2", slides.get(1).getMetadata().get("notes"));
+    assertNull(slides.get(2).getMetadata().get("notes"));
+    assertEquals(testFile.getName(), slides.get(4).getMetadata().get("FileName"));
+  }
+
+  @Test
+  void testParallelLoadData() throws Exception {
+    File testFile = createPptx(12);
+    PptxConnectorClient client = new PptxConnectorClient();
+    String sequential = client.readData(testFile).get(0).getText();
+    assertTrue(sequential.startsWith("Slide #1:\n"));
+
+    client.setParallelism(4);
+    assertEquals(sequential, client.readData(testFile).get(0).getText());
+
+    client.setDocumentPerSlide(true);
+    List<Document> slides = client.readData(testFile);
+    assertEquals(12, slides.size());
+    for (int i = 0; i < slides.size(); i++) {
+      assertEquals(String.valueOf(i + 1), slides.get(i).getMetadata().get("slide"));
+      assertTrue(slides.get(i).getText().contains("Body of slide " + (i + 1)));
+      // Titles and notes come from the copy of the presentation opened by each range
+      assertEquals("Title " + (i + 1), slides.get(i).getMetadata().get("title"));
+      assertEquals(
+          i % 2 == 1 ? "Notes for slide " + (i + 1) : null,
+          slides.get(i).getMetadata().get("notes"));
+    }
+  }
+
+  private File createPptx(int numberOfSlides) throws Exception {
+    File testFile = Files.createTempFile("dataset-", ".pptx").toFile();
+    testFile.deleteOnExit();
+    try (XMLSlideShow slideShow = new XMLSlideShow();
+        FileOutputStream outputStream = new FileOutputStream(testFile)) {
+      XSLFSlideLayout layout =
+          slideShow.getSlideMasters().get(0).getLayout(SlideLayout.TITLE_AND_CONTENT);
+      for (int i = 1; i <= numberOfSlides; i++) {
+        XSLFSlide slide = slideShow.createSlide(layout);
+        slide.getPlaceholder(0).setText("Title " + i);
+        slide.getPlaceholder(1).setText("Body of slide " + i);
+        if (i % 2 == 0) {
+          XSLFNotes notes = slideShow.getNotesSlide(slide);
+          for (XSLFTextShape shape : notes.getPlaceholders()) {
+            if (shape.getTextType() == Placeholder.BODY) {
+              shape.setText("Notes for slide " + i);
+            }
+          }
+        }
+      }
+      slideShow.write(outputStream);
+    }
+    return testFile;
+  }
+
   @Test
   void testLoadData() throws IOException, LoaderException {
     url = new URL(PPTX_URL);
@@ -1,31 +1,31 @@
 package ai.langframework.langdatatext;
 
-import ai.langframework.langdatacore.Connector;
 import ai.langframework.langdatacore.Document;
+import ai.langframework.langdatacore.StreamingConnector;
 import java.io.File;
-import java.util.List;
+import java.util.stream.Stream;
 
 /** Text Connector */
-public class TextConnector implements Connector {
+public class TextConnector implements StreamingConnector {
   /**
-   * Loads data from a text file using a TextConnectorClient.
+   * Streams data from a text file using a TextConnectorClient.
    *
-   * @param file the text file to load data from
-   * @return a list of documents containing the data from the text file
+   * @param file the file to stream data from
+   * @return a stream of documents containing the data from the file
    */
   @Override
-  public List<Document> loadData(File file) {
-    return new TextConnectorClient().readData(file);
+  public Stream<Document> streamData(File file) {
+    return new TextConnectorClient().streamData(file);
   }
 
   /**
-   * Loads data from a text file located at the specified link using a TextConnectorClient.
+   * Streams data from a text file located at the specified link using a TextConnectorClient.
    *
-   * @param link the link to the text file
-   * @return a list of documents containing the data from the text file
+   * @param link the link to the file
+   * @return a stream of documents containing the data from the file
    */
   @Override
-  public List<Document> loadData(String link) {
-    return new TextConnectorClient().readData(link);
+  public Stream<Document> streamData(String link) {
+    return new TextConnectorClient().streamData(link);
   }
 }
@@ -1,91 +1,86 @@
 package ai.langframework.langdatatext;
 
-import ai.langframework.langdatacore.ConnectorClient;
 import ai.langframework.langdatacore.Document;
-import ai.langframework.langdatacore.Logger;
-import java.io.BufferedReader;
+import ai.langframework.langdatacore.DocumentMetadata;
+import ai.langframework.langdatacore.StreamingConnectorClient;
+import ai.langframework.langdatacore.io.HttpFetcher;
+import ai.langframework.langdatacore.io.TextReader;
+import ai.langframework.langdatacore.splitters.TextSplitter;
 import java.io.File;
-import java.io.FileReader;
-import java.io.InputStreamReader;
 import java.net.URL;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import java.util.stream.Stream;
 
 /** Text Connector Client */
-public class TextConnectorClient implements ConnectorClient {
+public class TextConnectorClient implements StreamingConnectorClient {
+
+  private TextSplitter textSplitter;
+
+  /**
+   * Sets the splitter applied while reading, so that a file is returned as one document per chunk
+   * instead of a single document. Chunks are views of the decoded text and are not copied.
+   *
+   * @param textSplitter The splitter to apply, or null to return whole files.
+   */
+  public void setTextSplitter(TextSplitter textSplitter) {
+    this.textSplitter = textSplitter;
+  }
+
   /**
-   * Reads data from a text file and creates documents.
+   * Reads data from a text file and creates documents. The file is memory-mapped and decoded as
+   * UTF-8 with its line breaks. When a text splitter is set, the file is split into one document
+   * per chunk, each a view of the decoded text.
    *
    * @param file The file to read data from.
-   * @return The list of created documents.
+   * @return A stream containing the created documents.
    */
   @Override
-  public List<Document> readData(File file) {
-    List<Document> documents = new ArrayList<>();
-
-    String text = "";
+  public Stream<Document> streamData(File file) {
+    DocumentMetadata metadata =
+        DocumentMetadata.EMPTY
+            .with("FileName", file.getName())
+            .with("Source", file.getAbsolutePath())
+            .with("FileSize", String.valueOf(file.length()));
+
+    CharSequence text = "";
     try {
-      FileReader fileReader = new FileReader(file);
-      BufferedReader bufferedReader = new BufferedReader(fileReader);
-      String line;
-
-      while ((line = bufferedReader.readLine()) != null) {
-        // process the line
-        text += line;
-      }
-
-      fileReader.close();
-      bufferedReader.close();
-
+      text = TextReader.readFile(file);
     } catch (Exception e) {
       e.printStackTrace();
     }
 
-    HashMap<String, String> metadata = new HashMap<>();
-    metadata.put("FileName", file.getName());
-    metadata.put("Source", file.getAbsolutePath());
-    metadata.put("FileSize", String.valueOf(file.length()));
-
-    documents.add(new Document(text, metadata));
-    return documents;
+    if (textSplitter != null) {
+      return textSplitter.createDocuments(text, metadata).stream();
+    }
+    return Stream.of(new Document(text, metadata));
   }
 
   /**
    * Reads data from a text file located at the given link and creates documents.
    *
    * @param link The link to read data from.
-   * @return The list of created documents.
+   * @return A stream containing the created documents.
    */
   @Override
-  public List<Document> readData(String link) {
-    List<Document> documents = new ArrayList<>();
-
+  public Stream<Document> streamData(String link) {
     String text = "";
     URL url = null;
     try {
       url = new URL(link);
-      BufferedReader in = new BufferedReader(new InputStreamReader(url.openStream()));
-
-      String line;
-
-      while ((line = in.readLine()) != null) {
-        text += line;
-        Logger.info(line);
-      }
-      in.close();
+      text = TextReader.readStream(HttpFetcher.getDefault().open(link));
     } catch (Exception e) {
       e.printStackTrace();
     }
 
-    HashMap<String, String> metadata = new HashMap<>();
-    metadata.put("Source", link);
-    metadata.put("FileName", url.getFile());
-    metadata.put("FileSize", String.valueOf(url.getFile().length()));
+    DocumentMetadata metadata =
+        DocumentMetadata.EMPTY
+            .with("Source", link)
+            .with("FileName", url.getFile())
+            .with("FileSize", String.valueOf(url.getFile().length()));
 
-    documents.add(new Document(text, metadata));
-
-    return documents;
+    if (textSplitter != null) {
+      return textSplitter.createDocuments(text, metadata).stream();
+    }
+    return Stream.of(new Document(text, metadata));
   }
 
   /**
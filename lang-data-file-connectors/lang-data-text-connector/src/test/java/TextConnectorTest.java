@@ -4,9 +4,13 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import ai.langframework.langdatacore.Document;
 import ai.langframework.langdatacore.PathFileConstants;
+import ai.langframework.langdatacore.splitters.RecursiveCharacterTextSplitter;
 import ai.langframework.langdatatext.TextConnector;
+import ai.langframework.langdatatext.TextConnectorClient;
 import java.io.File;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -96,4 +100,37 @@ class TextConnectorTest {
     assertEquals(
         String.valueOf(url.getFile().length()), document.get(0).getMetadata().get("FileSize"));
   }
+
+  @Test
+  void testLoadDataFileLink() {
+    document = loader.loadData(testFile.toURI().toString());
+
+    assertEquals(1, document.size());
+    assertTrue(
+        document.get(0).getText().contains("MySQL Database Connector"),
+        "Response should contain the expected content");
+  }
+
+  @Test
+  void testLoadDataFileKeepsLineBreaks() throws Exception {
+    document = loader.loadData(testFile);
+
+    assertEquals(
+        new String(Files.readAllBytes(testFile.toPath()), StandardCharsets.UTF_8),
+        document.get(0).getText());
+  }
+
+  @Test
+  void testLoadDataFileWithSplitter() {
+    TextConnectorClient client = new TextConnectorClient();
+    client.setTextSplitter(new RecursiveCharacterTextSplitter(100, 0));
+    document = client.readData(testFile);
+
+    assertTrue(document.size() > 1, "File should be split into several documents");
+    for (int i = 0; i < document.size(); i++) {
+      assertTrue(document.get(i).getText().length() <= 100, "Chunk should respect the chunk size");
+      assertEquals(String.valueOf(i), document.get(i).getMetadata().get("lookup_index"));
+      assertEquals(testFile.getName(), document.get(i).getMetadata().get("FileName"));
+    }
+  }
 }
@@ -2,6 +2,7 @@ package ai.langframework.langdatacohereai;
 
 import ai.langframework.langdatacore.ConnectorClient;
 import ai.langframework.langdatacore.Document;
+import ai.langframework.langdatacore.FloatVectors;
 import ai.langframework.langdatacore.exceptions.LoaderException;
 import com.cohere.api.Cohere;
 import com.cohere.api.core.ClientOptions;
@@ -140,29 +141,55 @@ public class CohereAIConnectorClient implements ConnectorClient {
    * @return Float array of the embeddings
    */
   public Float[] embedText(String text) {
-    EmbedResponse response = client.embed(EmbedRequest.builder().addTexts(text).build());
-
-    String floatArray = response.getEmbeddings().get(0).toString();
+    return FloatVectors.toBoxed(embedVectors(List.of(text), null).get(0));
+  }
 
-    return convertToFloatArray(floatArray);
+  /**
+   * Returns text embeddings for a batch of texts in a single request
+   *
+   * @param texts
+   * @return List of float arrays of the embeddings, in the order of the texts passed
+   */
+  public List<Float[]> embedTexts(List<String> texts) {
+    return embedTexts(texts, null);
   }
 
   /**
-   * Converts a string of float array into a float array
+   * Returns text embeddings for a batch of texts in a single request, using the model passed
    *
-   * @param floatArrayString
-   * @return float array
+   * @param texts
+   * @param model the embedding model, or null for the default model of the API
+   * @return List of float arrays of the embeddings, in the order of the texts passed
    */
-  private Float[] convertToFloatArray(String floatArrayString) {
+  public List<Float[]> embedTexts(List<String> texts, String model) {
+    List<Float[]> embeddings = new ArrayList<>(texts.size());
+    for (float[] vector : embedVectors(texts, model)) {
+      embeddings.add(FloatVectors.toBoxed(vector));
+    }
 
-    String[] values = floatArrayString.replaceAll("\\[|\\]", "").split(",");
+    return embeddings;
+  }
 
-    Float[] floatArray = new Float[values.length];
-    for (int i = 0; i < values.length; i++) {
-      floatArray[i] = Float.parseFloat(values[i]);
+  /**
+   * Returns text embeddings for a batch of texts in a single request as primitive vectors
+   *
+   * @param texts
+   * @param model the embedding model, or null for the default model of the API
+   * @return List of vectors, in the order of the texts passed
+   */
+  public List<float[]> embedVectors(List<String> texts, String model) {
+    EmbedRequest request =
+        model != null
+            ? EmbedRequest.builder().texts(texts).model(model).build()
+            : EmbedRequest.builder().texts(texts).build();
+    EmbedResponse response = client.embed(request);
+
+    List<float[]> vectors = new ArrayList<>(texts.size());
+    for (List<? extends Number> embedding : response.getEmbeddings()) {
+      vectors.add(FloatVectors.toArray(embedding));
     }
 
-    return floatArray;
+    return vectors;
   }
 
   /**
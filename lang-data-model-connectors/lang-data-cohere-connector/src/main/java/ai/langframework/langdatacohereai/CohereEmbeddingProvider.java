@@ -0,0 +1,64 @@
+package ai.langframework.langdatacohereai;
+
+import ai.langframework.langdatacore.embeddings.CoalescingEmbeddingProvider;
+import ai.langframework.langdatacore.exceptions.EmbeddingException;
+import java.time.Duration;
+import java.util.List;
+
+/** Embedding provider backed by the Cohere embed endpoint. */
+public class CohereEmbeddingProvider extends CoalescingEmbeddingProvider {
+
+  private final CohereAIConnectorClient client;
+  private final String model;
+
+  /**
+   * Creates a provider sending up to 96 texts per request, coalescing concurrent single texts for
+   * up to 10 milliseconds.
+   *
+   * @param client the initialized Cohere client
+   * @param model the embedding model to use, or null for the default model of the API, whose
+   *     vectors cannot be cached
+   */
+  public CohereEmbeddingProvider(CohereAIConnectorClient client, String model) {
+    this(client, model, 96, Duration.ofMillis(10), 4);
+  }
+
+  /**
+   * Creates a provider with the given coalescing limits.
+   *
+   * @param client the initialized Cohere client
+   * @param model the embedding model to use
+   * @param maxBatchSize the maximum number of texts sent in one request
+   * @param maxWait the maximum time a single text waits for others to share its request
+   * @param maxConcurrentBatches the maximum number of coalesced requests in flight
+   */
+  public CohereEmbeddingProvider(
+      CohereAIConnectorClient client,
+      String model,
+      int maxBatchSize,
+      Duration maxWait,
+      int maxConcurrentBatches) {
+    super(maxBatchSize, maxWait, maxConcurrentBatches);
+    this.client = client;
+    this.model = model;
+  }
+
+  @Override
+  protected List<float[]> embedBatch(List<String> texts) {
+    try {
+      return client.embedVectors(texts, model);
+    } catch (RuntimeException e) {
+      throw new EmbeddingException("Cohere embedding request failed", e);
+    }
+  }
+
+  /**
+   * Gets the embedding model sent with the requests.
+   *
+   * @return the model name, or null if the API uses its default model
+   */
+  @Override
+  public String getModel() {
+    return model;
+  }
+}
@@ -2,6 +2,7 @@ package ai.langframework.langdataopenai;
 
 import ai.langframework.langdatacore.ConnectorClient;
 import ai.langframework.langdatacore.Document;
+import ai.langframework.langdatacore.FloatVectors;
 import ai.langframework.langdatacore.exceptions.LoaderException;
 import com.theokanning.openai.completion.CompletionChoice;
 import com.theokanning.openai.completion.CompletionRequest;
@@ -12,6 +13,7 @@ import com.theokanning.openai.embedding.EmbeddingRequest;
 import com.theokanning.openai.service.OpenAiService;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -104,6 +106,29 @@ public class OpenAIConnectorClient implements ConnectorClient {
     return convertEmbeddings(client.createEmbeddings(completionRequest).getData());
   }
 
+  /**
+   * Generates embeddings for a list of texts using a specified model, as primitive vectors.
+   *
+   * @param texts the list of texts to generate embeddings for
+   * @param model the model to use for embedding generation
+   * @return a list of vectors, in the order of the input texts
+   */
+  public List<float[]> embeddingVectors(List<String> texts, String model) {
+    EmbeddingRequest embeddingRequest =
+        EmbeddingRequest.builder().model(model).input(texts).build();
+    List<Embedding> embeddings = client.createEmbeddings(embeddingRequest).getData();
+
+    float[][] vectors = new float[embeddings.size()][];
+    for (int i = 0; i < embeddings.size(); i++) {
+      Embedding embedding = embeddings.get(i);
+      // The response is ordered by index, which is only used when present
+      int index = embedding.getIndex() != null ? embedding.getIndex() : i;
+      vectors[index] = FloatVectors.toArray(embedding.getEmbedding());
+    }
+
+    return Arrays.asList(vectors);
+  }
+
   /**
    * This functionality is not available for this client.
    *
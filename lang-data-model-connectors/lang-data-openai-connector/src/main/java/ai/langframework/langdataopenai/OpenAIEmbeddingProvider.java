@@ -0,0 +1,58 @@
+package ai.langframework.langdataopenai;
+
+import ai.langframework.langdatacore.embeddings.CoalescingEmbeddingProvider;
+import ai.langframework.langdatacore.exceptions.EmbeddingException;
+import java.time.Duration;
+import java.util.List;
+
+/** Embedding provider backed by the OpenAI embeddings endpoint. */
+public class OpenAIEmbeddingProvider extends CoalescingEmbeddingProvider {
+
+  private final OpenAIConnectorClient client;
+  private final String model;
+
+  /**
+   * Creates a provider sending up to 512 texts per request, coalescing concurrent single texts for
+   * up to 10 milliseconds.
+   *
+   * @param client the initialized OpenAI client
+   * @param model the embedding model to use
+   */
+  public OpenAIEmbeddingProvider(OpenAIConnectorClient client, String model) {
+    this(client, model, 512, Duration.ofMillis(10), 4);
+  }
+
+  /**
+   * Creates a provider with the given coalescing limits.
+   *
+   * @param client the initialized OpenAI client
+   * @param model the embedding model to use
+   * @param maxBatchSize the maximum number of texts sent in one request
+   * @param maxWait the maximum time a single text waits for others to share its request
+   * @param maxConcurrentBatches the maximum number of coalesced requests in flight
+   */
+  public OpenAIEmbeddingProvider(
+      OpenAIConnectorClient client,
+      String model,
+      int maxBatchSize,
+      Duration maxWait,
+      int maxConcurrentBatches) {
+    super(maxBatchSize, maxWait, maxConcurrentBatches);
+    this.client = client;
+    this.model = model;
+  }
+
+  @Override
+  protected List<float[]> embedBatch(List<String> texts) {
+    try {
+      return client.embeddingVectors(texts, model);
+    } catch (RuntimeException e) {
+      throw new EmbeddingException("OpenAI embedding request failed", e);
+    }
+  }
+
+  @Override
+  public String getModel() {
+    return model;
+  }
+}
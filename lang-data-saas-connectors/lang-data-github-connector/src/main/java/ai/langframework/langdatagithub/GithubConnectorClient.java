@@ -3,7 +3,9 @@ package ai.langframework.langdatagithub;
 import ai.langframework.langdatacore.ConnectorClient;
 import ai.langframework.langdatacore.Document;
 import ai.langframework.langdatacore.exceptions.LoaderException;
+import ai.langframework.langdatacore.io.HttpFetcher;
 import java.io.File;
+import java.io.InputStream;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -81,8 +83,8 @@ public class GithubConnectorClient implements ConnectorClient {
    */
   private String getRepoContent(String link) {
     org.jsoup.nodes.Document doc = null;
-    try {
-      doc = Jsoup.connect(link).get();
+    try (InputStream inputStream = HttpFetcher.getDefault().open(link)) {
+      doc = Jsoup.parse(inputStream, null, link);
     } catch (Exception e) {
       e.printStackTrace();
     }
@@ -110,8 +112,8 @@ public class GithubConnectorClient implements ConnectorClient {
   private String getRepoIssues(String link) {
 
     org.jsoup.nodes.Document doc = null;
-    try {
-      doc = Jsoup.connect(link).get();
+    try (InputStream inputStream = HttpFetcher.getDefault().open(link)) {
+      doc = Jsoup.parse(inputStream, null, link);
     } catch (Exception e) {
       e.printStackTrace();
     }
@@ -15,6 +15,7 @@ public class S3Connector implements Connector {
 
   private String accessKey;
   private String secretKey;
+  private String endpoint;
 
   /**
    * Constructs an S3Connector with no access key and secret key. These credentials must be set
@@ -76,9 +77,18 @@ public class S3Connector implements Connector {
     this.accessKey = accessKey;
   }
 
-  /** Initializes the S3Connector with the provided access key and secret key. */
+  /**
+   * Sets the endpoint of an S3 compatible service to connect to instead of Amazon S3.
+   *
+   * @param endpoint the endpoint URL, or null for Amazon S3
+   */
+  public void setEndpoint(String endpoint) {
+    this.endpoint = endpoint;
+  }
+
+  /** Initializes the S3Connector with the provided access key, secret key and endpoint. */
   public void initializeClient() {
-    connectorClient = new S3ConnectorClient(accessKey, secretKey);
+    connectorClient = new S3ConnectorClient(accessKey, secretKey, endpoint);
   }
 
   /**
@@ -1,7 +1,10 @@
 package ai.langframework.langdatas3;
 
+import ai.langframework.langdatacore.Connector;
 import ai.langframework.langdatacore.ConnectorClient;
 import ai.langframework.langdatacore.Document;
+import ai.langframework.langdatacore.DocumentMetadata;
+import ai.langframework.langdatacore.Logger;
 import ai.langframework.langdatacore.exceptions.LoaderException;
 import ai.langframework.langdatacsv.CsvConnector;
 import ai.langframework.langdatadocx.DocxConnector;
@@ -14,18 +17,65 @@ import com.amazonaws.HttpMethod;
 import com.amazonaws.auth.AWSCredentials;
 import com.amazonaws.auth.AWSStaticCredentialsProvider;
 import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.event.ProgressListener;
 import com.amazonaws.regions.Regions;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
 import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
-import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectInputStream;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.services.s3.transfer.TransferManager;
+import com.amazonaws.services.s3.transfer.TransferManagerBuilder;
+import com.amazonaws.services.s3.transfer.Upload;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /** S3Connector Client */
 public class S3ConnectorClient implements ConnectorClient {
+  // The smallest part S3 accepts in a multipart upload, other than the last one
+  private static final long MIN_UPLOAD_PART_SIZE = 5L * 1024 * 1024;
+
   AmazonS3 s3client;
 
+  private int parallelism = 16;
+  private long partSize = 8L * 1024 * 1024;
+  private long uploadPartSize = 8L * 1024 * 1024;
+  private File etagFile;
+
   /** Default constructor for S3ConnectorClient. */
   public S3ConnectorClient() {
 
@@ -39,12 +89,68 @@ public class S3ConnectorClient implements ConnectorClient {
    * @param secretKey the secret key for AWS authentication
    */
   public S3ConnectorClient(String accessKey, String secretKey) {
-    AWSCredentials credentials = new BasicAWSCredentials(accessKey, secretKey);
-    s3client =
-        AmazonS3ClientBuilder.standard()
-            .withCredentials(new AWSStaticCredentialsProvider(credentials))
-            .withRegion(Regions.US_EAST_1)
-            .build();
+    s3client = buildClient(accessKey, secretKey, null);
+  }
+
+  /**
+   * Constructor for S3ConnectorClient connecting to an S3 compatible endpoint, such as a local
+   * stand-in for tests. Buckets are then addressed by path rather than by host name.
+   *
+   * @param accessKey the access key for AWS authentication
+   * @param secretKey the secret key for AWS authentication
+   * @param endpoint the endpoint URL, or null for Amazon S3
+   */
+  public S3ConnectorClient(String accessKey, String secretKey, String endpoint) {
+    s3client = buildClient(accessKey, secretKey, endpoint);
+  }
+
+  /**
+   * Sets the number of objects downloaded and parsed or uploaded at the same time, which is also
+   * the number of ranged requests or uploaded parts in flight for large objects.
+   *
+   * @param parallelism the number of objects transferred concurrently, 16 by default
+   */
+  public void setParallelism(int parallelism) {
+    if (parallelism <= 0) {
+      throw new IllegalArgumentException("Parallelism must be positive");
+    }
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Sets the size of the ranges in which larger objects are downloaded concurrently.
+   *
+   * @param partSize the size of a range in bytes, 8 MB by default
+   */
+  public void setPartSize(long partSize) {
+    if (partSize <= 0) {
+      throw new IllegalArgumentException("Part size must be positive");
+    }
+    this.partSize = partSize;
+  }
+
+  /**
+   * Sets the size of the parts in which larger files are uploaded. Files up to this size are
+   * uploaded in a single request.
+   *
+   * @param uploadPartSize the size of a part in bytes, 8 MB by default and at least 5 MB as S3
+   *     requires
+   */
+  public void setUploadPartSize(long uploadPartSize) {
+    if (uploadPartSize < MIN_UPLOAD_PART_SIZE) {
+      throw new IllegalArgumentException("Upload part size must be at least 5 MB");
+    }
+    this.uploadPartSize = uploadPartSize;
+  }
+
+  /**
+   * Sets the file recording the ETag of every object read from a prefix. Objects whose ETag did not
+   * change since they were read are skipped by the next reads of the prefix.
+   *
+   * @param etagFile the file of the ETags, or null (the default) to read every object
+   */
+  public void setEtagFile(File etagFile) {
+    this.etagFile = etagFile;
   }
 
   /**
@@ -57,37 +163,21 @@ public class S3ConnectorClient implements ConnectorClient {
   public List<Document> readData(String bucketName, String objectName) {
 
     try {
-      String prefixName = objectName.substring(objectName.lastIndexOf(".") + 1);
-      List<Document> document;
-      switch (prefixName.toUpperCase()) {
-        case "CSV":
-          document = new CsvConnector().loadData(generatePresignedUrl(bucketName, objectName));
-          break;
-        case "HTML":
-          document = new HtmlConnector().loadData(generatePresignedUrl(bucketName, objectName));
-          break;
-        case "PDF":
-          document = new PdfConnector().loadData(generatePresignedUrl(bucketName, objectName));
-          break;
-        case "TXT":
-        case "MD":
-          document = new TextConnector().loadData(generatePresignedUrl(bucketName, objectName));
-          break;
-        case "DOCX":
-        case "DOTX":
-          document = new DocxConnector().loadData(generatePresignedUrl(bucketName, objectName));
-          break;
-        case "PPTX":
-          document = new PptxConnector().loadData(generatePresignedUrl(bucketName, objectName));
-          break;
-        case "JSON":
-          document = new JsonConnector().loadData(generatePresignedUrl(bucketName, objectName));
-          break;
-        default:
-          throw new IllegalArgumentException(
-              "Unsupported file connector type: " + "fileConnectorType");
+      Connector connector = connectorFor(objectName);
+      if (connector == null) {
+        throw new IllegalArgumentException("Unsupported file connector type: " + objectName);
       }
-      return document;
+      ObjectMetadata metadata = s3client.getObjectMetadata(bucketName, objectName);
+      List<Document> documents = new ArrayList<>();
+      readObject(
+          connector,
+          bucketName,
+          objectName,
+          metadata.getContentLength(),
+          metadata.getETag(),
+          null,
+          documents::add);
+      return documents;
     } catch (Exception e) {
       e.printStackTrace();
     }
@@ -95,19 +185,500 @@ public class S3ConnectorClient implements ConnectorClient {
   }
 
   /**
-   * Uploads a file to the specified bucket and object in Amazon S3.
+   * Reads every supported object whose key starts with a prefix and collects the documents into a
+   * list. Documents of different objects may be interleaved in any order.
+   *
+   * @param bucketName the name of the S3 bucket
+   * @param prefix the prefix of the keys, or an empty string for the whole bucket
+   * @return a list of documents
+   */
+  public List<Document> readPrefix(String bucketName, String prefix) {
+    List<Document> documents = Collections.synchronizedList(new ArrayList<>());
+    readPrefix(bucketName, prefix, documents::add);
+    return new ArrayList<>(documents);
+  }
+
+  /**
+   * Reads every supported object whose key starts with a prefix. Objects are listed page by page
+   * while the listed ones are being read, parallelism objects at a time; objects larger than the
+   * part size are downloaded in concurrent ranged requests. Objects whose extension has no
+   * connector, and objects whose ETag did not change since the last read, are skipped. The "Source"
+   * of the documents is the s3:// URI of their object.
+   *
+   * @param bucketName the name of the S3 bucket
+   * @param prefix the prefix of the keys, or an empty string for the whole bucket
+   * @param sink receives the documents; called concurrently from the reading threads
+   */
+  public void readPrefix(String bucketName, String prefix, Consumer<Document> sink) {
+    Properties etags = loadEtags();
+    ExecutorService objectExecutor =
+        Executors.newFixedThreadPool(parallelism, threadFactory("s3-object"));
+    ExecutorService partExecutor =
+        Executors.newFixedThreadPool(parallelism, threadFactory("s3-part"));
+    // Listing stops while twice as many objects as workers wait to be read
+    Semaphore permits = new Semaphore(2 * parallelism);
+    AtomicInteger read = new AtomicInteger();
+    AtomicInteger skipped = new AtomicInteger();
+    AtomicInteger failed = new AtomicInteger();
+
+    try {
+      ListObjectsV2Request request =
+          new ListObjectsV2Request().withBucketName(bucketName).withPrefix(prefix);
+      ListObjectsV2Result result;
+      do {
+        result = s3client.listObjectsV2(request);
+        for (S3ObjectSummary summary : result.getObjectSummaries()) {
+          String key = summary.getKey();
+          Connector connector = connectorFor(key);
+          String etag = summary.getETag();
+          if (connector == null
+              || (etag != null && etag.equals(etags.getProperty(bucketName + "/" + key)))) {
+            skipped.incrementAndGet();
+            continue;
+          }
+
+          permits.acquire();
+          objectExecutor.execute(
+              () -> {
+                try {
+                  readObject(
+                      connector, bucketName, key, summary.getSize(), etag, partExecutor, sink);
+                  if (etag != null) {
+                    etags.setProperty(bucketName + "/" + key, etag);
+                  }
+                  read.incrementAndGet();
+                } catch (Exception e) {
+                  failed.incrementAndGet();
+                  Logger.error("Failed to read s3://" + bucketName + "/" + key + ": " + e);
+                } finally {
+                  permits.release();
+                }
+              });
+        }
+        request.setContinuationToken(result.getNextContinuationToken());
+      } while (result.isTruncated());
+
+      // Every finished object returns its permit, so holding all of them means all are done
+      permits.acquire(2 * parallelism);
+      permits.release(2 * parallelism);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      e.printStackTrace();
+    } finally {
+      objectExecutor.shutdown();
+      partExecutor.shutdown();
+    }
+
+    saveEtags(etags);
+    Logger.info(
+        "Read s3://"
+            + bucketName
+            + "/"
+            + prefix
+            + ": read="
+            + read.get()
+            + " skipped="
+            + skipped.get()
+            + " failed="
+            + failed.get());
+  }
+
+  /**
+   * Downloads an object to a temporary file and parses it with the connector of its extension. The
+   * connectors read random-access formats such as PDF, DOCX and PPTX from files, so the object is
+   * written to disk as it arrives rather than buffered in memory.
+   *
+   * @param connector the connector of the object
+   * @param bucketName the name of the S3 bucket
+   * @param key the key of the object
+   * @param size the size of the object
+   * @param etag the ETag of the object, which every range must match
+   * @param partExecutor the executor of the ranged requests, or null to download in one request
+   * @param sink receives the documents
+   * @throws Exception if the object cannot be downloaded or parsed
+   */
+  private void readObject(
+      Connector connector,
+      String bucketName,
+      String key,
+      long size,
+      String etag,
+      ExecutorService partExecutor,
+      Consumer<Document> sink)
+      throws Exception {
+    String name = key.substring(key.lastIndexOf('/') + 1);
+    File file = File.createTempFile("s3-", "-" + name);
+    try {
+      if (partExecutor == null || size <= partSize) {
+        downloadRange(bucketName, key, etag, file, 0, -1);
+      } else {
+        downloadParts(bucketName, key, size, etag, file, partExecutor);
+      }
+
+      String source = "s3://" + bucketName + "/" + key;
+      // Documents of the object usually share their metadata, so they keep sharing it
+      Map<Map<String, String>, DocumentMetadata> metadata = new IdentityHashMap<>();
+      try (Stream<Document> documents = connector.streamData(file)) {
+        documents.forEachOrdered(
+            document ->
+                sink.accept(
+                    new Document(
+                        document.getContent(),
+                        metadata.computeIfAbsent(
+                            document.getMetadata(),
+                            original ->
+                                DocumentMetadata.copyOf(original)
+                                    .with("Source", source)
+                                    .with("FileName", name)))));
+      }
+    } finally {
+      Files.deleteIfExists(file.toPath());
+    }
+  }
+
+  /**
+   * Downloads an object in ranges of partSize, each written at its offset in the file by its own
+   * request.
+   *
+   * @param bucketName the name of the S3 bucket
+   * @param key the key of the object
+   * @param size the size of the object
+   * @param etag the ETag of the object
+   * @param file the file to write
+   * @param partExecutor the executor of the ranged requests
+   * @throws Exception if any range cannot be downloaded
+   */
+  private void downloadParts(
+      String bucketName,
+      String key,
+      long size,
+      String etag,
+      File file,
+      ExecutorService partExecutor)
+      throws Exception {
+    List<Future<?>> parts = new ArrayList<>();
+    for (long start = 0; start < size; start += partSize) {
+      long partStart = start;
+      long partEnd = Math.min(start + partSize, size) - 1;
+      parts.add(
+          partExecutor.submit(
+              () -> {
+                downloadRange(bucketName, key, etag, file, partStart, partEnd);
+                return null;
+              }));
+    }
+
+    Exception failure = null;
+    for (Future<?> part : parts) {
+      try {
+        part.get();
+      } catch (ExecutionException e) {
+        // Wait for the remaining ranges before deleting the file
+        if (failure == null) {
+          failure =
+              new Exception("Failed to download s3://" + bucketName + "/" + key, e.getCause());
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Downloads a range of an object into the same range of a file. The request only succeeds if the
+   * object still has the given ETag, so all ranges come from the same version of the object.
+   *
+   * @param bucketName the name of the S3 bucket
+   * @param key the key of the object
+   * @param etag the ETag of the object, or null to accept any version
+   * @param file the file to write
+   * @param start the first byte of the range
+   * @param end the last byte of the range, or -1 for the whole object
+   * @throws IOException if the range cannot be downloaded or written
+   */
+  private void downloadRange(
+      String bucketName, String key, String etag, File file, long start, long end)
+      throws IOException {
+    GetObjectRequest request = new GetObjectRequest(bucketName, key);
+    if (end >= 0) {
+      request.setRange(start, end);
+    }
+    if (etag != null) {
+      request.withMatchingETagConstraint(etag);
+    }
+
+    S3Object object = s3client.getObject(request);
+    if (object == null) {
+      throw new IOException("s3://" + bucketName + "/" + key + " changed while being read");
+    }
+    try (S3ObjectInputStream in = object.getObjectContent();
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+      byte[] buffer = new byte[64 * 1024];
+      long position = start;
+      int count;
+      while ((count = in.read(buffer)) != -1) {
+        ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, count);
+        while (bytes.hasRemaining()) {
+          position += channel.write(bytes, position);
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets the connector reading objects with the extension of a key.
+   *
+   * @param key the key of the object
+   * @return the connector, or null if the extension is not supported
+   */
+  private static Connector connectorFor(String key) {
+    String extension = key.substring(key.lastIndexOf(".") + 1);
+    switch (extension.toUpperCase(Locale.ROOT)) {
+      case "CSV":
+        return new CsvConnector();
+      case "HTML":
+        return new HtmlConnector();
+      case "PDF":
+        return new PdfConnector();
+      case "TXT":
+      case "MD":
+        return new TextConnector();
+      case "DOCX":
+      case "DOTX":
+        return new DocxConnector();
+      case "PPTX":
+        return new PptxConnector();
+      case "JSON":
+      case "JSONL":
+      case "NDJSON":
+        return new JsonConnector();
+      default:
+        return null;
+    }
+  }
+
+  private Properties loadEtags() {
+    Properties etags = new Properties();
+    if (etagFile != null && etagFile.isFile()) {
+      try (InputStream in = new FileInputStream(etagFile)) {
+        etags.load(in);
+      } catch (IOException e) {
+        // Without the ETags every object is read again
+        e.printStackTrace();
+      }
+    }
+    return etags;
+  }
+
+  private void saveEtags(Properties etags) {
+    if (etagFile == null) {
+      return;
+    }
+    try {
+      File directory = etagFile.getAbsoluteFile().getParentFile();
+      Files.createDirectories(directory.toPath());
+      File temporary = File.createTempFile(etagFile.getName(), ".tmp", directory);
+      try {
+        try (OutputStream out = new FileOutputStream(temporary)) {
+          etags.store(out, null);
+        }
+        Files.move(
+            temporary.toPath(),
+            etagFile.toPath(),
+            StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(temporary.toPath());
+      }
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  private static void reportProgress(Upload upload, AtomicLong reported, S3UploadMetrics metrics) {
+    long transferred = upload.getProgress().getBytesTransferred();
+    metrics.bytesTransferred(transferred - reported.getAndSet(transferred));
+  }
+
+  private static ThreadFactory threadFactory(String prefix) {
+    AtomicInteger counter = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  /**
+   * Uploads a file to the specified bucket and object in Amazon S3. Files larger than the part size
+   * are uploaded in concurrent parts.
    *
    * @param bucketName the name of the bucket in Amazon S3
    * @param objectName the name of the object in the bucket
    * @param file the file to upload
    */
   public void uploadFile(String bucketName, String objectName, File file) {
-    try {
-      s3client.putObject(new PutObjectRequest(bucketName, objectName, file));
+    Map<String, File> files = new LinkedHashMap<>();
+    files.put(objectName, file);
+    if (upload(bucketName, files, new S3UploadMetrics()).getFilesFailed() == 0) {
       System.out.println("File uploaded successfully to S3!");
-    } catch (Exception e) {
+    }
+  }
+
+  /**
+   * Uploads every file of a directory and its subdirectories. The key of a file is the prefix
+   * followed by its path relative to the directory, with "/" as separator.
+   *
+   * @param bucketName the name of the S3 bucket
+   * @param prefix the prefix of the keys, or an empty string for the root of the bucket
+   * @param directory the directory to upload
+   * @return the counters of the upload
+   */
+  public S3UploadMetrics uploadDirectory(String bucketName, String prefix, File directory) {
+    return uploadDirectory(bucketName, prefix, directory, new S3UploadMetrics());
+  }
+
+  /**
+   * Uploads every file of a directory and its subdirectories, updating the given metrics, which can
+   * be read from another thread to follow the progress.
+   *
+   * @param bucketName the name of the S3 bucket
+   * @param prefix the prefix of the keys, or an empty string for the root of the bucket
+   * @param directory the directory to upload
+   * @param metrics the counters to update
+   * @return the counters of the upload
+   */
+  public S3UploadMetrics uploadDirectory(
+      String bucketName, String prefix, File directory, S3UploadMetrics metrics) {
+    Map<String, File> files = new LinkedHashMap<>();
+    Path root = directory.toPath();
+    try (Stream<Path> paths = Files.walk(root)) {
+      paths
+          .filter(Files::isRegularFile)
+          .sorted()
+          .forEach(
+              path ->
+                  files.put(
+                      prefix + root.relativize(path).toString().replace(File.separatorChar, '/'),
+                      path.toFile()));
+    } catch (IOException e) {
       e.printStackTrace();
+      metrics.finish();
+      return metrics;
     }
+    return upload(bucketName, files, metrics);
+  }
+
+  /**
+   * Uploads a list of files. The key of a file is the prefix followed by its name.
+   *
+   * @param bucketName the name of the S3 bucket
+   * @param prefix the prefix of the keys, or an empty string for the root of the bucket
+   * @param files the files to upload
+   * @return the counters of the upload
+   */
+  public S3UploadMetrics uploadFiles(String bucketName, String prefix, List<File> files) {
+    return uploadFiles(bucketName, prefix, files, new S3UploadMetrics());
+  }
+
+  /**
+   * Uploads a list of files, updating the given metrics, which can be read from another thread to
+   * follow the progress.
+   *
+   * @param bucketName the name of the S3 bucket
+   * @param prefix the prefix of the keys, or an empty string for the root of the bucket
+   * @param files the files to upload
+   * @param metrics the counters to update
+   * @return the counters of the upload
+   */
+  public S3UploadMetrics uploadFiles(
+      String bucketName, String prefix, List<File> files, S3UploadMetrics metrics) {
+    Map<String, File> keyed = new LinkedHashMap<>();
+    for (File file : files) {
+      keyed.put(prefix + file.getName(), file);
+    }
+    return upload(bucketName, keyed, metrics);
+  }
+
+  /**
+   * Uploads files, parallelism files at a time. Files larger than the part size are sent as
+   * multipart uploads whose parts are uploaded concurrently, parallelism parts at a time; a failed
+   * multipart upload is aborted so its parts are not kept in the bucket. A failed file is logged
+   * and does not stop the others.
+   *
+   * @param bucketName the name of the S3 bucket
+   * @param files the files to upload by key
+   * @param metrics the counters to update
+   * @return the counters of the upload
+   */
+  private S3UploadMetrics upload(
+      String bucketName, Map<String, File> files, S3UploadMetrics metrics) {
+    TransferManager transferManager =
+        TransferManagerBuilder.standard()
+            .withS3Client(s3client)
+            .withExecutorFactory(
+                () -> Executors.newFixedThreadPool(parallelism, threadFactory("s3-upload-part")))
+            .withMultipartUploadThreshold(uploadPartSize)
+            .withMinimumUploadPartSize(uploadPartSize)
+            .build();
+    ExecutorService fileExecutor =
+        Executors.newFixedThreadPool(parallelism, threadFactory("s3-upload"));
+    // At most twice as many files as workers are queued at a time
+    Semaphore permits = new Semaphore(2 * parallelism);
+
+    try {
+      for (Map.Entry<String, File> entry : files.entrySet()) {
+        String key = entry.getKey();
+        File file = entry.getValue();
+        metrics.fileSubmitted(file.length());
+
+        permits.acquire();
+        fileExecutor.execute(
+            () -> {
+              try {
+                Upload upload = transferManager.upload(bucketName, key, file);
+                AtomicLong reported = new AtomicLong();
+                // The events of a transfer include its requests other than parts, so the bytes are
+                // taken from its progress, which only counts the content of the file
+                upload.addProgressListener(
+                    (ProgressListener)
+                        event -> {
+                          if (event.getEventType().isByteCountEvent()) {
+                            reportProgress(upload, reported, metrics);
+                          }
+                        });
+                upload.waitForUploadResult();
+                reportProgress(upload, reported, metrics);
+                metrics.fileCompleted();
+              } catch (InterruptedException e) {
+                metrics.fileFailed();
+                Thread.currentThread().interrupt();
+              } catch (Exception e) {
+                metrics.fileFailed();
+                Logger.error(
+                    "Failed to upload " + file + " to s3://" + bucketName + "/" + key + ": " + e);
+              } finally {
+                permits.release();
+              }
+            });
+      }
+
+      // Every finished file returns its permit, so holding all of them means all are done
+      permits.acquire(2 * parallelism);
+      permits.release(2 * parallelism);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      fileExecutor.shutdown();
+      // The S3 client is shared with the other operations of this client
+      transferManager.shutdownNow(false);
+      metrics.finish();
+    }
+
+    Logger.info("Uploaded to s3://" + bucketName + ": " + metrics);
+    return metrics;
   }
 
   /**
@@ -151,12 +722,34 @@ public class S3ConnectorClient implements ConnectorClient {
    * @param secretKey the secret key for AWS authentication
    */
   public void initializeClient(String accessKey, String secretKey) {
+    s3client = buildClient(accessKey, secretKey, null);
+  }
+
+  /**
+   * Initializes the connector with the provided access key and secret key, connecting to an S3
+   * compatible endpoint.
+   *
+   * @param accessKey the access key for AWS authentication
+   * @param secretKey the secret key for AWS authentication
+   * @param endpoint the endpoint URL, or null for Amazon S3
+   */
+  public void initializeClient(String accessKey, String secretKey, String endpoint) {
+    s3client = buildClient(accessKey, secretKey, endpoint);
+  }
+
+  private static AmazonS3 buildClient(String accessKey, String secretKey, String endpoint) {
     AWSCredentials credentials = new BasicAWSCredentials(accessKey, secretKey);
-    s3client =
+    AmazonS3ClientBuilder builder =
         AmazonS3ClientBuilder.standard()
-            .withCredentials(new AWSStaticCredentialsProvider(credentials))
-            .withRegion(Regions.US_EAST_1)
-            .build();
+            .withCredentials(new AWSStaticCredentialsProvider(credentials));
+    if (endpoint == null) {
+      return builder.withRegion(Regions.US_EAST_1).build();
+    }
+    return builder
+        .withEndpointConfiguration(
+            new AwsClientBuilder.EndpointConfiguration(endpoint, Regions.US_EAST_1.getName()))
+        .withPathStyleAccessEnabled(true)
+        .build();
   }
 
   /**
@@ -0,0 +1,171 @@
+package ai.langframework.langdatas3;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Progress and throughput counters of the uploads of an {@link S3ConnectorClient}. Counters are
+ * updated concurrently by the uploading threads and can be read at any time while files are being
+ * uploaded. The clock starts when the metrics are created and stops when the upload finishes, so
+ * the rates of a finished upload do not decay.
+ */
+public class S3UploadMetrics {
+
+  private final LongAdder filesSubmitted = new LongAdder();
+  private final LongAdder filesCompleted = new LongAdder();
+  private final LongAdder filesFailed = new LongAdder();
+  private final LongAdder bytesSubmitted = new LongAdder();
+  private final LongAdder bytesTransferred = new LongAdder();
+  private final long startNanos = System.nanoTime();
+  private volatile long endNanos = -1;
+
+  void fileSubmitted(long length) {
+    filesSubmitted.increment();
+    bytesSubmitted.add(length);
+  }
+
+  void fileCompleted() {
+    filesCompleted.increment();
+  }
+
+  void fileFailed() {
+    filesFailed.increment();
+  }
+
+  void bytesTransferred(long count) {
+    bytesTransferred.add(count);
+  }
+
+  /** Stops the clock, the first time only. */
+  synchronized void finish() {
+    if (endNanos < 0) {
+      endNanos = System.nanoTime();
+    }
+  }
+
+  /**
+   * Tells whether the upload recorded by these metrics is over.
+   *
+   * @return true once every file has been uploaded or has failed
+   */
+  public boolean isFinished() {
+    return endNanos >= 0;
+  }
+
+  /**
+   * Gets the number of files queued for upload.
+   *
+   * @return the number of submitted files
+   */
+  public long getFilesSubmitted() {
+    return filesSubmitted.sum();
+  }
+
+  /**
+   * Gets the number of files stored in the bucket.
+   *
+   * @return the number of completed files
+   */
+  public long getFilesCompleted() {
+    return filesCompleted.sum();
+  }
+
+  /**
+   * Gets the number of files that could not be uploaded.
+   *
+   * @return the number of failed files
+   */
+  public long getFilesFailed() {
+    return filesFailed.sum();
+  }
+
+  /**
+   * Gets the number of files submitted but not yet completed or failed.
+   *
+   * @return the number of files in flight
+   */
+  public long getFilesInFlight() {
+    return getFilesSubmitted() - getFilesCompleted() - getFilesFailed();
+  }
+
+  /**
+   * Gets the total size of the submitted files.
+   *
+   * @return the number of bytes to upload
+   */
+  public long getBytesSubmitted() {
+    return bytesSubmitted.sum();
+  }
+
+  /**
+   * Gets the number of bytes of the files sent so far.
+   *
+   * @return the number of bytes transferred
+   */
+  public long getBytesTransferred() {
+    return bytesTransferred.sum();
+  }
+
+  /**
+   * Gets the share of the submitted bytes sent so far.
+   *
+   * @return the progress between 0 and 1
+   */
+  public double getProgress() {
+    long submitted = getBytesSubmitted();
+    return submitted > 0 ? Math.min(1, (double) getBytesTransferred() / submitted) : 0;
+  }
+
+  /**
+   * Gets the time elapsed since the metrics were created, up to the end of the upload once it is
+   * finished.
+   *
+   * @return the elapsed time in milliseconds
+   */
+  public long getElapsedMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(elapsedNanos());
+  }
+
+  /**
+   * Gets the average number of bytes sent per second.
+   *
+   * @return the byte throughput
+   */
+  public double getBytesPerSecond() {
+    return perSecond(getBytesTransferred());
+  }
+
+  /**
+   * Gets the average number of completed files per second.
+   *
+   * @return the file throughput
+   */
+  public double getFilesPerSecond() {
+    return perSecond(getFilesCompleted());
+  }
+
+  private double perSecond(long count) {
+    long elapsed = elapsedNanos();
+    return elapsed > 0 ? count * 1e9 / elapsed : 0;
+  }
+
+  private long elapsedNanos() {
+    long end = endNanos;
+    return (end >= 0 ? end : System.nanoTime()) - startNanos;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "files=%d completed=%d failed=%d bytes=%d transferred=%d elapsed=%dms"
+            + " MB/s=%.1f files/s=%.1f",
+        getFilesSubmitted(),
+        getFilesCompleted(),
+        getFilesFailed(),
+        getBytesSubmitted(),
+        getBytesTransferred(),
+        getElapsedMillis(),
+        getBytesPerSecond() / (1024 * 1024),
+        getFilesPerSecond());
+  }
+}
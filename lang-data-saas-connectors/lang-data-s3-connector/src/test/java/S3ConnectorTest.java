@@ -1,17 +1,37 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import ai.langframework.langdatacore.Config;
 import ai.langframework.langdatacore.Document;
 import ai.langframework.langdatas3.S3Connector;
 import ai.langframework.langdatas3.S3ConnectorClient;
+import ai.langframework.langdatas3.S3UploadMetrics;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 public class S3ConnectorTest {
@@ -23,9 +43,9 @@ public class S3ConnectorTest {
 
   @BeforeAll
   void initialize() {
-    Assumptions.assumeTrue(keyId != null && !keyId.isEmpty(), "AWS_ACCESS_KEY_ID not set");
-    Assumptions.assumeTrue(
-        accessKey != null && !accessKey.isEmpty(), "AWS_SECRET_ACCESS_KEY not set");
+    if (keyId == null || keyId.isEmpty() || accessKey == null || accessKey.isEmpty()) {
+      return;
+    }
     loader = new S3Connector();
     loader.setAccessKey(keyId);
     loader.setSecretKey(accessKey);
@@ -36,6 +56,7 @@ public class S3ConnectorTest {
   @Test
   @Tag("requiresApiKey")
   void loadData() throws Exception {
+    requireCredentials();
     String bucketName = "shared-public-resources-free-ai";
     String objectName = "test.txt";
     List<Document> documents = connectorClient.readData(bucketName, objectName);
@@ -49,6 +70,7 @@ public class S3ConnectorTest {
   @Test
   @Tag("requiresApiKey")
   void uploadFIle() throws Exception {
+    requireCredentials();
     File testFile;
     // Use try-with-resources to ensure the InputStream is closed properly
     try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("test.csv")) {
@@ -64,4 +86,333 @@ public class S3ConnectorTest {
     }
     connectorClient.uploadFile("shared-public-resources-free-ai", "testS3UploadFile.csv", testFile);
   }
+
+  private void requireCredentials() {
+    Assumptions.assumeTrue(keyId != null && !keyId.isEmpty(), "AWS_ACCESS_KEY_ID not set");
+    Assumptions.assumeTrue(
+        accessKey != null && !accessKey.isEmpty(), "AWS_SECRET_ACCESS_KEY not set");
+  }
+
+  @Test
+  void testReadPrefix(@TempDir Path directory) throws Exception {
+    Map<String, String> objects = new ConcurrentHashMap<>();
+    objects.put("docs/a.txt", "First document");
+    objects.put("docs/b.txt", "A document long enough to be downloaded in several ranges");
+    objects.put("docs/c.md", "# Third document");
+    objects.put("docs/image.bin", "Not a document");
+    objects.put("other/d.txt", "Outside of the prefix");
+    Map<String, AtomicInteger> gets = new ConcurrentHashMap<>();
+    HttpServer server = startLocalS3(objects, gets, new ConcurrentHashMap<>());
+    try {
+      String endpoint = "http://localhost:" + server.getAddress().getPort();
+      S3ConnectorClient client = new S3ConnectorClient("key", "secret", endpoint);
+      client.setPartSize(16);
+      client.setEtagFile(directory.resolve("etags.properties").toFile());
+
+      Map<String, String> texts = textsBySource(client.readPrefix("bucket", "docs/"));
+      assertEquals(3, texts.size());
+      assertEquals("First document", texts.get("s3://bucket/docs/a.txt"));
+      assertEquals(objects.get("docs/b.txt"), texts.get("s3://bucket/docs/b.txt"));
+      assertEquals("# Third document", texts.get("s3://bucket/docs/c.md"));
+      // 57 bytes in ranges of 16
+      assertEquals(4, gets.get("docs/b.txt").get());
+      assertEquals(null, gets.get("docs/image.bin"));
+
+      // Unchanged objects are skipped by ETag
+      objects.put("docs/a.txt", "First document, edited");
+      texts = textsBySource(client.readPrefix("bucket", "docs/"));
+      assertEquals(Map.of("s3://bucket/docs/a.txt", "First document, edited"), texts);
+      assertEquals(4, gets.get("docs/b.txt").get());
+
+      List<Document> documents = client.readData("bucket", "other/d.txt");
+      assertEquals("Outside of the prefix", documents.get(0).getText());
+      assertEquals("s3://bucket/other/d.txt", documents.get(0).getMetadata().get("Source"));
+    } finally {
+      server.stop(0);
+    }
+  }
+
+  @Test
+  void testUploadDirectory(@TempDir Path directory) throws Exception {
+    Path corpus = Files.createDirectories(directory.resolve("corpus"));
+    Files.writeString(corpus.resolve("a.txt"), "Small file");
+    Files.createDirectories(corpus.resolve("nested"));
+    // 12 MB, uploaded in parts of 5 MB
+    String large = "0123456789abcdef".repeat(786432);
+    Files.writeString(corpus.resolve("nested").resolve("b.txt"), large);
+    Map<String, String> objects = new ConcurrentHashMap<>();
+    Map<String, AtomicInteger> puts = new ConcurrentHashMap<>();
+    HttpServer server = startLocalS3(objects, new ConcurrentHashMap<>(), puts);
+    try {
+      String endpoint = "http://localhost:" + server.getAddress().getPort();
+      S3ConnectorClient client = new S3ConnectorClient("key", "secret", endpoint);
+      client.setUploadPartSize(5L * 1024 * 1024);
+      client.setParallelism(2);
+
+      S3UploadMetrics metrics = client.uploadDirectory("bucket", "snapshots/", corpus.toFile());
+      assertEquals(
+          Map.of("snapshots/a.txt", "Small file", "snapshots/nested/b.txt", large), objects);
+      assertEquals(3, puts.get("snapshots/nested/b.txt").get());
+      assertEquals(1, puts.get("snapshots/a.txt").get());
+      assertEquals(2, metrics.getFilesCompleted());
+      assertEquals(0, metrics.getFilesFailed());
+      assertEquals(10 + large.length(), metrics.getBytesSubmitted());
+      assertEquals(metrics.getBytesSubmitted(), metrics.getBytesTransferred());
+      assertEquals(1.0, metrics.getProgress());
+      assertTrue(metrics.isFinished());
+      // The clock stopped with the upload
+      long elapsed = metrics.getElapsedMillis();
+      Thread.sleep(20);
+      assertEquals(elapsed, metrics.getElapsedMillis());
+      assertThrows(IllegalArgumentException.class, () -> client.setUploadPartSize(1024 * 1024));
+
+      // A missing file fails alone
+      metrics =
+          client.uploadFiles(
+              "bucket",
+              "flat/",
+              List.of(corpus.resolve("missing.txt").toFile(), corpus.resolve("a.txt").toFile()));
+      assertEquals(1, metrics.getFilesCompleted());
+      assertEquals(1, metrics.getFilesFailed());
+      assertEquals("Small file", objects.get("flat/a.txt"));
+    } finally {
+      server.stop(0);
+    }
+  }
+
+  private static Map<String, String> textsBySource(List<Document> documents) {
+    Map<String, String> texts = new HashMap<>();
+    for (Document document : documents) {
+      texts.put(document.getMetadata().get("Source"), document.getText());
+    }
+    return texts;
+  }
+
+  /**
+   * Starts a local stand-in for S3 serving the objects of a single bucket: paginated ListObjectsV2
+   * with two keys per page, HEAD, GET with ranges and If-Match, PUT, and multipart uploads.
+   * Requests are counted by key, GETs in gets and PUTs of objects or parts in puts.
+   */
+  private static HttpServer startLocalS3(
+      Map<String, String> objects, Map<String, AtomicInteger> gets, Map<String, AtomicInteger> puts)
+      throws IOException {
+    Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+    HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext(
+        "/bucket",
+        exchange -> {
+          try {
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            if (path.equals("/bucket") || path.equals("/bucket/")) {
+              listObjects(exchange, objects);
+            } else if (method.equals("PUT")
+                || method.equals("POST")
+                || query(exchange).containsKey("uploadId")) {
+              String key = path.substring("/bucket/".length());
+              uploadObject(exchange, objects, puts, uploads, key);
+            } else {
+              getObject(exchange, objects, gets, path.substring("/bucket/".length()));
+            }
+          } catch (Exception e) {
+            exchange.sendResponseHeaders(500, -1);
+          } finally {
+            exchange.close();
+          }
+        });
+    server.start();
+    return server;
+  }
+
+  private static void listObjects(HttpExchange exchange, Map<String, String> objects)
+      throws Exception {
+    Map<String, String> query = query(exchange);
+    String prefix = query.getOrDefault("prefix", "");
+    List<String> keys = new ArrayList<>();
+    for (String key : new TreeMap<>(objects).keySet()) {
+      if (key.startsWith(prefix)) {
+        keys.add(key);
+      }
+    }
+    int start = Integer.parseInt(query.getOrDefault("continuation-token", "0"));
+    int end = Math.min(start + 2, keys.size());
+
+    StringBuilder xml = new StringBuilder("<ListBucketResult><Name>bucket</Name>");
+    xml.append("<Prefix>").append(prefix).append("</Prefix>");
+    xml.append("<KeyCount>").append(end - start).append("</KeyCount>");
+    xml.append("<IsTruncated>").append(end < keys.size()).append("</IsTruncated>");
+    if (end < keys.size()) {
+      xml.append("<NextContinuationToken>").append(end).append("</NextContinuationToken>");
+    }
+    for (String key : keys.subList(start, end)) {
+      byte[] body = objects.get(key).getBytes(StandardCharsets.UTF_8);
+      xml.append("<Contents><Key>").append(key).append("</Key>");
+      xml.append("<ETag>").append(etag(body)).append("</ETag>");
+      xml.append("<Size>").append(body.length).append("</Size></Contents>");
+    }
+    xml.append("</ListBucketResult>");
+    send(exchange, 200, xml.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static void getObject(
+      HttpExchange exchange,
+      Map<String, String> objects,
+      Map<String, AtomicInteger> gets,
+      String key)
+      throws Exception {
+    String value = objects.get(key);
+    if (value == null) {
+      exchange.sendResponseHeaders(404, -1);
+      return;
+    }
+    byte[] body = value.getBytes(StandardCharsets.UTF_8);
+    String etag = etag(body);
+    exchange.getResponseHeaders().add("ETag", etag);
+    exchange.getResponseHeaders().add("Content-Type", "application/octet-stream");
+    if (exchange.getRequestMethod().equals("HEAD")) {
+      exchange.getResponseHeaders().add("Content-Length", String.valueOf(body.length));
+      exchange.sendResponseHeaders(200, -1);
+      return;
+    }
+
+    gets.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+    String ifMatch = exchange.getRequestHeaders().getFirst("If-Match");
+    // S3 accepts the ETag with or without its quotes
+    if (ifMatch != null && !ifMatch.replace("\"", "").equals(etag.replace("\"", ""))) {
+      exchange.sendResponseHeaders(412, -1);
+      return;
+    }
+    String range = exchange.getRequestHeaders().getFirst("Range");
+    if (range == null) {
+      send(exchange, 200, body);
+      return;
+    }
+    String[] bounds = range.substring("bytes=".length()).split("-");
+    int start = Integer.parseInt(bounds[0]);
+    int end = Math.min(Integer.parseInt(bounds[1]), body.length - 1);
+    exchange
+        .getResponseHeaders()
+        .add("Content-Range", "bytes " + start + "-" + end + "/" + body.length);
+    byte[] part = new byte[end - start + 1];
+    System.arraycopy(body, start, part, 0, part.length);
+    send(exchange, 206, part);
+  }
+
+  private static void uploadObject(
+      HttpExchange exchange,
+      Map<String, String> objects,
+      Map<String, AtomicInteger> puts,
+      Map<String, Map<Integer, byte[]>> uploads,
+      String key)
+      throws Exception {
+    Map<String, String> query = query(exchange);
+    if (exchange.getRequestMethod().equals("POST") && query.containsKey("uploads")) {
+      String uploadId = String.valueOf(uploads.size() + 1);
+      uploads.put(uploadId, new ConcurrentHashMap<>());
+      send(
+          exchange,
+          200,
+          ("<InitiateMultipartUploadResult><Bucket>bucket</Bucket><Key>"
+                  + key
+                  + "</Key><UploadId>"
+                  + uploadId
+                  + "</UploadId></InitiateMultipartUploadResult>")
+              .getBytes(StandardCharsets.UTF_8));
+      return;
+    }
+    if (exchange.getRequestMethod().equals("GET")) {
+      // ListParts, which the client calls before uploading the parts
+      StringBuilder xml = new StringBuilder("<ListPartsResult><Bucket>bucket</Bucket>");
+      xml.append("<Key>").append(key).append("</Key>");
+      xml.append("<UploadId>").append(query.get("uploadId")).append("</UploadId>");
+      xml.append("<IsTruncated>false</IsTruncated>");
+      for (Map.Entry<Integer, byte[]> part :
+          new TreeMap<>(uploads.get(query.get("uploadId"))).entrySet()) {
+        xml.append("<Part><PartNumber>").append(part.getKey()).append("</PartNumber>");
+        xml.append("<ETag>").append(etag(part.getValue())).append("</ETag>");
+        xml.append("<Size>").append(part.getValue().length).append("</Size></Part>");
+      }
+      xml.append("</ListPartsResult>");
+      send(exchange, 200, xml.toString().getBytes(StandardCharsets.UTF_8));
+      return;
+    }
+    if (exchange.getRequestMethod().equals("POST")) {
+      // Completion: the parts are assembled in the order of their numbers
+      Map<Integer, byte[]> parts = new TreeMap<>(uploads.remove(query.get("uploadId")));
+      ByteArrayOutputStream body = new ByteArrayOutputStream();
+      for (byte[] part : parts.values()) {
+        body.write(part);
+      }
+      objects.put(key, body.toString(StandardCharsets.UTF_8));
+      send(
+          exchange,
+          200,
+          ("<CompleteMultipartUploadResult><Bucket>bucket</Bucket><Key>"
+                  + key
+                  + "</Key><ETag>\"multipart-"
+                  + parts.size()
+                  + "\"</ETag></CompleteMultipartUploadResult>")
+              .getBytes(StandardCharsets.UTF_8));
+      return;
+    }
+
+    puts.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+    byte[] body = readBody(exchange);
+    if (query.containsKey("uploadId")) {
+      uploads.get(query.get("uploadId")).put(Integer.parseInt(query.get("partNumber")), body);
+    } else {
+      objects.put(key, new String(body, StandardCharsets.UTF_8));
+    }
+    exchange.getResponseHeaders().add("ETag", etag(body));
+    exchange.sendResponseHeaders(200, -1);
+  }
+
+  /** Reads a request body, decoding the signed chunks the client sends over plain HTTP. */
+  private static byte[] readBody(HttpExchange exchange) throws IOException {
+    byte[] raw = exchange.getRequestBody().readAllBytes();
+    String contentHash = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+    if (contentHash == null || !contentHash.startsWith("STREAMING-")) {
+      return raw;
+    }
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    int position = 0;
+    while (true) {
+      int lineEnd = position;
+      while (raw[lineEnd] != '\r') {
+        lineEnd++;
+      }
+      String header = new String(raw, position, lineEnd - position, StandardCharsets.US_ASCII);
+      int size = Integer.parseInt(header.split(";")[0], 16);
+      if (size == 0) {
+        return body.toByteArray();
+      }
+      body.write(raw, lineEnd + 2, size);
+      position = lineEnd + 2 + size + 2;
+    }
+  }
+
+  private static Map<String, String> query(HttpExchange exchange) {
+    Map<String, String> query = new HashMap<>();
+    String rawQuery = exchange.getRequestURI().getRawQuery();
+    if (rawQuery == null) {
+      return query;
+    }
+    for (String parameter : rawQuery.split("&")) {
+      String[] pair = parameter.split("=", 2);
+      query.put(pair[0], pair.length > 1 ? URLDecoder.decode(pair[1], StandardCharsets.UTF_8) : "");
+    }
+    return query;
+  }
+
+  private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+    exchange.sendResponseHeaders(status, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  // Single part uploads have the MD5 of their content as ETag, which the client checks
+  private static String etag(byte[] body) throws Exception {
+    return "\"" + HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(body)) + "\"";
+  }
 }
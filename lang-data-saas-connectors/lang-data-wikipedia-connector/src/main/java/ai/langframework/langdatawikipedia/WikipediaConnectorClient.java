@@ -4,11 +4,9 @@ import ai.langframework.langdatacore.ConnectorClient;
 import ai.langframework.langdatacore.Document;
 import ai.langframework.langdatacore.Logger;
 import ai.langframework.langdatacore.exceptions.LoaderException;
+import ai.langframework.langdatacore.io.HttpFetcher;
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -57,11 +55,8 @@ public class WikipediaConnectorClient implements ConnectorClient {
             + articleTitle.replace(" ", "_")
             + "&redirects=true&exintro=true";
 
-    URL url = new URL(apiUrl);
-    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-
-    try (BufferedReader reader =
-        new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
+    // Read through the shared fetcher, so that an unchanged article is served by its cache
+    try (BufferedReader reader = new BufferedReader(HttpFetcher.getDefault().openReader(apiUrl))) {
       StringBuilder response = new StringBuilder();
       String line;
 
@@ -75,9 +70,6 @@ public class WikipediaConnectorClient implements ConnectorClient {
       String text = extractContent(jsonString);
 
       return text;
-
-    } finally {
-      connection.disconnect();
     }
   }
 
@@ -1,19 +1,29 @@
 package ai.langframework.langdatamilvus;
 
 import ai.langframework.langdatacohereai.CohereAIConnectorClient;
+import ai.langframework.langdatacohereai.CohereEmbeddingProvider;
 import ai.langframework.langdatacore.ConnectorClient;
 import ai.langframework.langdatacore.Document;
+import ai.langframework.langdatacore.DocumentIds;
+import ai.langframework.langdatacore.FloatVectors;
 import ai.langframework.langdatacore.VectorInterface;
+import ai.langframework.langdatacore.embeddings.EmbeddingCache;
+import ai.langframework.langdatacore.embeddings.EmbeddingProvider;
+import ai.langframework.langdatacore.embeddings.EmbeddingProviderHolder;
 import ai.langframework.langdatacore.exceptions.LoaderException;
 import ai.langframework.langdataopenai.OpenAIConnectorClient;
+import ai.langframework.langdataopenai.OpenAIEmbeddingProvider;
 import com.alibaba.fastjson.JSONObject;
 import io.milvus.client.MilvusServiceClient;
 import io.milvus.grpc.DescribeCollectionResponse;
+import io.milvus.grpc.MutationResult;
 import io.milvus.param.ConnectParam;
 import io.milvus.param.R;
 import io.milvus.param.RpcStatus;
 import io.milvus.param.collection.DescribeCollectionParam;
 import io.milvus.param.collection.DropCollectionParam;
+import io.milvus.param.dml.InsertParam;
+import io.milvus.param.dml.UpsertParam;
 import io.milvus.param.highlevel.collection.CreateSimpleCollectionParam;
 import io.milvus.param.highlevel.dml.DeleteIdsParam;
 import io.milvus.param.highlevel.dml.GetIdsParam;
@@ -28,6 +38,7 @@ import io.milvus.response.QueryResultsWrapper;
 import io.milvus.response.QueryResultsWrapper.RowRecord;
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.Future;
 
 /** Milvus Connector Client */
 public class MilvusConnectorClient implements ConnectorClient, VectorInterface {
@@ -39,9 +50,12 @@ public class MilvusConnectorClient implements ConnectorClient, VectorInterface {
   private EmbeddingClientType embeddingClientType;
   private OpenAIConnectorClient modelOpenAIConnectorClient;
   private CohereAIConnectorClient modelCohereConnectorClient;
+  private final EmbeddingProviderHolder embeddings = new EmbeddingProviderHolder();
   private String embeddingModel = "text-embedding-ada-002";
   private long offset = 0L;
   private long limit = 10L;
+  private int batchSize = 100;
+  private long maxInsertBytes = 32L * 1024 * 1024;
 
   /** Default constructor for MilvusConnectorClient. Initializes the client to null. */
   public MilvusConnectorClient() {
@@ -90,10 +104,14 @@ public class MilvusConnectorClient implements ConnectorClient, VectorInterface {
         case OPENAI:
           modelOpenAIConnectorClient = new OpenAIConnectorClient();
           modelOpenAIConnectorClient.initializeClient(modelApiKey);
+          embeddings.setOwnedProvider(
+              new OpenAIEmbeddingProvider(modelOpenAIConnectorClient, embeddingModel));
           break;
         case COHERE:
           modelCohereConnectorClient = new CohereAIConnectorClient();
           modelCohereConnectorClient.initializeClient(modelApiKey);
+          embeddings.setOwnedProvider(
+              new CohereEmbeddingProvider(modelCohereConnectorClient, null));
           break;
         default:
           throw new Exception("Unsupported Embedding Client Type");
@@ -122,12 +140,69 @@ public class MilvusConnectorClient implements ConnectorClient, VectorInterface {
   }
 
   /**
-   * Sets the embedding model
+   * Sets the number of documents embedded together by addDocuments
+   *
+   * @param batchSize
+   */
+  public void setBatchSize(int batchSize) {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("Batch size must be positive");
+    }
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Sets the approximate maximum size in bytes of a single insert request
+   *
+   * @param maxInsertBytes
+   */
+  public void setMaxInsertBytes(long maxInsertBytes) {
+    if (maxInsertBytes <= 0) {
+      throw new IllegalArgumentException("Max insert bytes must be positive");
+    }
+    this.maxInsertBytes = maxInsertBytes;
+  }
+
+  /**
+   * Sets the embedding model. The provider created for the previous model is closed.
    *
    * @param embeddingModel
    */
   public void setEmbeddingModel(String embeddingModel) {
     this.embeddingModel = embeddingModel;
+    if (modelOpenAIConnectorClient != null) {
+      embeddings.setOwnedProvider(
+          new OpenAIEmbeddingProvider(modelOpenAIConnectorClient, embeddingModel));
+    }
+    if (modelCohereConnectorClient != null) {
+      embeddings.setOwnedProvider(
+          new CohereEmbeddingProvider(modelCohereConnectorClient, embeddingModel));
+    }
+  }
+
+  /**
+   * Sets the provider used to embed documents and queries, replacing the one created for the
+   * embedding client type. The embedding model set with setEmbeddingModel no longer applies.
+   *
+   * @param embeddingProvider The embedding provider to use.
+   */
+  public void setEmbeddingProvider(EmbeddingProvider embeddingProvider) {
+    embeddings.setProvider(embeddingProvider);
+    this.modelOpenAIConnectorClient = null;
+    this.modelCohereConnectorClient = null;
+  }
+
+  /**
+   * Sets the cache looked up before embedding documents and queries. Texts already embedded with
+   * the same model, in this run or an earlier one, are not sent to the embedding provider again.
+   * With the Cohere embedding client, set the model with setEmbeddingModel first, since the vectors
+   * of the default model of the API cannot be cached.
+   *
+   * @param embeddingCache The embedding cache to use, or null to stop caching.
+   * @throws IllegalStateException if the embedding provider does not name its model.
+   */
+  public void setEmbeddingCache(EmbeddingCache embeddingCache) {
+    embeddings.setCache(embeddingCache);
   }
 
   /**
@@ -511,69 +586,218 @@ public class MilvusConnectorClient implements ConnectorClient, VectorInterface {
   }
 
   /**
-   * Accepts a list of documents, convert it onto vectors and stores it into Milvus
+   * Accepts a list of documents, convert it onto vectors and stores it into Milvus. Documents are
+   * embedded in groups of batchSize, and each group is upserted asynchronously while the next group
+   * is being embedded. The primary key of each document is derived from its source and position, so
+   * adding the same documents again replaces their entities instead of duplicating them.
    *
    * @param documents
    */
   @Override
   public void addDocuments(List<Document> documents) {
     try {
-      if (collectionName == null) {
-        throw new Exception("Collection Name not set");
+      List<String> ids = new ArrayList<>(documents.size());
+      for (Document document : documents) {
+        ids.add(DocumentIds.of(document));
       }
-      if (embeddingClientType == EmbeddingClientType.OPENAI) {
-
-        List<JSONObject> jsonObject = new ArrayList<com.alibaba.fastjson.JSONObject>();
+      upsertDocuments(documents, ids);
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+  }
 
-        for (Document doc : documents) {
-          JSONObject row = new JSONObject();
-          List<Float> floatList = new ArrayList<>();
-          row.put("text", doc.getText());
+  /**
+   * Embeds documents and upserts them into Milvus, replacing the entities with the same primary
+   * keys. The primary key of a document is its id turned into a 64-bit integer.
+   *
+   * @param documents The documents to write.
+   * @param ids The id of each document.
+   * @throws Exception if the documents cannot be embedded or written.
+   */
+  @Override
+  public void upsertDocuments(List<Document> documents, List<String> ids) throws Exception {
+    writeDocuments(documents, ids);
+  }
 
-          List<Float[]> data =
-              modelOpenAIConnectorClient.embedding(List.of(doc.getText()), embeddingModel);
+  /**
+   * Deletes the entities of the given ids from the collection, in requests of at most batchSize
+   * primary keys.
+   *
+   * @param ids The ids passed to upsertDocuments.
+   * @throws Exception if the entities cannot be deleted.
+   */
+  @Override
+  public void deleteDocuments(List<String> ids) throws Exception {
+    if (collectionName == null) {
+      throw new Exception("Collection Name not set");
+    }
+    for (int start = 0; start < ids.size(); start += batchSize) {
+      List<Long> primaryIds = new ArrayList<>();
+      for (String id : ids.subList(start, Math.min(start + batchSize, ids.size()))) {
+        primaryIds.add(DocumentIds.toLong(id));
+      }
 
-          for (Float[] array : data) {
-            for (Float value : array) {
-              floatList.add(value);
-            }
-          }
+      DeleteIdsParam deleteParam =
+          DeleteIdsParam.newBuilder()
+              .withCollectionName(collectionName)
+              .withPrimaryIds(primaryIds)
+              .build();
 
-          row.put("vector", floatList);
-          row.put("id", generateRandomid().longValue());
-          jsonObject.add(row);
-        }
+      R<DeleteResponse> deleteRes = client.delete(deleteParam);
+      handleResponseStatus(deleteRes);
+    }
+  }
 
-        insertEntity(jsonObject);
+  /**
+   * Embeds documents in groups of batchSize and upserts each group asynchronously while the next
+   * group is being embedded.
+   *
+   * @param documents
+   * @param ids
+   * @throws Exception if the documents cannot be embedded or written
+   */
+  private void writeDocuments(List<Document> documents, List<String> ids) throws Exception {
+    if (collectionName == null) {
+      throw new Exception("Collection Name not set");
+    }
+    if (embeddings.get() == null) {
+      throw new Exception("Embedding Provider is not set");
+    }
+    if (documents.size() != ids.size()) {
+      throw new IllegalArgumentException("documents and ids must have the same length");
+    }
 
-      } else if (embeddingClientType == EmbeddingClientType.COHERE) {
+    List<Future<R<MutationResult>>> inFlight = Collections.emptyList();
 
-        List<JSONObject> jsonObject = new ArrayList<com.alibaba.fastjson.JSONObject>();
+    for (int start = 0; start < documents.size(); start += batchSize) {
+      int end = Math.min(start + batchSize, documents.size());
 
-        for (Document doc : documents) {
-          JSONObject row = new JSONObject();
-          List<Float> floatList = new ArrayList<>();
+      String[] texts = new String[end - start];
+      long[] primaryIds = new long[end - start];
+      for (int i = start; i < end; i++) {
+        texts[i - start] = documents.get(i).getText();
+        primaryIds[i - start] = DocumentIds.toLong(ids.get(i));
+      }
 
-          row.put("text", doc.getText());
+      // Embed this batch while the previous one is still being written
+      float[][] vectors = embeddings.get().embed(Arrays.asList(texts)).toArray(new float[0][]);
 
-          Float[] data = modelCohereConnectorClient.embedText(doc.getText());
+      awaitInserts(inFlight);
+      inFlight = submitColumns(primaryIds, texts, vectors, true);
+    }
 
-          for (Float f : data) {
-            floatList.add(f);
-          }
+    awaitInserts(inFlight);
+  }
 
-          row.put("vector", floatList);
-          row.put("id", generateRandomid().longValue());
+  /**
+   * Inserts entities given as parallel columns into the collection. Rows are sent in segments of at
+   * most maxInsertBytes, and the vectors are passed to the SDK without being copied into boxed
+   * lists.
+   *
+   * @param ids The primary keys of the rows.
+   * @param texts The text of each row.
+   * @param vectors The vector of each row.
+   * @return "Inserted Successfully" upon success or "Failed to insert" if there's an error.
+   */
+  public String insertColumns(long[] ids, String[] texts, float[][] vectors) {
+    try {
+      awaitInserts(submitColumns(ids, texts, vectors, false));
+    } catch (Exception e) {
+      e.printStackTrace();
+      return ("Failed to insert");
+    }
+    return ("Inserted Successfully");
+  }
 
-          jsonObject.add(row);
-        }
-        insertEntity(jsonObject);
+  /**
+   * Splits the columns into size-bounded segments and submits an asynchronous insert for each.
+   *
+   * @param ids
+   * @param texts
+   * @param vectors
+   * @param upsert true to replace the entities with the same primary keys, false to insert
+   * @return the pending insert of each segment
+   */
+  private List<Future<R<MutationResult>>> submitColumns(
+      long[] ids, String[] texts, float[][] vectors, boolean upsert) {
+    if (ids.length != texts.length || ids.length != vectors.length) {
+      throw new IllegalArgumentException("ids, texts and vectors must have the same length");
+    }
 
-      } else {
-        throw new Exception("Unsupported Embedding Client Type");
+    List<Future<R<MutationResult>>> futures = new ArrayList<>();
+    int segmentStart = 0;
+    long segmentBytes = 0;
+
+    for (int i = 0; i < ids.length; i++) {
+      // Approximate size of the row on the wire: id, float32 values and the text
+      long rowBytes = Long.BYTES + (long) Float.BYTES * vectors[i].length + texts[i].length();
+      if (i > segmentStart && segmentBytes + rowBytes > maxInsertBytes) {
+        futures.add(submitSegment(ids, texts, vectors, segmentStart, i, upsert));
+        segmentStart = i;
+        segmentBytes = 0;
       }
-    } catch (Exception e) {
-      e.printStackTrace();
+      segmentBytes += rowBytes;
+    }
+    if (segmentStart < ids.length) {
+      futures.add(submitSegment(ids, texts, vectors, segmentStart, ids.length, upsert));
+    }
+
+    return futures;
+  }
+
+  /**
+   * Submits an asynchronous column-based insert or upsert of the rows between from (inclusive) and
+   * to (exclusive).
+   *
+   * @param ids
+   * @param texts
+   * @param vectors
+   * @param from
+   * @param to
+   * @param upsert
+   * @return the pending insert
+   */
+  private Future<R<MutationResult>> submitSegment(
+      long[] ids, String[] texts, float[][] vectors, int from, int to, boolean upsert) {
+    List<Long> idColumn = new ArrayList<>(to - from);
+    List<List<Float>> vectorColumn = new ArrayList<>(to - from);
+    List<JSONObject> metaColumn = new ArrayList<>(to - from);
+
+    for (int i = from; i < to; i++) {
+      idColumn.add(ids[i]);
+      vectorColumn.add(FloatVectors.asList(vectors[i]));
+      JSONObject meta = new JSONObject();
+      meta.put("text", texts[i]);
+      metaColumn.add(meta);
+    }
+
+    List<InsertParam.Field> fields = new ArrayList<>();
+    fields.add(new InsertParam.Field("id", idColumn));
+    fields.add(new InsertParam.Field("vector", vectorColumn));
+    // Simple collections keep the text in the dynamic field
+    fields.add(new InsertParam.Field("$meta", metaColumn));
+
+    if (upsert) {
+      UpsertParam upsertParam =
+          UpsertParam.newBuilder().withCollectionName(collectionName).withFields(fields).build();
+      return client.upsertAsync(upsertParam);
+    }
+
+    InsertParam insertParam =
+        InsertParam.newBuilder().withCollectionName(collectionName).withFields(fields).build();
+
+    return client.insertAsync(insertParam);
+  }
+
+  /**
+   * Waits for the pending inserts to complete.
+   *
+   * @param futures
+   * @throws Exception if any of the inserts failed
+   */
+  private void awaitInserts(List<Future<R<MutationResult>>> futures) throws Exception {
+    for (Future<R<MutationResult>> future : futures) {
+      handleResponseStatus(future.get());
     }
   }
 
@@ -591,80 +815,31 @@ public class MilvusConnectorClient implements ConnectorClient, VectorInterface {
       if (collectionName == null) {
         throw new Exception("Collection Name not set");
       }
-      if (embeddingClientType == EmbeddingClientType.OPENAI) {
-
-        List<String> outputFields = new ArrayList<>();
-        outputFields.add("text");
-        outputFields.add("vector");
-
-        List<Float> floatList = new ArrayList<>();
-
-        List<Float[]> data = modelOpenAIConnectorClient.embedding(List.of(query), embeddingModel);
-
-        for (Float[] array : data) {
-          for (Float value : array) {
-            floatList.add(value);
-          }
-        }
-
-        List<RowRecord> result = SearchANN(floatList, outputFields, offset, limit);
-
-        for (RowRecord row : result) {
-          HashMap<String, String> metadata = new HashMap<>();
-          Object text = row.get("text");
-          Object vector = row.get("vector");
-          metadata.put("vector", vector.toString());
-          documents.add(new Document((String) text, metadata));
-        }
-
-        return documents;
-
-      } else if (embeddingClientType == EmbeddingClientType.COHERE) {
-
-        List<String> outputFields = new ArrayList<>();
-        outputFields.add("text");
-        outputFields.add("vector");
-
-        List<Float> floatList = new ArrayList<>();
-
-        Float[] data = modelCohereConnectorClient.embedText(query);
+      if (embeddings.get() == null) {
+        throw new Exception("Embedding Provider is not set");
+      }
 
-        for (Float f : data) {
-          floatList.add(f);
-        }
+      List<String> outputFields = new ArrayList<>();
+      outputFields.add("text");
+      outputFields.add("vector");
 
-        List<RowRecord> result = SearchANN(floatList, outputFields, offset, limit);
+      List<Float> queryVector = FloatVectors.asList(embeddings.get().embed(query));
 
-        for (RowRecord row : result) {
-          HashMap<String, String> metadata = new HashMap<>();
-          Object text = row.get("text");
-          Object vector = row.get("vector");
-          metadata.put("vector", (String) vector);
-          documents.add(new Document((String) text, metadata));
-        }
-        return documents;
+      List<RowRecord> result = SearchANN(queryVector, outputFields, offset, limit);
 
-      } else {
-        throw new Exception("Unsupported Embedding Client Type");
+      for (RowRecord row : result) {
+        HashMap<String, String> metadata = new HashMap<>();
+        Object text = row.get("text");
+        Object vector = row.get("vector");
+        metadata.put("vector", vector.toString());
+        documents.add(new Document((String) text, metadata));
       }
+
+      return documents;
     } catch (Exception e) {
       e.printStackTrace();
     }
 
     return null;
   }
-
-  /**
-   * Generates random Integer Ids of length 3
-   *
-   * @return Integer Id
-   */
-  private Integer generateRandomid() {
-    final int length = 3;
-    final String CHARACTERS = "0123456789";
-    Random random = new Random();
-
-    // Generating a random integer between 0 and Integer.MAX_VALUE
-    return random.nextInt();
-  }
 }
@@ -1,18 +1,31 @@
 package ai.langframework.langdatapgvector;
 
 import ai.langframework.langdatacohereai.CohereAIConnectorClient;
+import ai.langframework.langdatacohereai.CohereEmbeddingProvider;
 import ai.langframework.langdatacore.ConnectorClient;
 import ai.langframework.langdatacore.Document;
+import ai.langframework.langdatacore.DocumentIds;
 import ai.langframework.langdatacore.VectorInterface;
+import ai.langframework.langdatacore.embeddings.EmbeddingCache;
+import ai.langframework.langdatacore.embeddings.EmbeddingProvider;
+import ai.langframework.langdatacore.embeddings.EmbeddingProviderHolder;
 import ai.langframework.langdatacore.exceptions.LoaderException;
 import ai.langframework.langdataopenai.OpenAIConnectorClient;
+import ai.langframework.langdataopenai.OpenAIEmbeddingProvider;
 import com.pgvector.PGvector;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
 
 /** Pgvector Connector Client */
 public class PgvectorConnectorClient implements ConnectorClient, VectorInterface {
@@ -21,9 +34,16 @@ public class PgvectorConnectorClient implements ConnectorClient, VectorInterface
   private EmbeddingClientType embeddingClientType;
   private OpenAIConnectorClient modelOpenAIConnectorClient;
   private CohereAIConnectorClient modelCohereConnectorClient;
+  private final EmbeddingProviderHolder embeddings = new EmbeddingProviderHolder();
   private String tableName;
   private String embeddingModel = "text-embedding-ada-002";
   private int limit = 5;
+  private int batchSize = 100;
+  private boolean useCopy = true;
+
+  private static final byte[] COPY_SIGNATURE = {
+    'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0
+  };
 
   /** Constructs a new PgvectorConnectorClient with a null connection. */
   public PgvectorConnectorClient() {
@@ -60,10 +80,14 @@ public class PgvectorConnectorClient implements ConnectorClient, VectorInterface
         case OPENAI:
           modelOpenAIConnectorClient = new OpenAIConnectorClient();
           modelOpenAIConnectorClient.initializeClient(modelApiKey);
+          embeddings.setOwnedProvider(
+              new OpenAIEmbeddingProvider(modelOpenAIConnectorClient, embeddingModel));
           break;
         case COHERE:
           modelCohereConnectorClient = new CohereAIConnectorClient();
           modelCohereConnectorClient.initializeClient(modelApiKey);
+          embeddings.setOwnedProvider(
+              new CohereEmbeddingProvider(modelCohereConnectorClient, null));
           break;
         default:
           throw new Exception("Unsupported Embedding Client Type");
@@ -79,12 +103,46 @@ public class PgvectorConnectorClient implements ConnectorClient, VectorInterface
   }
 
   /**
-   * Sets the embedding model for the Pgvector connector client.
+   * Sets the embedding model for the Pgvector connector client. The provider created for the
+   * previous model is closed.
    *
    * @param embeddingModel The embedding model to set.
    */
   public void setEmbeddingModel(String embeddingModel) {
     this.embeddingModel = embeddingModel;
+    if (modelOpenAIConnectorClient != null) {
+      embeddings.setOwnedProvider(
+          new OpenAIEmbeddingProvider(modelOpenAIConnectorClient, embeddingModel));
+    }
+    if (modelCohereConnectorClient != null) {
+      embeddings.setOwnedProvider(
+          new CohereEmbeddingProvider(modelCohereConnectorClient, embeddingModel));
+    }
+  }
+
+  /**
+   * Sets the provider used to embed documents and queries, replacing the one created for the
+   * embedding client type. The embedding model set with setEmbeddingModel no longer applies.
+   *
+   * @param embeddingProvider The embedding provider to use.
+   */
+  public void setEmbeddingProvider(EmbeddingProvider embeddingProvider) {
+    embeddings.setProvider(embeddingProvider);
+    this.modelOpenAIConnectorClient = null;
+    this.modelCohereConnectorClient = null;
+  }
+
+  /**
+   * Sets the cache looked up before embedding documents and queries. Texts already embedded with
+   * the same model, in this run or an earlier one, are not sent to the embedding provider again.
+   * With the Cohere embedding client, set the model with setEmbeddingModel first, since the vectors
+   * of the default model of the API cannot be cached.
+   *
+   * @param embeddingCache The embedding cache to use, or null to stop caching.
+   * @throws IllegalStateException if the embedding provider does not name its model.
+   */
+  public void setEmbeddingCache(EmbeddingCache embeddingCache) {
+    embeddings.setCache(embeddingCache);
   }
 
   /**
@@ -96,6 +154,28 @@ public class PgvectorConnectorClient implements ConnectorClient, VectorInterface
     this.limit = limit;
   }
 
+  /**
+   * Sets the number of documents embedded and written together by addDocuments
+   *
+   * @param batchSize
+   */
+  public void setBatchSize(int batchSize) {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("Batch size must be positive");
+    }
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Sets whether addDocuments loads rows with a binary COPY when the connection supports it, rather
+   * than a batch of INSERT statements
+   *
+   * @param useCopy
+   */
+  public void setUseCopy(boolean useCopy) {
+    this.useCopy = useCopy;
+  }
+
   /**
    * Sets the table name for the PgvectorConnectorClient.
    *
@@ -304,7 +384,9 @@ public class PgvectorConnectorClient implements ConnectorClient, VectorInterface
   }
 
   /**
-   * Accepts a list of documents, convert it onto vectors and stores it into Database
+   * Accepts a list of documents, convert it onto vectors and stores it into Database. Documents are
+   * embedded and written in groups of batchSize, using one embedding request and one database round
+   * trip per group.
    *
    * @param documents
    */
@@ -314,39 +396,25 @@ public class PgvectorConnectorClient implements ConnectorClient, VectorInterface
       if (tableName == null) {
         throw new Exception("Table Name is not set");
       }
-      if (embeddingClientType == EmbeddingClientType.OPENAI) {
-
-        for (Document doc : documents) {
-          Map<String, Object> columnValues = new HashMap<>();
-
-          List<Float[]> data =
-              modelOpenAIConnectorClient.embedding(List.of(doc.getText()), embeddingModel);
-
-          columnValues.put("vector", new PGvector(convertFirstArrayToPrimitive(data)));
-          columnValues.put("text", doc.getText());
+      if (embeddings.get() == null) {
+        throw new Exception("Embedding Provider is not set");
+      }
+      for (int start = 0; start < documents.size(); start += batchSize) {
+        List<Document> batch =
+            documents.subList(start, Math.min(start + batchSize, documents.size()));
 
-          insertData(tableName, columnValues);
+        List<String> texts = new ArrayList<>(batch.size());
+        for (Document doc : batch) {
+          texts.add(doc.getText());
         }
-      } else if (embeddingClientType == EmbeddingClientType.COHERE) {
-
-        for (Document doc : documents) {
-          Map<String, Object> columnValues = new HashMap<>();
-
-          Float[] data = modelCohereConnectorClient.embedText(doc.getText());
 
-          float[] floatArray = new float[data.length];
+        List<float[]> vectors = embeddings.get().embed(texts);
 
-          for (int i = 0; i < data.length; i++) {
-            floatArray[i] = data[i];
-          }
-
-          columnValues.put("vector", new PGvector(floatArray));
-          columnValues.put("text", doc.getText());
-
-          insertData(tableName, columnValues);
+        if (useCopy && connection.isWrapperFor(PGConnection.class)) {
+          copyData(tableName, texts, vectors);
+        } else {
+          insertBatch(tableName, texts, vectors);
         }
-      } else {
-        throw new Exception("Unsupported Embedding Client Type");
       }
     } catch (Exception e) {
       e.printStackTrace();
@@ -354,85 +422,183 @@ public class PgvectorConnectorClient implements ConnectorClient, VectorInterface
   }
 
   /**
-   * Returns a list of top 5 documents that are similar to the query passed
+   * Embeds documents and writes them in groups of batchSize under the given ids, replacing the rows
+   * already stored under those ids. The id of a document is turned into a 64-bit integer and
+   * written to the "id" column, which must be the primary key of the table.
    *
-   * @param query
-   * @return
+   * @param documents The documents to write.
+   * @param ids The id of each document.
+   * @throws Exception if the documents cannot be embedded or written.
    */
   @Override
-  public List<Document> searchSimilarity(String query) {
-    List<Document> documents = new ArrayList<>();
-    try {
-      if (tableName == null) {
-        throw new Exception("table name is not set");
-      }
-      if (embeddingClientType == EmbeddingClientType.OPENAI) {
-
-        List<Float[]> data = modelOpenAIConnectorClient.embedding(List.of(query), embeddingModel);
+  public void upsertDocuments(List<Document> documents, List<String> ids) throws Exception {
+    if (tableName == null) {
+      throw new Exception("Table Name is not set");
+    }
+    if (embeddings.get() == null) {
+      throw new Exception("Embedding Provider is not set");
+    }
+    if (documents.size() != ids.size()) {
+      throw new IllegalArgumentException("documents and ids must have the same length");
+    }
 
-        ResultSet response = getNN(tableName, convertFirstArrayToPrimitive(data), limit);
+    String query =
+        "INSERT INTO "
+            + tableName
+            + " (id, text, vector) VALUES (?, ?, ?)"
+            + " ON CONFLICT (id) DO UPDATE SET text = EXCLUDED.text, vector = EXCLUDED.vector";
+
+    try (PreparedStatement upsertStmt = connection.prepareStatement(query)) {
+      for (int start = 0; start < documents.size(); start += batchSize) {
+        int end = Math.min(start + batchSize, documents.size());
+
+        List<String> texts = new ArrayList<>(end - start);
+        for (Document doc : documents.subList(start, end)) {
+          texts.add(doc.getText());
+        }
 
-        while (response.next()) {
-          HashMap<String, String> metadata = new HashMap<>();
-          String text = response.getObject("text").toString();
-          metadata.put("vectors", response.getObject("vector").toString());
+        List<float[]> vectors = embeddings.get().embed(texts);
 
-          documents.add(new Document(text, metadata));
+        for (int i = 0; i < texts.size(); i++) {
+          upsertStmt.setLong(1, DocumentIds.toLong(ids.get(start + i)));
+          upsertStmt.setString(2, texts.get(i));
+          upsertStmt.setObject(3, new PGvector(vectors.get(i)));
+          upsertStmt.addBatch();
         }
-        return documents;
-
-      } else if (embeddingClientType == EmbeddingClientType.COHERE) {
+        upsertStmt.executeBatch();
+      }
+    }
+  }
 
-        Float[] data = modelCohereConnectorClient.embedText(query);
+  /**
+   * Deletes the rows of the given ids from the table, with one statement per batchSize ids.
+   *
+   * @param ids The ids passed to upsertDocuments.
+   * @throws Exception if the rows cannot be deleted.
+   */
+  @Override
+  public void deleteDocuments(List<String> ids) throws Exception {
+    if (tableName == null) {
+      throw new Exception("Table Name is not set");
+    }
 
-        float[] floatArray = new float[data.length];
+    String query = "DELETE FROM " + tableName + " WHERE id = ANY(?)";
 
-        for (int i = 0; i < data.length; i++) {
-          floatArray[i] = data[i];
+    try (PreparedStatement deleteStmt = connection.prepareStatement(query)) {
+      for (int start = 0; start < ids.size(); start += batchSize) {
+        List<String> batch = ids.subList(start, Math.min(start + batchSize, ids.size()));
+        Long[] primaryIds = new Long[batch.size()];
+        for (int i = 0; i < primaryIds.length; i++) {
+          primaryIds[i] = DocumentIds.toLong(batch.get(i));
         }
+        deleteStmt.setArray(1, connection.createArrayOf("bigint", primaryIds));
+        deleteStmt.executeUpdate();
+      }
+    }
+  }
 
-        ResultSet response = getNN(tableName, floatArray, limit);
-
-        while (response.next()) {
-          HashMap<String, String> metadata = new HashMap<>();
-          String text = response.getObject("text").toString();
-          metadata.put("vectors", response.getObject("vector").toString());
+  /**
+   * Inserts the texts and their vectors into the "text" and "vector" columns of the table with a
+   * single JDBC batch.
+   *
+   * @param tableName
+   * @param texts
+   * @param vectors
+   * @throws SQLException
+   */
+  public void insertBatch(String tableName, List<String> texts, List<float[]> vectors)
+      throws SQLException {
+    String query = "INSERT INTO " + tableName + " (text, vector) VALUES (?, ?)";
 
-          documents.add(new Document(text, metadata));
-        }
-        return documents;
+    try (PreparedStatement insertStmt = connection.prepareStatement(query)) {
+      for (int i = 0; i < texts.size(); i++) {
+        insertStmt.setString(1, texts.get(i));
+        insertStmt.setObject(2, new PGvector(vectors.get(i)));
+        insertStmt.addBatch();
+      }
+      insertStmt.executeBatch();
+    }
+  }
 
-      } else {
-        throw new Exception("Unsupported Embedding Client Type");
+  /**
+   * Loads the texts and their vectors into the "text" and "vector" columns of the table with a
+   * single binary COPY. Requires a PostgreSQL JDBC connection.
+   *
+   * @param tableName
+   * @param texts
+   * @param vectors
+   * @return the number of rows copied
+   * @throws SQLException
+   * @throws IOException
+   */
+  public long copyData(String tableName, List<String> texts, List<float[]> vectors)
+      throws SQLException, IOException {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(buffer);
+
+    // Binary COPY header: signature, flags field and header extension length
+    out.write(COPY_SIGNATURE);
+    out.writeInt(0);
+    out.writeInt(0);
+
+    for (int i = 0; i < texts.size(); i++) {
+      out.writeShort(2);
+
+      byte[] text = texts.get(i).getBytes(StandardCharsets.UTF_8);
+      out.writeInt(text.length);
+      out.write(text);
+
+      // pgvector binary format: dimensions, unused, then the float4 values
+      float[] vector = vectors.get(i);
+      out.writeInt(4 + 4 * vector.length);
+      out.writeShort(vector.length);
+      out.writeShort(0);
+      for (float value : vector) {
+        out.writeFloat(value);
       }
-    } catch (Exception e) {
-      e.printStackTrace();
     }
 
-    return null;
+    // File trailer
+    out.writeShort(-1);
+    out.flush();
+
+    CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+    return copyManager.copyIn(
+        "COPY " + tableName + " (text, vector) FROM STDIN (FORMAT BINARY)",
+        new ByteArrayInputStream(buffer.toByteArray()));
   }
 
   /**
-   * Converts the first array in the List of Float array to a primitive float array
+   * Returns a list of top 5 documents that are similar to the query passed
    *
-   * @param listOfArrays
+   * @param query
    * @return
    */
-  private float[] convertFirstArrayToPrimitive(List<Float[]> listOfArrays) {
-    // Check if the list is not empty
-    if (!listOfArrays.isEmpty()) {
-      // Get the first Float[] array
-      Float[] firstArray = listOfArrays.get(0);
-
-      // Convert the first Float[] array to float[]
-      float[] resultArray = new float[firstArray.length];
-      for (int i = 0; i < firstArray.length; i++) {
-        resultArray[i] = firstArray[i];
+  @Override
+  public List<Document> searchSimilarity(String query) {
+    List<Document> documents = new ArrayList<>();
+    try {
+      if (tableName == null) {
+        throw new Exception("table name is not set");
+      }
+      if (embeddings.get() == null) {
+        throw new Exception("Embedding Provider is not set");
+      }
+
+      ResultSet response = getNN(tableName, embeddings.get().embed(query), limit);
+
+      while (response.next()) {
+        HashMap<String, String> metadata = new HashMap<>();
+        String text = response.getObject("text").toString();
+        metadata.put("vectors", response.getObject("vector").toString());
+
+        documents.add(new Document(text, metadata));
       }
-      return resultArray;
-    } else {
-      // If the list is empty, return an empty float array
-      return new float[0];
+      return documents;
+    } catch (Exception e) {
+      e.printStackTrace();
     }
+
+    return null;
   }
 }
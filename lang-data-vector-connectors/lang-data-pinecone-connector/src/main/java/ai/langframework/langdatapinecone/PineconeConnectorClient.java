@@ -1,11 +1,20 @@
 package ai.langframework.langdatapinecone;
 
 import ai.langframework.langdatacohereai.CohereAIConnectorClient;
+import ai.langframework.langdatacohereai.CohereEmbeddingProvider;
 import ai.langframework.langdatacore.ConnectorClient;
 import ai.langframework.langdatacore.Document;
+import ai.langframework.langdatacore.DocumentIds;
+import ai.langframework.langdatacore.FloatVectors;
 import ai.langframework.langdatacore.VectorInterface;
+import ai.langframework.langdatacore.embeddings.EmbeddingCache;
+import ai.langframework.langdatacore.embeddings.EmbeddingProvider;
+import ai.langframework.langdatacore.embeddings.EmbeddingProviderHolder;
 import ai.langframework.langdatacore.exceptions.LoaderException;
 import ai.langframework.langdataopenai.OpenAIConnectorClient;
+import ai.langframework.langdataopenai.OpenAIEmbeddingProvider;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.protobuf.Struct;
 import com.google.protobuf.Value;
 import io.pinecone.PineconeClientConfig;
@@ -16,7 +25,8 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import org.apache.commons.text.RandomStringGenerator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
 
 /** Pinecone Connector Client */
 public class PineconeConnectorClient implements ConnectorClient, VectorInterface {
@@ -28,6 +38,9 @@ public class PineconeConnectorClient implements ConnectorClient, VectorInterface
   private EmbeddingClientType embeddingClientType;
   private OpenAIConnectorClient modelOpenAIConnectorClient;
   private CohereAIConnectorClient modelCohereConnectorClient;
+  private final EmbeddingProviderHolder embeddings = new EmbeddingProviderHolder();
+  private int batchSize = 100;
+  private int maxConcurrentRequests = 4;
 
   /** The default constructor for Pinecone Connector Client */
   public PineconeConnectorClient() {
@@ -94,10 +107,14 @@ public class PineconeConnectorClient implements ConnectorClient, VectorInterface
         case OPENAI:
           modelOpenAIConnectorClient = new OpenAIConnectorClient();
           modelOpenAIConnectorClient.initializeClient(modelApiKey);
+          embeddings.setOwnedProvider(
+              new OpenAIEmbeddingProvider(modelOpenAIConnectorClient, embeddingModel));
           break;
         case COHERE:
           modelCohereConnectorClient = new CohereAIConnectorClient();
           modelCohereConnectorClient.initializeClient(modelApiKey);
+          embeddings.setOwnedProvider(
+              new CohereEmbeddingProvider(modelCohereConnectorClient, null));
           break;
         default:
           throw new Exception("Unsupported Embedding Client Type");
@@ -117,12 +134,46 @@ public class PineconeConnectorClient implements ConnectorClient, VectorInterface
   }
 
   /**
-   * Sets the embedding model for the Pinecone connector client.
+   * Sets the embedding model for the Pinecone connector client. The provider created for the
+   * previous model is closed.
    *
    * @param embeddingModel The embedding model to set.
    */
   public void setEmbeddingModel(String embeddingModel) {
     this.embeddingModel = embeddingModel;
+    if (modelOpenAIConnectorClient != null) {
+      embeddings.setOwnedProvider(
+          new OpenAIEmbeddingProvider(modelOpenAIConnectorClient, embeddingModel));
+    }
+    if (modelCohereConnectorClient != null) {
+      embeddings.setOwnedProvider(
+          new CohereEmbeddingProvider(modelCohereConnectorClient, embeddingModel));
+    }
+  }
+
+  /**
+   * Sets the provider used to embed documents and queries, replacing the one created for the
+   * embedding client type. The embedding model set with setEmbeddingModel no longer applies.
+   *
+   * @param embeddingProvider The embedding provider to use.
+   */
+  public void setEmbeddingProvider(EmbeddingProvider embeddingProvider) {
+    embeddings.setProvider(embeddingProvider);
+    this.modelOpenAIConnectorClient = null;
+    this.modelCohereConnectorClient = null;
+  }
+
+  /**
+   * Sets the cache looked up before embedding documents and queries. Texts already embedded with
+   * the same model, in this run or an earlier one, are not sent to the embedding provider again.
+   * With the Cohere embedding client, set the model with setEmbeddingModel first, since the vectors
+   * of the default model of the API cannot be cached.
+   *
+   * @param embeddingCache The embedding cache to use, or null to stop caching.
+   * @throws IllegalStateException if the embedding provider does not name its model.
+   */
+  public void setEmbeddingCache(EmbeddingCache embeddingCache) {
+    embeddings.setCache(embeddingCache);
   }
 
   /**
@@ -135,27 +186,39 @@ public class PineconeConnectorClient implements ConnectorClient, VectorInterface
   }
 
   /**
-   * Upserts the list of vectors and its corresponding text into the Pinecone vector store.
+   * Sets the maximum number of vectors sent in a single upsert request.
+   *
+   * @param batchSize The batch size to set.
+   */
+  public void setBatchSize(int batchSize) {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("Batch size must be positive");
+    }
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Sets the maximum number of upsert requests in flight at a time.
+   *
+   * @param maxConcurrentRequests The number of concurrent requests to set.
+   */
+  public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+    if (maxConcurrentRequests <= 0) {
+      throw new IllegalArgumentException("Max concurrent requests must be positive");
+    }
+    this.maxConcurrentRequests = maxConcurrentRequests;
+  }
+
+  /**
+   * Upserts the list of vectors and its corresponding text into the Pinecone vector store. The id
+   * of the vector is derived from the text, so upserting the same text again overwrites it.
    *
    * @param vectors The list of vectors of the text.
    * @param text The text associated with the vectors.
    */
   public void upsertVectors(List<Float> vectors, String text) {
     try {
-      Vector v1 =
-          Vector.newBuilder()
-              .setId(
-                  new RandomStringGenerator.Builder()
-                      .withinRange('0', 'z')
-                      .filteredBy(Character::isLetterOrDigit)
-                      .build()
-                      .generate(3))
-              .addAllValues(vectors)
-              .setMetadata(
-                  Struct.newBuilder()
-                      .putFields("Text", Value.newBuilder().setStringValue(text).build())
-                      .build())
-              .build();
+      Vector v1 = buildVector(DocumentIds.sha256Hex(text), vectors, text);
 
       UpsertRequest upsertRequest =
           UpsertRequest.newBuilder().addVectors(v1).setNamespace(namespace).build();
@@ -170,6 +233,91 @@ public class PineconeConnectorClient implements ConnectorClient, VectorInterface
     }
   }
 
+  /**
+   * Upserts vectors in requests of at most batchSize vectors. Requests are sent over the
+   * asynchronous stub with at most maxConcurrentRequests in flight.
+   *
+   * @param vectors The vectors to upsert.
+   * @return The number of vectors upserted.
+   * @throws Exception if any of the requests failed.
+   */
+  public long upsertBatch(List<Vector> vectors) throws Exception {
+    Semaphore permits = new Semaphore(maxConcurrentRequests);
+    List<ListenableFuture<UpsertResponse>> responses = new ArrayList<>();
+    submitUpserts(vectors, permits, responses);
+    return awaitUpserts(responses);
+  }
+
+  /**
+   * Sends vectors in requests of at most batchSize vectors, waiting for a permit before each one.
+   *
+   * @param vectors The vectors to upsert.
+   * @param permits The requests allowed in flight, released as they complete.
+   * @param responses The list to which the pending responses are added.
+   * @throws InterruptedException if interrupted while waiting for a permit.
+   */
+  private void submitUpserts(
+      List<Vector> vectors, Semaphore permits, List<ListenableFuture<UpsertResponse>> responses)
+      throws InterruptedException {
+    for (int start = 0; start < vectors.size(); start += batchSize) {
+      UpsertRequest upsertRequest =
+          UpsertRequest.newBuilder()
+              .addAllVectors(vectors.subList(start, Math.min(start + batchSize, vectors.size())))
+              .setNamespace(namespace)
+              .build();
+
+      permits.acquire();
+      ListenableFuture<UpsertResponse> response = connection.getFutureStub().upsert(upsertRequest);
+      response.addListener(permits::release, MoreExecutors.directExecutor());
+      responses.add(response);
+    }
+  }
+
+  /**
+   * Waits for every pending upsert.
+   *
+   * @param responses The pending responses.
+   * @return The number of vectors upserted.
+   * @throws Exception if any of the requests failed.
+   */
+  private long awaitUpserts(List<ListenableFuture<UpsertResponse>> responses) throws Exception {
+    long upsertedCount = 0;
+    Exception failure = null;
+    for (ListenableFuture<UpsertResponse> response : responses) {
+      try {
+        upsertedCount += response.get().getUpsertedCount();
+      } catch (ExecutionException e) {
+        // Wait for the remaining requests before reporting the failure
+        if (failure == null) {
+          failure = new Exception("Failed to upsert vectors", e.getCause());
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+    return upsertedCount;
+  }
+
+  /**
+   * Builds a vector with its text stored in the "Text" metadata field.
+   *
+   * @param id The id of the vector.
+   * @param values The values of the vector.
+   * @param text The text associated with the vector.
+   * @return The vector.
+   */
+  private Vector buildVector(String id, List<Float> values, String text) {
+    return Vector.newBuilder()
+        .setId(id)
+        .addAllValues(values)
+        .setMetadata(
+            Struct.newBuilder()
+                .putFields("Text", Value.newBuilder().setStringValue(text).build())
+                .build())
+        .build();
+  }
+
   /**
    * Searches for similar records for the passed vectors.
    *
@@ -235,86 +383,128 @@ public class PineconeConnectorClient implements ConnectorClient, VectorInterface
   }
 
   /**
-   * Accepts a list of documents, convert it onto vectors and stores it into Database
+   * Accepts a list of documents, convert it onto vectors and stores it into Database. Documents are
+   * embedded in groups of batchSize, and the id of each vector is derived from the source and chunk
+   * index of its document, so ingesting the same documents again overwrites them.
    *
    * @param documents
    */
   @Override
   public void addDocuments(List<Document> documents) {
     try {
-      if (embeddingClientType == EmbeddingClientType.OPENAI) {
-        for (Document doc : documents) {
-          List<Float[]> data =
-              modelOpenAIConnectorClient.embedding(List.of(doc.getText()), embeddingModel);
-          List<Float> floatList = new ArrayList<>();
-          for (Float[] array : data) {
-            for (Float value : array) {
-              floatList.add(value);
-            }
-          }
-          upsertVectors(floatList, doc.getText());
-        }
-      } else if (embeddingClientType == EmbeddingClientType.COHERE) {
-        for (Document doc : documents) {
-          Float[] data = modelCohereConnectorClient.embedText(doc.getText());
-          List<Float> floatList = new ArrayList<>();
-          for (Float value : data) {
-            floatList.add(value);
-          }
-          upsertVectors(floatList, doc.getText());
-        }
-      } else {
-        throw new Exception("Unsupported Embedding Client Type");
+      List<String> ids = new ArrayList<>(documents.size());
+      for (Document doc : documents) {
+        ids.add(DocumentIds.of(doc));
       }
+      upsertDocuments(documents, ids);
     } catch (Exception e) {
       e.printStackTrace();
     }
   }
 
   /**
-   * Returns a list of documents that are similar to the query passed
+   * Embeds documents in groups of batchSize and upserts them under the given ids, replacing the
+   * vectors already stored under those ids. Each group is sent as soon as it is embedded, so the
+   * next group is embedded while earlier ones are being written.
    *
-   * @param query
-   * @return
+   * @param documents The documents to write.
+   * @param ids The id of each document.
+   * @throws Exception if the documents cannot be embedded or written.
    */
   @Override
-  public List<Document> searchSimilarity(String query) {
-    List<Document> documents = new ArrayList<>();
-    try {
-      if (embeddingClientType == EmbeddingClientType.OPENAI) {
-
-        List<Float[]> data = modelOpenAIConnectorClient.embedding(List.of(query), embeddingModel);
-        List<Float> floatList = new ArrayList<>();
-        for (Float[] array : data) {
-          for (Float value : array) {
-            floatList.add(value);
-          }
-        }
-        List<String> response = query(floatList);
-        for (String text : response) {
-          documents.add(new Document(text));
-        }
-        return documents;
+  public void upsertDocuments(List<Document> documents, List<String> ids) throws Exception {
+    if (embeddings.get() == null) {
+      throw new Exception("Embedding Provider is not set");
+    }
+    if (documents.size() != ids.size()) {
+      throw new IllegalArgumentException("documents and ids must have the same length");
+    }
 
-      } else if (embeddingClientType == EmbeddingClientType.COHERE) {
+    Semaphore permits = new Semaphore(maxConcurrentRequests);
+    List<ListenableFuture<UpsertResponse>> responses = new ArrayList<>();
 
-        Float[] data = modelCohereConnectorClient.embedText(query);
+    for (int start = 0; start < documents.size(); start += batchSize) {
+      List<Document> batch =
+          documents.subList(start, Math.min(start + batchSize, documents.size()));
 
-        List<Float> floatList = new ArrayList<>();
-        for (Float value : data) {
-          floatList.add(value);
-        }
+      List<String> texts = new ArrayList<>(batch.size());
+      for (Document doc : batch) {
+        texts.add(doc.getText());
+      }
+
+      List<float[]> data = embeddings.get().embed(texts);
+
+      List<Vector> vectors = new ArrayList<>(batch.size());
+      for (int i = 0; i < batch.size(); i++) {
+        vectors.add(
+            buildVector(ids.get(start + i), FloatVectors.asList(data.get(i)), texts.get(i)));
+      }
+      submitUpserts(vectors, permits, responses);
+    }
+
+    awaitUpserts(responses);
+  }
 
-        List<String> response = query(floatList);
+  /**
+   * Deletes the vectors of the given ids from the namespace, in requests of at most batchSize ids
+   * with at most maxConcurrentRequests in flight.
+   *
+   * @param ids The ids to delete.
+   * @throws Exception if any of the requests failed.
+   */
+  @Override
+  public void deleteDocuments(List<String> ids) throws Exception {
+    Semaphore permits = new Semaphore(maxConcurrentRequests);
+    List<ListenableFuture<DeleteResponse>> responses = new ArrayList<>();
+
+    for (int start = 0; start < ids.size(); start += batchSize) {
+      DeleteRequest deleteRequest =
+          DeleteRequest.newBuilder()
+              .addAllIds(ids.subList(start, Math.min(start + batchSize, ids.size())))
+              .setNamespace(namespace)
+              .build();
 
-        for (String text : response) {
-          documents.add(new Document(text));
+      permits.acquire();
+      ListenableFuture<DeleteResponse> response = connection.getFutureStub().delete(deleteRequest);
+      response.addListener(permits::release, MoreExecutors.directExecutor());
+      responses.add(response);
+    }
+
+    Exception failure = null;
+    for (ListenableFuture<DeleteResponse> response : responses) {
+      try {
+        response.get();
+      } catch (ExecutionException e) {
+        // Wait for the remaining requests before reporting the failure
+        if (failure == null) {
+          failure = new Exception("Failed to delete vectors", e.getCause());
         }
-        return documents;
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Returns a list of documents that are similar to the query passed
+   *
+   * @param query
+   * @return
+   */
+  @Override
+  public List<Document> searchSimilarity(String query) {
+    List<Document> documents = new ArrayList<>();
+    try {
+      if (embeddings.get() == null) {
+        throw new Exception("Embedding Provider is not set");
+      }
 
-      } else {
-        throw new Exception("Unsupported Embedding Client Type");
+      List<String> response = query(FloatVectors.asList(embeddings.get().embed(query)));
+      for (String text : response) {
+        documents.add(new Document(text));
       }
+      return documents;
     } catch (Exception e) {
       e.printStackTrace();
     }
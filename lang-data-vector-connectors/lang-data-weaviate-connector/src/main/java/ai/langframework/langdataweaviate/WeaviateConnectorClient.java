@@ -1,17 +1,30 @@
 package ai.langframework.langdataweaviate;
 
 import ai.langframework.langdatacohereai.CohereAIConnectorClient;
+import ai.langframework.langdatacohereai.CohereEmbeddingProvider;
 import ai.langframework.langdatacore.ConnectorClient;
 import ai.langframework.langdatacore.Document;
+import ai.langframework.langdatacore.FloatVectors;
 import ai.langframework.langdatacore.Logger;
 import ai.langframework.langdatacore.VectorInterface;
+import ai.langframework.langdatacore.embeddings.EmbeddingCache;
+import ai.langframework.langdatacore.embeddings.EmbeddingProvider;
+import ai.langframework.langdatacore.embeddings.EmbeddingProviderHolder;
 import ai.langframework.langdatacore.exceptions.LoaderException;
 import ai.langframework.langdataopenai.OpenAIConnectorClient;
+import ai.langframework.langdataopenai.OpenAIEmbeddingProvider;
 import io.weaviate.client.Config;
 import io.weaviate.client.WeaviateAuthClient;
 import io.weaviate.client.WeaviateClient;
 import io.weaviate.client.base.Result;
+import io.weaviate.client.base.WeaviateErrorMessage;
+import io.weaviate.client.v1.batch.api.ObjectsBatcher;
+import io.weaviate.client.v1.batch.model.BatchDeleteResponse;
+import io.weaviate.client.v1.batch.model.ObjectGetResponse;
+import io.weaviate.client.v1.batch.model.ObjectsGetResponseAO2Result;
 import io.weaviate.client.v1.data.model.WeaviateObject;
+import io.weaviate.client.v1.filters.Operator;
+import io.weaviate.client.v1.filters.WhereFilter;
 import io.weaviate.client.v1.graphql.model.GraphQLResponse;
 import io.weaviate.client.v1.graphql.query.argument.NearTextArgument;
 import io.weaviate.client.v1.graphql.query.argument.NearVectorArgument;
@@ -20,6 +33,7 @@ import io.weaviate.client.v1.schema.model.Property;
 import io.weaviate.client.v1.schema.model.Schema;
 import io.weaviate.client.v1.schema.model.WeaviateClass;
 import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /** Weaviate Connector Client */
@@ -31,7 +45,10 @@ public class WeaviateConnectorClient implements ConnectorClient, VectorInterface
   private EmbeddingClientType embeddingClientType;
   private OpenAIConnectorClient modelOpenAIConnectorClient;
   private CohereAIConnectorClient modelCohereConnectorClient;
+  private final EmbeddingProviderHolder embeddings = new EmbeddingProviderHolder();
   private String embeddingModel = "text-embedding-ada-002";
+  private int batchSize = 100;
+  private int batchWorkers = 2;
 
   /** Initializes a new Weaviate connector client with no specific configuration. */
   public WeaviateConnectorClient() {
@@ -75,10 +92,14 @@ public class WeaviateConnectorClient implements ConnectorClient, VectorInterface
         case OPENAI:
           modelOpenAIConnectorClient = new OpenAIConnectorClient();
           modelOpenAIConnectorClient.initializeClient(modelApiKey);
+          embeddings.setOwnedProvider(
+              new OpenAIEmbeddingProvider(modelOpenAIConnectorClient, embeddingModel));
           break;
         case COHERE:
           modelCohereConnectorClient = new CohereAIConnectorClient();
           modelCohereConnectorClient.initializeClient(modelApiKey);
+          embeddings.setOwnedProvider(
+              new CohereEmbeddingProvider(modelCohereConnectorClient, null));
           break;
         default:
           throw new Exception("Unsupported Embedding Client Type");
@@ -111,12 +132,69 @@ public class WeaviateConnectorClient implements ConnectorClient, VectorInterface
   }
 
   /**
-   * Sets the embedding model
+   * Sets the embedding model. The provider created for the previous model is closed.
    *
    * @param embeddingModel
    */
   public void setEmbeddingModel(String embeddingModel) {
     this.embeddingModel = embeddingModel;
+    if (modelOpenAIConnectorClient != null) {
+      embeddings.setOwnedProvider(
+          new OpenAIEmbeddingProvider(modelOpenAIConnectorClient, embeddingModel));
+    }
+    if (modelCohereConnectorClient != null) {
+      embeddings.setOwnedProvider(
+          new CohereEmbeddingProvider(modelCohereConnectorClient, embeddingModel));
+    }
+  }
+
+  /**
+   * Sets the provider used to embed documents and queries, replacing the one created for the
+   * embedding client type. The embedding model set with setEmbeddingModel no longer applies.
+   *
+   * @param embeddingProvider The embedding provider to use.
+   */
+  public void setEmbeddingProvider(EmbeddingProvider embeddingProvider) {
+    embeddings.setProvider(embeddingProvider);
+    this.modelOpenAIConnectorClient = null;
+    this.modelCohereConnectorClient = null;
+  }
+
+  /**
+   * Sets the cache looked up before embedding documents and queries. Texts already embedded with
+   * the same model, in this run or an earlier one, are not sent to the embedding provider again.
+   * With the Cohere embedding client, set the model with setEmbeddingModel first, since the vectors
+   * of the default model of the API cannot be cached.
+   *
+   * @param embeddingCache The embedding cache to use, or null to stop caching.
+   * @throws IllegalStateException if the embedding provider does not name its model.
+   */
+  public void setEmbeddingCache(EmbeddingCache embeddingCache) {
+    embeddings.setCache(embeddingCache);
+  }
+
+  /**
+   * Sets the number of objects sent in a single batch request
+   *
+   * @param batchSize
+   */
+  public void setBatchSize(int batchSize) {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("Batch size must be positive");
+    }
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Sets the number of batch requests sent concurrently
+   *
+   * @param batchWorkers
+   */
+  public void setBatchWorkers(int batchWorkers) {
+    if (batchWorkers <= 0) {
+      throw new IllegalArgumentException("Batch workers must be positive");
+    }
+    this.batchWorkers = batchWorkers;
   }
 
   /**
@@ -632,42 +710,225 @@ public class WeaviateConnectorClient implements ConnectorClient, VectorInterface
   }
 
   /**
-   * Accepts a list of documents, convert it onto vectors and stores it into Weaviate
+   * Accepts a list of documents, convert it onto vectors and stores it into Weaviate. Documents are
+   * embedded in groups of batchSize and handed to a batcher, which writes them through the batch
+   * objects endpoint while the next group is being embedded.
    *
    * @param documents
    */
   @Override
   public void addDocuments(List<Document> documents) {
     try {
-      if (className == null) {
-        throw new Exception("Class Name is not set");
+      writeDocuments(documents, null);
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Embeds documents and writes them through the batch objects endpoint as objects whose UUID is
+   * derived from the given ids. Weaviate replaces an object written again with the same UUID.
+   *
+   * @param documents The documents to write.
+   * @param ids The id of each document.
+   * @throws Exception if the documents cannot be embedded or any object failed.
+   */
+  @Override
+  public void upsertDocuments(List<Document> documents, List<String> ids) throws Exception {
+    if (documents.size() != ids.size()) {
+      throw new IllegalArgumentException("documents and ids must have the same length");
+    }
+    List<String> errors = writeDocuments(documents, ids);
+    if (!errors.isEmpty()) {
+      throw new Exception(errors.size() + " errors while upserting Weaviate Data Objects");
+    }
+  }
+
+  /**
+   * Deletes the objects of the given ids from the class with the batch delete endpoint, in requests
+   * of at most batchSize objects.
+   *
+   * @param ids The ids passed to upsertDocuments.
+   * @throws Exception if any of the objects could not be deleted.
+   */
+  @Override
+  public void deleteDocuments(List<String> ids) throws Exception {
+    if (className == null) {
+      throw new Exception("Class Name is not set");
+    }
+    for (int start = 0; start < ids.size(); start += batchSize) {
+      List<String> batch = ids.subList(start, Math.min(start + batchSize, ids.size()));
+      String[] uuids = new String[batch.size()];
+      for (int i = 0; i < uuids.length; i++) {
+        uuids[i] = objectId(batch.get(i));
       }
-      if (embeddingClientType == EmbeddingClientType.OPENAI) {
-        for (Document doc : documents) {
-          Map<String, Object> dataSchema = new HashMap<>();
-          dataSchema.put("text", doc.getText());
 
-          List<Float[]> data =
-              modelOpenAIConnectorClient.embedding(List.of(doc.getText()), embeddingModel);
+      WhereFilter where =
+          WhereFilter.builder().path("id").operator(Operator.ContainsAny).valueText(uuids).build();
+      Result<BatchDeleteResponse> result =
+          client.batch().objectsBatchDeleter().withClassName(className).withWhere(where).run();
 
-          addDataObjectWithVector(className, dataSchema, data.get(0));
-        }
+      if (result.hasErrors()) {
+        Logger.error(result.getError().toString());
+        throw new Exception("Unable to delete Weaviate Data Objects");
+      }
+      Long failed = result.getResult().getResults().getFailed();
+      if (failed != null && failed > 0) {
+        throw new Exception("Unable to delete " + failed + " Weaviate Data Objects");
+      }
+    }
+  }
 
-      } else if (embeddingClientType == EmbeddingClientType.COHERE) {
-        for (Document doc : documents) {
-          Map<String, Object> dataSchema = new HashMap<>();
-          dataSchema.put("text", doc.getText());
+  /**
+   * Embeds documents in groups of batchSize and hands them to a batcher, which writes them while
+   * the next group is being embedded.
+   *
+   * @param documents
+   * @param ids The id of each document, or null to let Weaviate generate the UUIDs
+   * @return The errors reported for the batches or individual objects, empty if all were added
+   * @throws Exception if the documents cannot be embedded
+   */
+  private List<String> writeDocuments(List<Document> documents, List<String> ids) throws Exception {
+    if (className == null) {
+      throw new Exception("Class Name is not set");
+    }
+    if (embeddings.get() == null) {
+      throw new Exception("Embedding Provider is not set");
+    }
 
-          Float[] data = modelCohereConnectorClient.embedText(doc.getText());
+    List<String> errors = Collections.synchronizedList(new ArrayList<>());
+    try (ObjectsBatcher batcher = createBatcher(errors)) {
+      for (int start = 0; start < documents.size(); start += batchSize) {
+        List<Document> batch =
+            documents.subList(start, Math.min(start + batchSize, documents.size()));
 
-          addDataObjectWithVector(className, dataSchema, data);
+        List<String> texts = new ArrayList<>(batch.size());
+        for (Document doc : batch) {
+          texts.add(doc.getText());
+        }
+
+        List<float[]> data = embeddings.get().embed(texts);
+
+        for (int i = 0; i < texts.size(); i++) {
+          WeaviateObject object =
+              buildObject(
+                  className, Map.of("text", texts.get(i)), FloatVectors.toBoxed(data.get(i)));
+          if (ids != null) {
+            object.setId(objectId(ids.get(start + i)));
+          }
+          batcher.withObject(object);
         }
-      } else {
-        throw new Exception("Unsupported Embedding Client Type");
       }
-    } catch (Exception e) {
-      e.printStackTrace();
+      batcher.flush();
+    }
+
+    logBatchErrors(errors);
+    return new ArrayList<>(errors);
+  }
+
+  /**
+   * Derives the UUID of an object from a document id, as Weaviate only accepts UUIDs.
+   *
+   * @param id
+   * @return The UUID
+   */
+  private static String objectId(String id) {
+    return UUID.nameUUIDFromBytes(id.getBytes(StandardCharsets.UTF_8)).toString();
+  }
+
+  /**
+   * Method used to add data objects with vectors in Weaviate Class through the batch objects
+   * endpoint. Objects are sent in batches of batchSize by batchWorkers concurrent workers.
+   *
+   * @param className
+   * @param dataSchemas
+   * @param vectors
+   * @return The errors reported for the batches or individual objects, empty if all were added
+   */
+  public List<String> addDataObjectsWithVectors(
+      String className, List<Map<String, Object>> dataSchemas, List<Float[]> vectors) {
+    List<String> errors = Collections.synchronizedList(new ArrayList<>());
+    try (ObjectsBatcher batcher = createBatcher(errors)) {
+      for (int i = 0; i < dataSchemas.size(); i++) {
+        batcher.withObject(buildObject(className, dataSchemas.get(i), vectors.get(i)));
+      }
+      batcher.flush();
     }
+
+    logBatchErrors(errors);
+    return new ArrayList<>(errors);
+  }
+
+  /**
+   * Creates a batcher that sends objects in batches of batchSize on batchWorkers threads, and
+   * collects the errors of every batch and object into the list passed.
+   *
+   * @param errors
+   * @return The batcher
+   */
+  private ObjectsBatcher createBatcher(List<String> errors) {
+    ObjectsBatcher.AutoBatchConfig autoBatchConfig =
+        ObjectsBatcher.AutoBatchConfig.builder()
+            .batchSize(batchSize)
+            .poolSize(batchWorkers)
+            .callback(result -> collectBatchErrors(result, errors))
+            .build();
+
+    return client.batch().objectsAutoBatcher(autoBatchConfig);
+  }
+
+  /**
+   * Adds the error of a failed batch, or the error of each failed object of the batch, to the
+   * errors list.
+   *
+   * @param result
+   * @param errors
+   */
+  private void collectBatchErrors(Result<ObjectGetResponse[]> result, List<String> errors) {
+    if (result.hasErrors()) {
+      for (WeaviateErrorMessage message : result.getError().getMessages()) {
+        errors.add("Batch failed: " + message.getMessage());
+      }
+      return;
+    }
+
+    for (ObjectGetResponse response : result.getResult()) {
+      if (response.getResult() == null || response.getResult().getErrors() == null) {
+        continue;
+      }
+      for (ObjectsGetResponseAO2Result.ErrorItem item :
+          response.getResult().getErrors().getError()) {
+        errors.add("Object " + response.getId() + " failed: " + item.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Logs the errors collected by a batcher.
+   *
+   * @param errors
+   */
+  private void logBatchErrors(List<String> errors) {
+    for (String error : errors) {
+      Logger.error(error);
+    }
+  }
+
+  /**
+   * Builds a data object with vector
+   *
+   * @param className
+   * @param dataSchema
+   * @param vector
+   * @return The data object
+   */
+  private WeaviateObject buildObject(
+      String className, Map<String, Object> dataSchema, Float[] vector) {
+    return WeaviateObject.builder()
+        .className(className)
+        .properties(dataSchema)
+        .vector(vector)
+        .build();
   }
 
   /**
@@ -683,25 +944,14 @@ public class WeaviateConnectorClient implements ConnectorClient, VectorInterface
       if (className == null) {
         throw new Exception("Class Name is not set");
       }
-      if (embeddingClientType == EmbeddingClientType.OPENAI) {
-
-        List<Float[]> data = modelOpenAIConnectorClient.embedding(List.of(query), embeddingModel);
-
-        GraphQLResponse response = searchWithVectors(data.get(0));
-
-        documents.add(new Document(response.getData().toString()));
-        return documents;
-
-      } else if (embeddingClientType == EmbeddingClientType.COHERE) {
-
-        Float[] data = modelCohereConnectorClient.embedText(query);
-        GraphQLResponse response = searchWithVectors(data);
-        documents.add(new Document(response.toString()));
-        return documents;
-
-      } else {
-        throw new Exception("Unsupported Embedding Client Type");
+      if (embeddings.get() == null) {
+        throw new Exception("Embedding Provider is not set");
       }
+
+      GraphQLResponse response =
+          searchWithVectors(FloatVectors.toBoxed(embeddings.get().embed(query)));
+      documents.add(new Document(response.getData().toString()));
+      return documents;
     } catch (Exception e) {
       e.printStackTrace();
     }